@@ -0,0 +1,17 @@
+-- Migration script for explicit character positions
+-- Description: scene_characters.character_position holds the order the editor
+-- gave a scene's characters. Without it every read returned them sorted by
+-- name, and the scene sync rewrote the list once the client sent that order
+-- back. Existing rows keep the name order they were shown in. The table has
+-- no key, so a temporary one tells rows with the same name apart.
+
+ALTER TABLE scene_characters ADD COLUMN IF NOT EXISTS character_position INT NULL;
+ALTER TABLE scene_characters ADD COLUMN IF NOT EXISTS tmp_row_id BIGINT NOT NULL AUTO_INCREMENT UNIQUE;
+
+UPDATE scene_characters c
+JOIN (SELECT tmp_row_id, ROW_NUMBER() OVER (PARTITION BY scene_id ORDER BY character_name, tmp_row_id) - 1 AS pos
+      FROM scene_characters) r ON r.tmp_row_id = c.tmp_row_id
+SET c.character_position = r.pos
+WHERE c.character_position IS NULL;
+
+ALTER TABLE scene_characters DROP COLUMN IF EXISTS tmp_row_id;
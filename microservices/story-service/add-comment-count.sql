@@ -0,0 +1,9 @@
+-- Migration script for the denormalized comment counter
+-- Description: stories.comment_count is maintained on comment insert/delete and
+-- reconciled by the comment-count-reconciliation background job
+
+ALTER TABLE stories ADD COLUMN IF NOT EXISTS comment_count INT NOT NULL DEFAULT 0;
+
+-- Initial fill (the reconciliation job also corrects any drift later)
+UPDATE stories s
+SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.story_id = s.id);
@@ -0,0 +1,11 @@
+-- Migration script for the keyset-paginated story feed
+-- Description: Composite indexes backing GET /api/stories/feed sort modes
+
+-- One index per sort mode: filter on is_published, order by sort column, tie-break on id
+CREATE INDEX idx_stories_pub_created ON stories (is_published, created_at, id);
+CREATE INDEX idx_stories_pub_likes ON stories (is_published, like_count, id);
+CREATE INDEX idx_stories_pub_views ON stories (is_published, view_count, id);
+CREATE INDEX idx_stories_pub_watch ON stories (is_published, total_watch_time, id);
+
+-- Genre filter probes story_genres by story
+CREATE INDEX idx_story_genres_story_genre ON story_genres (story_id, genre_id);
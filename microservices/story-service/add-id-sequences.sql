@@ -0,0 +1,34 @@
+-- Migration script for pooled id generation
+-- Description: scenes, scene_media, characters, story_images and story_genres
+-- take their ids from sequence tables (MySQL has no sequences, so Hibernate
+-- emulates them with one single-row table each) in blocks of 50, which lets
+-- their inserts be batched. Run before deploying: each table must start past
+-- the ids already in use, or Hibernate creates it starting at 1. Running it
+-- after such a start repairs the tables: every sequence is moved past the
+-- largest id in use (restart the instances afterwards, they may hold blocks
+-- handed out from the old value).
+
+CREATE TABLE IF NOT EXISTS scenes_seq (next_val BIGINT);
+INSERT INTO scenes_seq SELECT start FROM (SELECT COALESCE(MAX(id), 0) + 100 AS start FROM scenes) t
+    WHERE NOT EXISTS (SELECT 1 FROM scenes_seq);
+UPDATE scenes_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 100 FROM scenes));
+
+CREATE TABLE IF NOT EXISTS scene_media_seq (next_val BIGINT);
+INSERT INTO scene_media_seq SELECT start FROM (SELECT COALESCE(MAX(id), 0) + 100 AS start FROM scene_media) t
+    WHERE NOT EXISTS (SELECT 1 FROM scene_media_seq);
+UPDATE scene_media_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 100 FROM scene_media));
+
+CREATE TABLE IF NOT EXISTS characters_seq (next_val BIGINT);
+INSERT INTO characters_seq SELECT start FROM (SELECT COALESCE(MAX(id), 0) + 100 AS start FROM characters) t
+    WHERE NOT EXISTS (SELECT 1 FROM characters_seq);
+UPDATE characters_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 100 FROM characters));
+
+CREATE TABLE IF NOT EXISTS story_images_seq (next_val BIGINT);
+INSERT INTO story_images_seq SELECT start FROM (SELECT COALESCE(MAX(id), 0) + 100 AS start FROM story_images) t
+    WHERE NOT EXISTS (SELECT 1 FROM story_images_seq);
+UPDATE story_images_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 100 FROM story_images));
+
+CREATE TABLE IF NOT EXISTS story_genres_seq (next_val BIGINT);
+INSERT INTO story_genres_seq SELECT start FROM (SELECT COALESCE(MAX(id), 0) + 100 AS start FROM story_genres) t
+    WHERE NOT EXISTS (SELECT 1 FROM story_genres_seq);
+UPDATE story_genres_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 100 FROM story_genres));
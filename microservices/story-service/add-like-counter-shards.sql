@@ -0,0 +1,11 @@
+-- Migration script for the sharded like counter
+-- Description: likes/unlikes add to a random slot per story; the like-counter-fold
+-- job periodically moves the pending deltas into stories.like_count
+
+CREATE TABLE IF NOT EXISTS like_counter_shards (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    story_id BIGINT NOT NULL,
+    shard INT NOT NULL,
+    delta BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_like_counter_shards_story_shard UNIQUE (story_id, shard)
+);
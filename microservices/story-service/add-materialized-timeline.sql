@@ -0,0 +1,9 @@
+-- Migration script for materialized timelines
+-- Description: scene rows are now the only stored copy of a story's timeline;
+-- the timeline JSON in responses is built from them. Drop the duplicate copy
+-- from stories that have scenes. Stories without scenes keep theirs and it is
+-- served as before until their timeline is next saved.
+
+UPDATE stories s SET timeline_json = NULL
+WHERE timeline_json IS NOT NULL
+  AND EXISTS (SELECT 1 FROM scenes sc WHERE sc.story_id = s.id);
@@ -0,0 +1,18 @@
+-- Migration script for explicit media and image positions
+-- Description: scene_media.media_position and story_images.image_position
+-- hold the display order. Ids now come from pooled sequence blocks, so with
+-- more than one instance they no longer follow insertion order. Existing rows
+-- get positions from their current id order.
+
+ALTER TABLE scene_media ADD COLUMN IF NOT EXISTS media_position INT NULL;
+ALTER TABLE story_images ADD COLUMN IF NOT EXISTS image_position INT NULL;
+
+UPDATE scene_media m
+JOIN (SELECT id, ROW_NUMBER() OVER (PARTITION BY scene_id ORDER BY id) - 1 AS pos FROM scene_media) r ON r.id = m.id
+SET m.media_position = r.pos
+WHERE m.media_position IS NULL;
+
+UPDATE story_images i
+JOIN (SELECT id, ROW_NUMBER() OVER (PARTITION BY story_id ORDER BY id) - 1 AS pos FROM story_images) r ON r.id = i.id
+SET i.image_position = r.pos
+WHERE i.image_position IS NULL;
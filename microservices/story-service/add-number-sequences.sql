@@ -0,0 +1,12 @@
+-- Migration script for block-allocated story numbers
+-- Description: Counter table used by StoryNumberGenerator (hi/lo allocation)
+
+CREATE TABLE IF NOT EXISTS number_sequences (
+    name VARCHAR(50) PRIMARY KEY,
+    next_value BIGINT NOT NULL
+);
+
+-- Continue after the highest story number in use (story-service also seeds this on first use)
+INSERT IGNORE INTO number_sequences (name, next_value)
+SELECT 'story_number', GREATEST(10000, COALESCE(MAX(CAST(story_number AS UNSIGNED)), 0) + 1)
+FROM stories;
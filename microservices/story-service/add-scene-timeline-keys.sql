@@ -0,0 +1,8 @@
+-- Migration script for keyed scene synchronization
+-- Description: scenes.timeline_entry_id holds the client-side id of the
+-- timeline entry a scene was synced from, so saving a story updates scenes in
+-- place instead of deleting and re-inserting all of them. Existing scenes
+-- start without a key and are matched by position on their story's next save.
+
+ALTER TABLE scenes ADD COLUMN IF NOT EXISTS timeline_entry_id VARCHAR(64) NULL;
+CREATE INDEX idx_scenes_story_entry ON scenes (story_id, timeline_entry_id);
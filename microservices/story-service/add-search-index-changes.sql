@@ -0,0 +1,11 @@
+-- Migration script for the story search index change log
+-- Description: one row per story change; every story-service instance polls
+-- this table to keep its in-memory search index current and to catch up on
+-- changes made while it was down
+
+CREATE TABLE IF NOT EXISTS search_index_changes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    story_id BIGINT NOT NULL,
+    changed_at DATETIME NOT NULL,
+    INDEX idx_search_index_changes_changed_at (changed_at)
+);
@@ -0,0 +1,24 @@
+-- Migration script for time-bucketed engagement rollups
+-- Description: hourly rows are written from in-memory minute buckets; the
+-- stats-compaction job rebuilds daily rows from them and purges old hours
+
+CREATE TABLE IF NOT EXISTS story_stats_hourly (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    story_id BIGINT NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    views BIGINT NOT NULL DEFAULT 0,
+    likes BIGINT NOT NULL DEFAULT 0,
+    watch_seconds BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_story_stats_hourly_story_bucket UNIQUE (story_id, bucket_start),
+    INDEX idx_story_stats_hourly_bucket (bucket_start)
+);
+
+CREATE TABLE IF NOT EXISTS story_stats_daily (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    story_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    views BIGINT NOT NULL DEFAULT 0,
+    likes BIGINT NOT NULL DEFAULT 0,
+    watch_seconds BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_story_stats_daily_story_day UNIQUE (story_id, day)
+);
@@ -0,0 +1,9 @@
+-- Migration script for story versioning
+-- Description: stories.version is the optimistic-lock version (bumped by story,
+-- scene, character, image and genre edits) and backs the ETags on story and
+-- scene reads; updated_at records the last such edit
+
+ALTER TABLE stories ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE stories ADD COLUMN IF NOT EXISTS updated_at DATETIME NULL;
+
+UPDATE stories SET updated_at = created_at WHERE updated_at IS NULL;
@@ -0,0 +1,8 @@
+-- Migration script for per-instance trending scores
+-- Description: every story-service instance snapshots only the events it
+-- received, so rows are keyed by instance and summed when ranking. Rows
+-- written before this change get an empty instance id. They are merged like
+-- any other instance's rows and deleted once they have decayed.
+
+ALTER TABLE trending_scores ADD COLUMN IF NOT EXISTS instance_id VARCHAR(100) NOT NULL DEFAULT '';
+ALTER TABLE trending_scores DROP PRIMARY KEY, ADD PRIMARY KEY (instance_id, story_id);
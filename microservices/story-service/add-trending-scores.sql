@@ -0,0 +1,9 @@
+-- Migration script for the trending engine snapshot
+-- Description: decayed trending score per story as of the last snapshot;
+-- restored into memory on startup
+
+CREATE TABLE IF NOT EXISTS trending_scores (
+    story_id BIGINT PRIMARY KEY,
+    score DOUBLE NOT NULL,
+    as_of DATETIME NOT NULL
+);
@@ -0,0 +1,13 @@
+-- Migration script for HyperLogLog unique-viewer tracking
+-- Description: per-story viewer sketches (one all-time row dated 1970-01-01 plus
+-- one row per day) and the opt-in flag for exact per-viewer tracking
+
+CREATE TABLE IF NOT EXISTS story_viewer_sketches (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    story_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    registers BLOB NOT NULL,
+    CONSTRAINT uk_story_viewer_sketches_story_day UNIQUE (story_id, day)
+);
+
+ALTER TABLE stories ADD COLUMN IF NOT EXISTS exact_viewer_tracking BOOLEAN NOT NULL DEFAULT FALSE;
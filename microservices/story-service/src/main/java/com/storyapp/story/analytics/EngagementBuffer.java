@@ -0,0 +1,319 @@
+package com.storyapp.story.analytics;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind buffer for view and watch-time events.
+ *
+ * Requests only add to in-memory per-story and per-viewer counters. A single
+ * background thread swaps the buffer out and writes it with batched JDBC
+ * updates, either every {@code engagement.flush-interval-millis} or as soon as
+ * {@code engagement.flush-threshold} distinct keys are pending. A flush that
+ * fails is merged back and retried with the next one. The remaining events
+ * are flushed on graceful shutdown.
+ *
+ * An anonymous view always counts. Signed-in viewers are added to the story's
+ * HyperLogLog sketches ({@link ViewerSketchStore}) and the view count grows by
+ * the growth of the unique-viewer estimate. Stories whose author opted into
+ * exact tracking also keep one {@code story_views} row per viewer and count
+ * each viewer exactly once.
+ */
+@Component
+public class EngagementBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(EngagementBuffer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ViewerSketchStore viewerSketchStore;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long flushIntervalMillis;
+    private final int flushThreshold;
+    private final ScheduledExecutorService executor;
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private volatile Batch current = new Batch();
+
+    public EngagementBuffer(JdbcTemplate jdbcTemplate, ViewerSketchStore viewerSketchStore,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${engagement.flush-interval-millis:1000}") long flushIntervalMillis,
+                            @Value("${engagement.flush-threshold:1000}") int flushThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.viewerSketchStore = viewerSketchStore;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushThreshold = flushThreshold;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "engagement-flush");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordView(Long storyId, String username) {
+        swapLock.readLock().lock();
+        try {
+            if (username == null) {
+                current.story(storyId).views.increment();
+            } else {
+                ViewerCounters viewer = current.viewers.computeIfAbsent(new ViewerKey(storyId, username), k -> new ViewerCounters());
+                viewer.views.increment();
+                viewer.lastViewedAt = LocalDateTime.now();
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        requestFlushIfFull();
+    }
+
+    public void recordWatchTime(Long storyId, long seconds) {
+        swapLock.readLock().lock();
+        try {
+            current.story(storyId).watchSeconds.add(seconds);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        requestFlushIfFull();
+    }
+
+    private void requestFlushIfFull() {
+        Batch batch = current;
+        if (batch.stories.size() + batch.viewers.size() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // shutting down; the final flush picks these events up
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Engagement flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Swaps the buffer out and writes it. Writers block only for the swap itself.
+     */
+    synchronized void flush() {
+        flushRequested.set(false);
+        Batch batch;
+        swapLock.writeLock().lock();
+        try {
+            batch = current;
+            current = new Batch();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+        } catch (RuntimeException e) {
+            requeue(batch);
+            throw e;
+        }
+    }
+
+    private void write(Batch batch) {
+        Map<Long, Long> newViews = new HashMap<>();
+        batch.stories.forEach((storyId, counters) -> newViews.put(storyId, counters.views.sum()));
+
+        if (!batch.viewers.isEmpty()) {
+            Map<Long, List<String>> viewersByStory = new HashMap<>();
+            batch.viewers.keySet().forEach(key ->
+                viewersByStory.computeIfAbsent(key.storyId, k -> new ArrayList<>()).add(key.username));
+            Map<Long, Long> estimatedNew = viewerSketchStore.addViewers(viewersByStory, LocalDate.now());
+            Set<Long> exact = findExactTrackingStories(viewersByStory.keySet());
+            estimatedNew.forEach((storyId, growth) -> {
+                if (!exact.contains(storyId)) {
+                    newViews.merge(storyId, growth, Long::sum);
+                }
+            });
+            if (!exact.isEmpty()) {
+                writeExactViewers(batch, exact, newViews);
+            }
+        }
+
+        List<Object[]> storyUpdates = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : newViews.entrySet()) {
+            Long storyId = entry.getKey();
+            StoryCounters counters = batch.stories.get(storyId);
+            long watchSeconds = counters != null ? counters.watchSeconds.sum() : 0L;
+            long views = entry.getValue();
+            if (views != 0 || watchSeconds != 0) {
+                storyUpdates.add(new Object[] { views, watchSeconds, storyId });
+            }
+        }
+        jdbcTemplate.batchUpdate(
+            "UPDATE stories SET view_count = view_count + ?, total_watch_time = total_watch_time + ? WHERE id = ?",
+            storyUpdates);
+    }
+
+    /**
+     * Keeps one {@code story_views} row per viewer for stories whose author
+     * opted into exact tracking, and counts viewers without a row as new.
+     */
+    private void writeExactViewers(Batch batch, Set<Long> exact, Map<Long, Long> newViews) {
+        Set<ViewerKey> keys = new HashSet<>();
+        for (ViewerKey key : batch.viewers.keySet()) {
+            if (exact.contains(key.storyId)) {
+                keys.add(key);
+            }
+        }
+        Set<ViewerKey> known = findExistingViewers(keys);
+        List<Object[]> upserts = new ArrayList<>(keys.size());
+        for (ViewerKey key : keys) {
+            ViewerCounters viewer = batch.viewers.get(key);
+            Timestamp lastViewedAt = Timestamp.valueOf(viewer.lastViewedAt);
+            upserts.add(new Object[] { key.username, lastViewedAt, lastViewedAt, viewer.views.sum(), key.storyId });
+            if (!known.contains(key)) {
+                newViews.merge(key.storyId, 1L, Long::sum);
+            }
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO story_views (story_id, username, first_viewed_at, last_viewed_at, view_count) "
+                + "SELECT id, ?, ?, ?, ? FROM stories WHERE id = ? "
+                + "ON DUPLICATE KEY UPDATE last_viewed_at = GREATEST(last_viewed_at, VALUES(last_viewed_at)), "
+                + "view_count = view_count + VALUES(view_count)",
+            upserts);
+    }
+
+    private Set<Long> findExactTrackingStories(Set<Long> storyIds) {
+        return new HashSet<>(namedJdbcTemplate.queryForList(
+            "SELECT id FROM stories WHERE id IN (:ids) AND exact_viewer_tracking = TRUE",
+            new MapSqlParameterSource("ids", storyIds), Long.class));
+    }
+
+    private Set<ViewerKey> findExistingViewers(Set<ViewerKey> keys) {
+        List<Object[]> pairs = new ArrayList<>(keys.size());
+        for (ViewerKey key : keys) {
+            pairs.add(new Object[] { key.storyId, key.username });
+        }
+        Set<ViewerKey> existing = new HashSet<>();
+        namedJdbcTemplate.query(
+            "SELECT story_id, username FROM story_views WHERE (story_id, username) IN (:pairs)",
+            new MapSqlParameterSource("pairs", pairs),
+            rs -> { existing.add(new ViewerKey(rs.getLong("story_id"), rs.getString("username"))); });
+        return existing;
+    }
+
+    private void requeue(Batch failed) {
+        swapLock.readLock().lock();
+        try {
+            failed.stories.forEach((storyId, counters) -> {
+                StoryCounters target = current.story(storyId);
+                target.views.add(counters.views.sum());
+                target.watchSeconds.add(counters.watchSeconds.sum());
+            });
+            failed.viewers.forEach((key, viewer) -> {
+                ViewerCounters target = current.viewers.computeIfAbsent(key, k -> new ViewerCounters());
+                target.views.add(viewer.views.sum());
+                if (target.lastViewedAt == null || target.lastViewedAt.isBefore(viewer.lastViewedAt)) {
+                    target.lastViewedAt = viewer.lastViewedAt;
+                }
+            });
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Dropping unflushed engagement events on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private static final class Batch {
+        private final Map<Long, StoryCounters> stories = new ConcurrentHashMap<>();
+        private final Map<ViewerKey, ViewerCounters> viewers = new ConcurrentHashMap<>();
+
+        StoryCounters story(Long storyId) {
+            return stories.computeIfAbsent(storyId, k -> new StoryCounters());
+        }
+
+        boolean isEmpty() {
+            return stories.isEmpty() && viewers.isEmpty();
+        }
+    }
+
+    private static final class StoryCounters {
+        private final LongAdder views = new LongAdder();
+        private final LongAdder watchSeconds = new LongAdder();
+    }
+
+    private static final class ViewerCounters {
+        private final LongAdder views = new LongAdder();
+        private volatile LocalDateTime lastViewedAt;
+    }
+
+    private static final class ViewerKey {
+        private final long storyId;
+        private final String username;
+
+        ViewerKey(long storyId, String username) {
+            this.storyId = storyId;
+            this.username = username;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ViewerKey)) return false;
+            ViewerKey other = (ViewerKey) o;
+            return storyId == other.storyId && username.equals(other.username);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(storyId, username);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.storyapp.story.analytics;
+
+/**
+ * Published by StoryService for every view, like, unlike, comment, comment
+ * deletion and watch-time report. Events raised inside a transaction are delivered after it
+ * commits.
+ */
+public class EngagementEvent {
+
+    public enum Type { VIEW, LIKE, UNLIKE, COMMENT, UNCOMMENT, WATCH_TIME }
+
+    private final Long storyId;
+    private final Type type;
+    private final long amount;
+
+    private EngagementEvent(Long storyId, Type type, long amount) {
+        this.storyId = storyId;
+        this.type = type;
+        this.amount = amount;
+    }
+
+    public static EngagementEvent view(Long storyId) {
+        return new EngagementEvent(storyId, Type.VIEW, 1);
+    }
+
+    public static EngagementEvent like(Long storyId) {
+        return new EngagementEvent(storyId, Type.LIKE, 1);
+    }
+
+    public static EngagementEvent unlike(Long storyId) {
+        return new EngagementEvent(storyId, Type.UNLIKE, 1);
+    }
+
+    public static EngagementEvent comment(Long storyId) {
+        return new EngagementEvent(storyId, Type.COMMENT, 1);
+    }
+
+    public static EngagementEvent uncomment(Long storyId) {
+        return new EngagementEvent(storyId, Type.UNCOMMENT, 1);
+    }
+
+    public static EngagementEvent watchTime(Long storyId, long seconds) {
+        return new EngagementEvent(storyId, Type.WATCH_TIME, seconds);
+    }
+
+    public Long getStoryId() { return storyId; }
+    public Type getType() { return type; }
+    public long getAmount() { return amount; }
+}
@@ -0,0 +1,305 @@
+package com.storyapp.story.analytics;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregates {@link EngagementEvent}s into per-story, per-minute buckets.
+ *
+ * Each active story has a ring of minute slots. Once a minute the completed
+ * minutes are drained and added to {@code story_stats_hourly} with one batched
+ * upsert, so hourly rows trail real time by about a minute. Stories that go
+ * quiet drop their ring. Daily rows are produced from the hourly ones by
+ * StatsCompactionJob.
+ *
+ * At most {@code stats.max-tracked-stories} stories are tracked between
+ * flushes, and a flush drops ids that are not stories, so bogus ids sent by
+ * clients cannot grow memory. The increments of a flush are written in one
+ * transaction: a failed flush leaves nothing behind, and retrying it cannot
+ * count any row twice. While the database is unavailable the drained hours
+ * are kept for the retry, up to {@code stats.max-unflushed-rows}; beyond that
+ * the oldest hours are dropped with a warning.
+ *
+ * Minutes are counted on the epoch clock and mapped to hourly rows in
+ * {@code stats.time-zone} (the JVM zone unless set), the zone the rest of the
+ * service reads its local timestamps in. When clocks go back an hour, both
+ * real hours add up in the same local row.
+ */
+@Component
+public class EngagementRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(EngagementRollups.class);
+    private static final int RING_MINUTES = 60;
+    private static final int VIEWS = 0;
+    private static final int LIKES = 1;
+    private static final int WATCH_SECONDS = 2;
+    private static final int ID_CHECK_BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxTrackedStories;
+    private final int maxUnflushedRows;
+    private final Clock clock;
+    private final Map<Long, MinuteRing> rings = new ConcurrentHashMap<>();
+    private final Map<HourKey, long[]> unflushed = new HashMap<>();
+    private final ScheduledExecutorService executor;
+
+    @Autowired
+    public EngagementRollups(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             @Value("${stats.max-tracked-stories:50000}") int maxTrackedStories,
+                             @Value("${stats.max-unflushed-rows:100000}") int maxUnflushedRows,
+                             @Value("${stats.time-zone:}") String timeZone) {
+        this(jdbcTemplate, transactionManager, maxTrackedStories, maxUnflushedRows,
+            Clock.system(timeZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(timeZone)));
+    }
+
+    EngagementRollups(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                      int maxTrackedStories, int maxUnflushedRows, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxTrackedStories = maxTrackedStories;
+        this.maxUnflushedRows = maxUnflushedRows;
+        this.clock = clock;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stats-flush");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::flushQuietly, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(EngagementEvent event) {
+        int metric;
+        long amount = event.getAmount();
+        switch (event.getType()) {
+            case VIEW: metric = VIEWS; break;
+            case LIKE: metric = LIKES; break;
+            case UNLIKE: metric = LIKES; amount = -amount; break;
+            case WATCH_TIME: metric = WATCH_SECONDS; break;
+            default: return;
+        }
+        if (rings.size() >= maxTrackedStories && !rings.containsKey(event.getStoryId())) {
+            return; // full until the next flush drains quiet stories
+        }
+        long minute = currentMinute();
+        int index = metric;
+        long delta = amount;
+        rings.compute(event.getStoryId(), (id, ring) -> {
+            MinuteRing target = ring != null ? ring : new MinuteRing();
+            target.add(minute, index, delta);
+            return target;
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush(currentMinute());
+        } catch (Exception e) {
+            log.warn("Stats flush failed, will retry; {} hourly rows pending: {}", unflushedRows(), e.getMessage());
+        }
+    }
+
+    /**
+     * Writes every minute before {@code untilMinute} to the hourly table.
+     */
+    synchronized void flush(long untilMinute) {
+        List<Long> storyIds = new ArrayList<>(rings.keySet());
+        Set<Long> existing = existingStoryIds(storyIds);
+        for (Long storyId : storyIds) {
+            if (!existing.contains(storyId)) {
+                rings.remove(storyId);
+                continue;
+            }
+            rings.computeIfPresent(storyId, (id, ring) -> {
+                ring.drain(untilMinute, (minute, counts) -> {
+                    long[] hour = unflushed.computeIfAbsent(new HourKey(id, hourOf(minute, clock.getZone())),
+                        k -> new long[3]);
+                    for (int i = 0; i < counts.length; i++) {
+                        hour[i] += counts[i];
+                    }
+                });
+                return ring.isEmpty() ? null : ring;
+            });
+        }
+        if (unflushed.isEmpty()) {
+            return;
+        }
+        dropOldestBeyondLimit();
+
+        List<Object[]> upserts = new ArrayList<>(unflushed.size());
+        unflushed.forEach((key, counts) -> upserts.add(new Object[] {
+            key.storyId, Timestamp.valueOf(key.hourStart), counts[VIEWS], counts[LIKES], counts[WATCH_SECONDS]
+        }));
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+            "INSERT INTO story_stats_hourly (story_id, bucket_start, views, likes, watch_seconds) VALUES (?, ?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE views = views + VALUES(views), likes = likes + VALUES(likes), "
+                + "watch_seconds = watch_seconds + VALUES(watch_seconds)",
+            upserts));
+        // kept until written, so a failed flush is retried with the next one
+        unflushed.clear();
+    }
+
+    /**
+     * Keeps the backlog of a long outage bounded by dropping whole hours,
+     * oldest first.
+     */
+    private void dropOldestBeyondLimit() {
+        if (unflushed.size() <= maxUnflushedRows) {
+            return;
+        }
+        List<HourKey> keys = new ArrayList<>(unflushed.keySet());
+        keys.sort(Comparator.comparing((HourKey key) -> key.hourStart));
+        int excess = unflushed.size() - maxUnflushedRows;
+        LocalDateTime lastDropped = keys.get(excess - 1).hourStart;
+        int dropped = 0;
+        for (HourKey key : keys) {
+            if (key.hourStart.isAfter(lastDropped)) {
+                break;
+            }
+            unflushed.remove(key);
+            dropped++;
+        }
+        log.warn("Stats backlog over {} rows; dropped {} rows up to hour {}", maxUnflushedRows, dropped, lastDropped);
+    }
+
+    private synchronized int unflushedRows() {
+        return unflushed.size();
+    }
+
+    private Set<Long> existingStoryIds(List<Long> storyIds) {
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < storyIds.size(); from += ID_CHECK_BATCH) {
+            List<Long> batch = storyIds.subList(from, Math.min(from + ID_CHECK_BATCH, storyIds.size()));
+            existing.addAll(namedJdbcTemplate.queryForList(
+                "SELECT id FROM stories WHERE id IN (:ids)", new MapSqlParameterSource("ids", batch), Long.class));
+        }
+        return existing;
+    }
+
+    long currentMinute() {
+        return clock.instant().getEpochSecond() / 60;
+    }
+
+    /**
+     * Start of the local hour, in {@code zone}, that the epoch minute falls in.
+     */
+    static LocalDateTime hourOf(long epochMinute, ZoneId zone) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochMinute * 60), zone).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        try {
+            flush(Long.MAX_VALUE);
+        } catch (Exception e) {
+            log.error("Dropping unflushed engagement stats on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private interface MinuteConsumer {
+        void accept(long minute, long[] counts);
+    }
+
+    /**
+     * Counters for the last hour of one story, one slot per minute. Only
+     * accessed inside {@code rings.compute}, which serializes access per story.
+     */
+    private static final class MinuteRing {
+        private final long[] minutes = new long[RING_MINUTES];
+        private final long[][] counts = new long[RING_MINUTES][3];
+        private final boolean[] used = new boolean[RING_MINUTES];
+
+        void add(long minute, int metric, long amount) {
+            int slot = (int) (minute % RING_MINUTES);
+            if (!used[slot] || minutes[slot] != minute) {
+                // a slot still holding an older minute means flushing has stalled for an hour
+                minutes[slot] = minute;
+                counts[slot] = new long[3];
+                used[slot] = true;
+            }
+            counts[slot][metric] += amount;
+        }
+
+        void drain(long untilMinute, MinuteConsumer consumer) {
+            for (int slot = 0; slot < RING_MINUTES; slot++) {
+                if (used[slot] && minutes[slot] < untilMinute) {
+                    consumer.accept(minutes[slot], counts[slot]);
+                    used[slot] = false;
+                    counts[slot] = new long[3];
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            for (boolean slotUsed : used) {
+                if (slotUsed) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class HourKey {
+        private final long storyId;
+        private final LocalDateTime hourStart;
+
+        HourKey(long storyId, LocalDateTime hourStart) {
+            this.storyId = storyId;
+            this.hourStart = hourStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof HourKey)) return false;
+            HourKey other = (HourKey) o;
+            return storyId == other.storyId && hourStart.equals(other.hourStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(storyId, hourStart);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.storyapp.story.analytics;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog cardinality sketch with 2^12 registers (standard error about
+ * 1.6%). Two sketches of the same precision merge by taking the maximum of
+ * each register, so per-day sketches can be combined into any date range.
+ *
+ * The serialized form is sparse (index/value pairs) while few registers are
+ * set, which keeps sketches of rarely viewed stories to a few bytes, and
+ * dense (one byte per register, 4 KB) otherwise.
+ */
+public class HyperLogLog {
+
+    public static final int PRECISION = 12;
+
+    private static final int REGISTER_COUNT = 1 << PRECISION;
+    private static final byte FORMAT_DENSE = 1;
+    private static final byte FORMAT_SPARSE = 2;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTER_COUNT];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public void offer(String value) {
+        offerHash(hash64(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    void offerHash(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        long rest = hash << PRECISION;
+        int rank = rest == 0 ? 64 - PRECISION + 1 : Long.numberOfLeadingZeros(rest) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            // small-range correction (linear counting)
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public byte[] toBytes() {
+        int set = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                set++;
+            }
+        }
+        if (set * 3 < REGISTER_COUNT) {
+            ByteBuffer buffer = ByteBuffer.allocate(4 + set * 3);
+            buffer.put(FORMAT_SPARSE).put((byte) PRECISION).putShort((short) set);
+            for (int i = 0; i < REGISTER_COUNT; i++) {
+                if (registers[i] != 0) {
+                    buffer.putShort((short) i).put(registers[i]);
+                }
+            }
+            return buffer.array();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(2 + REGISTER_COUNT);
+        buffer.put(FORMAT_DENSE).put((byte) PRECISION).put(registers);
+        return buffer.array();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return new HyperLogLog();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte format = buffer.get();
+        if (buffer.get() != PRECISION) {
+            throw new IllegalArgumentException("Unsupported sketch precision");
+        }
+        byte[] registers = new byte[REGISTER_COUNT];
+        if (format == FORMAT_DENSE) {
+            buffer.get(registers);
+        } else if (format == FORMAT_SPARSE) {
+            int set = buffer.getShort() & 0xFFFF;
+            for (int i = 0; i < set; i++) {
+                int index = buffer.getShort() & 0xFFFF;
+                registers[index] = buffer.get();
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown sketch format: " + format);
+        }
+        return new HyperLogLog(registers);
+    }
+
+    /**
+     * MurmurHash64A; HyperLogLog needs all 64 bits well mixed, which
+     * {@link String#hashCode()} does not provide. The tail cases fall through
+     * on purpose, as in the reference implementation.
+     */
+    @SuppressWarnings("fallthrough")
+    static long hash64(byte[] data) {
+        final long m = 0xc6a4a7935bd1e995L;
+        final int r = 47;
+        long h = 0x9747b28cL ^ (data.length * m);
+
+        int blocks = data.length / 8;
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < blocks; i++) {
+            long k = buffer.getLong(i * 8);
+            k *= m;
+            k ^= k >>> r;
+            k *= m;
+            h ^= k;
+            h *= m;
+        }
+
+        int tail = blocks * 8;
+        switch (data.length & 7) {
+            case 7: h ^= (long) (data[tail + 6] & 0xff) << 48; // fall through
+            case 6: h ^= (long) (data[tail + 5] & 0xff) << 40; // fall through
+            case 5: h ^= (long) (data[tail + 4] & 0xff) << 32; // fall through
+            case 4: h ^= (long) (data[tail + 3] & 0xff) << 24; // fall through
+            case 3: h ^= (long) (data[tail + 2] & 0xff) << 16; // fall through
+            case 2: h ^= (long) (data[tail + 1] & 0xff) << 8; // fall through
+            case 1: h ^= data[tail] & 0xff;
+                h *= m;
+        }
+
+        h ^= h >>> r;
+        h *= m;
+        h ^= h >>> r;
+        return h;
+    }
+}
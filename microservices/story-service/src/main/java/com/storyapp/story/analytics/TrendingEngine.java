@@ -0,0 +1,533 @@
+package com.storyapp.story.analytics;
+
+import com.storyapp.story.dto.TrendingStoryResponse;
+import com.storyapp.story.search.StoriesReindexedEvent;
+import com.storyapp.story.service.StoryChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-memory "trending" ranking of published stories.
+ *
+ * Every engagement event adds weighted points to the story's score, and points
+ * lose half their value every {@code trending.half-life-hours}. Scores are
+ * kept in forward-decay form: an event at time t adds
+ * {@code weight * e^(lambda * (t - base))}, so existing scores never need to be
+ * touched as time passes and the ordering of stored values equals the ordering
+ * of decayed scores. The base is moved forward (and scores rescaled) at every
+ * snapshot to keep the numbers small.
+ *
+ * Stories are ranked in a global leaderboard and one per genre. Stories seen
+ * for the first time are listed once their title, genres and publish state
+ * have been loaded in the background; they are reloaded whenever the story
+ * changes, on this instance or (via {@link StoriesReindexedEvent}) another.
+ * State is snapshotted to {@code trending_scores} and restored on startup;
+ * when the table is empty the engine is seeded from the recent hourly
+ * engagement rollups and comments, weighted like live events.
+ *
+ * Each instance scores the events it receives and snapshots those scores
+ * under its own instance id (host name and port, see {@link #resolveInstanceId}).
+ * The Eureka instance id is not used: it is the same for every replica on the
+ * standard port. At every snapshot it reads the other instances'
+ * latest rows and ranks stories by the sum, so every instance converges on
+ * the cluster-wide ranking within a snapshot interval. Rows of an instance
+ * that stopped keep contributing while they decay and are deleted once they
+ * have faded.
+ */
+@Component
+public class TrendingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingEngine.class);
+    private static final int RESOLVE_BATCH = 500;
+    private static final double MIN_SCORE = 0.01;
+    private static final int SEED_HOURS = 48;
+    // rows not rewritten for this many half-lives have decayed below 0.1%
+    private static final int RETENTION_HALF_LIVES = 10;
+
+    private static final double VIEW_WEIGHT = 1.0;
+    static final double LIKE_WEIGHT = 5.0;
+    private static final double COMMENT_WEIGHT = 3.0;
+    private static final double WATCH_MINUTE_WEIGHT = 0.5;
+
+    private static final Comparator<TrendingEntry> BY_SCORE = Comparator
+        .comparingDouble((TrendingEntry e) -> -e.total())
+        .thenComparingLong(e -> e.storyId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final String instanceId;
+    private final double lambda;
+    private final long retentionSeconds;
+    private final int maxEntries;
+    private final long snapshotIntervalMinutes;
+    private final ScheduledExecutorService executor;
+
+    private final Map<Long, TrendingEntry> entries = new HashMap<>();
+    private final TreeSet<TrendingEntry> global = new TreeSet<>(BY_SCORE);
+    private final Map<Long, TreeSet<TrendingEntry>> byGenre = new HashMap<>();
+    private final Set<Long> unresolved = ConcurrentHashMap.newKeySet();
+    private double baseSeconds = nowSeconds();
+
+    public TrendingEngine(JdbcTemplate jdbcTemplate,
+                          @Value("${trending.instance-id:}") String configuredInstanceId,
+                          @Value("${server.port:8080}") int port,
+                          @Value("${trending.half-life-hours:6}") double halfLifeHours,
+                          @Value("${trending.max-tracked:50000}") int maxEntries,
+                          @Value("${trending.snapshot-interval-minutes:5}") long snapshotIntervalMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.instanceId = resolveInstanceId(configuredInstanceId, port, TrendingEngine::localHostName);
+        this.lambda = Math.log(2) / (halfLifeHours * 3600);
+        this.retentionSeconds = (long) (RETENTION_HALF_LIVES * halfLifeHours * 3600);
+        this.maxEntries = maxEntries;
+        this.snapshotIntervalMinutes = snapshotIntervalMinutes;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "trending");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(this::restoreQuietly);
+        executor.scheduleWithFixedDelay(this::resolveQuietly, 2, 2, TimeUnit.SECONDS);
+        executor.scheduleWithFixedDelay(this::snapshotQuietly,
+            snapshotIntervalMinutes, snapshotIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(EngagementEvent event) {
+        double points;
+        switch (event.getType()) {
+            case VIEW: points = VIEW_WEIGHT; break;
+            case LIKE: points = LIKE_WEIGHT; break;
+            case UNLIKE: points = -LIKE_WEIGHT; break;
+            case COMMENT: points = COMMENT_WEIGHT; break;
+            case UNCOMMENT: points = -COMMENT_WEIGHT; break;
+            case WATCH_TIME: points = WATCH_MINUTE_WEIGHT * event.getAmount() / 60.0; break;
+            default: return;
+        }
+        addPoints(event.getStoryId(), points, nowSeconds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoryChanged(StoryChangedEvent event) {
+        if (event.getType() == StoryChangedEvent.Type.DELETED) {
+            remove(event.getStoryId());
+        } else {
+            unresolved.add(event.getStoryId());
+        }
+    }
+
+    /**
+     * Changes made through other instances: reloading the metadata drops
+     * deleted stories and unlists unpublished ones.
+     */
+    @EventListener
+    public void onStoriesReindexed(StoriesReindexedEvent event) {
+        unresolved.addAll(event.getStoryIds());
+    }
+
+    /**
+     * Top {@code limit} trending stories, optionally within one genre.
+     */
+    public synchronized List<TrendingStoryResponse> top(Long genreId, int limit) {
+        TreeSet<TrendingEntry> board = genreId == null ? global : byGenre.get(genreId);
+        List<TrendingStoryResponse> result = new ArrayList<>(limit);
+        if (board == null) {
+            return result;
+        }
+        double decay = Math.exp(-lambda * (nowSeconds() - baseSeconds));
+        for (TrendingEntry entry : board) {
+            if (result.size() >= limit || entry.total() <= 0) {
+                break;
+            }
+            result.add(new TrendingStoryResponse(entry.storyId, entry.storyNumber, entry.title,
+                entry.authorUsername, entry.total() * decay));
+        }
+        return result;
+    }
+
+    private synchronized void addPoints(Long storyId, double points, double atSeconds) {
+        TrendingEntry entry = entryFor(storyId);
+        if (entry == null) {
+            return;
+        }
+        unlist(entry);
+        entry.score += points * Math.exp(lambda * (atSeconds - baseSeconds));
+        list(entry);
+    }
+
+    /**
+     * The story's entry, created (and queued for metadata) on first use; null
+     * when the engine is full, until the next snapshot prunes faded stories.
+     */
+    private TrendingEntry entryFor(Long storyId) {
+        TrendingEntry entry = entries.get(storyId);
+        if (entry == null) {
+            if (entries.size() >= maxEntries) {
+                return null;
+            }
+            entry = new TrendingEntry(storyId);
+            entries.put(storyId, entry);
+            unresolved.add(storyId);
+        }
+        return entry;
+    }
+
+    private synchronized void remove(Long storyId) {
+        TrendingEntry entry = entries.remove(storyId);
+        if (entry != null) {
+            unlist(entry);
+        }
+        unresolved.remove(storyId);
+    }
+
+    private void list(TrendingEntry entry) {
+        if (!entry.published) {
+            return;
+        }
+        global.add(entry);
+        for (Long genreId : entry.genreIds) {
+            byGenre.computeIfAbsent(genreId, k -> new TreeSet<>(BY_SCORE)).add(entry);
+        }
+    }
+
+    private void unlist(TrendingEntry entry) {
+        global.remove(entry);
+        for (Long genreId : entry.genreIds) {
+            TreeSet<TrendingEntry> board = byGenre.get(genreId);
+            if (board != null) {
+                board.remove(entry);
+            }
+        }
+    }
+
+    private void resolveQuietly() {
+        try {
+            resolvePending();
+        } catch (Exception e) {
+            log.warn("Could not load trending story metadata: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Loads title, author, genres and publish state of stories that were seen
+     * for the first time or changed, in batches, off the request path.
+     */
+    void resolvePending() {
+        while (!unresolved.isEmpty()) {
+            List<Long> batch = new ArrayList<>(RESOLVE_BATCH);
+            Iterator<Long> it = unresolved.iterator();
+            while (it.hasNext() && batch.size() < RESOLVE_BATCH) {
+                batch.add(it.next());
+                it.remove();
+            }
+            Map<Long, StoryMetadata> metadata = loadMetadata(batch);
+            synchronized (this) {
+                for (Long storyId : batch) {
+                    StoryMetadata meta = metadata.get(storyId);
+                    TrendingEntry entry = entries.get(storyId);
+                    if (meta == null) {
+                        if (entry != null) {
+                            entries.remove(storyId);
+                            unlist(entry);
+                        }
+                        continue;
+                    }
+                    if (entry == null) {
+                        continue; // changed but never engaged with; nothing to rank yet
+                    }
+                    unlist(entry);
+                    entry.title = meta.title;
+                    entry.authorUsername = meta.authorUsername;
+                    entry.storyNumber = meta.storyNumber;
+                    entry.published = meta.published;
+                    entry.genreIds = meta.genreIds;
+                    list(entry);
+                }
+            }
+        }
+    }
+
+    private Map<Long, StoryMetadata> loadMetadata(Collection<Long> storyIds) {
+        Map<Long, StoryMetadata> metadata = new HashMap<>();
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", storyIds);
+        namedJdbcTemplate.query(
+            "SELECT id, title, author_username, story_number, is_published FROM stories WHERE id IN (:ids)",
+            params,
+            rs -> {
+                StoryMetadata meta = new StoryMetadata();
+                meta.title = rs.getString("title");
+                meta.authorUsername = rs.getString("author_username");
+                meta.storyNumber = rs.getString("story_number");
+                meta.published = rs.getBoolean("is_published");
+                metadata.put(rs.getLong("id"), meta);
+            });
+        namedJdbcTemplate.query(
+            "SELECT story_id, genre_id FROM story_genres WHERE story_id IN (:ids)",
+            params,
+            rs -> {
+                StoryMetadata meta = metadata.get(rs.getLong("story_id"));
+                if (meta != null) {
+                    meta.genreIds.add(rs.getLong("genre_id"));
+                }
+            });
+        return metadata;
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (Exception e) {
+            log.warn("Trending snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the decay base to now, writes this instance's scores (as of now)
+     * to {@code trending_scores}, deletes rows that have faded, and merges in
+     * the other instances' latest scores.
+     */
+    void snapshot() {
+        snapshot(LocalDateTime.now());
+    }
+
+    void snapshot(LocalDateTime time) {
+        // as_of is a DATETIME; with fractional seconds the stored value could
+        // round below the bound of the delete below and remove the fresh rows
+        LocalDateTime asOf = time.truncatedTo(ChronoUnit.SECONDS);
+        List<Object[]> rows = new ArrayList<>();
+        synchronized (this) {
+            double now = nowSeconds();
+            double factor = Math.exp(-lambda * (now - baseSeconds));
+            baseSeconds = now;
+            global.clear();
+            byGenre.clear();
+            for (TrendingEntry entry : entries.values()) {
+                entry.score *= factor;
+                entry.remote *= factor;
+                list(entry);
+                if (Math.abs(entry.score) >= MIN_SCORE) {
+                    rows.add(new Object[] { instanceId, entry.storyId, entry.score, Timestamp.valueOf(asOf) });
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO trending_scores (instance_id, story_id, score, as_of) VALUES (?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE score = VALUES(score), as_of = VALUES(as_of)",
+            rows);
+        // only this instance's rows: stories whose local score faded since the last snapshot
+        jdbcTemplate.update("DELETE FROM trending_scores WHERE instance_id = ? AND as_of < ?",
+            instanceId, Timestamp.valueOf(asOf));
+        jdbcTemplate.update("DELETE FROM trending_scores WHERE as_of < ?",
+            Timestamp.valueOf(asOf.minusSeconds(retentionSeconds)));
+        mergeRemote(loadRemote());
+    }
+
+    private List<RemoteScore> loadRemote() {
+        return jdbcTemplate.query(
+            "SELECT story_id, score, as_of FROM trending_scores WHERE instance_id <> ?",
+            (rs, rowNum) -> new RemoteScore(rs.getLong("story_id"), rs.getDouble("score"),
+                toSeconds(rs.getTimestamp("as_of").toLocalDateTime())),
+            instanceId);
+    }
+
+    /**
+     * Replaces every entry's share from other instances with {@code rows},
+     * then drops entries whose combined score has faded.
+     */
+    private synchronized void mergeRemote(List<RemoteScore> rows) {
+        global.clear();
+        byGenre.clear();
+        entries.values().forEach(entry -> entry.remote = 0);
+        for (RemoteScore row : rows) {
+            TrendingEntry entry = entryFor(row.storyId);
+            if (entry != null) {
+                entry.remote += row.score * Math.exp(lambda * (row.asOfSeconds - baseSeconds));
+            }
+        }
+        Iterator<TrendingEntry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            TrendingEntry entry = it.next();
+            if (Math.abs(entry.score) < MIN_SCORE && Math.abs(entry.remote) < MIN_SCORE) {
+                it.remove();
+                unresolved.remove(entry.storyId);
+                continue;
+            }
+            list(entry);
+        }
+    }
+
+    private void restoreQuietly() {
+        try {
+            restore();
+        } catch (Exception e) {
+            log.warn("Could not restore trending scores, starting empty: {}", e.getMessage());
+        }
+    }
+
+    private void restore() {
+        int[] restored = {0};
+        List<RemoteScore> remote = new ArrayList<>();
+        jdbcTemplate.query("SELECT instance_id, story_id, score, as_of FROM trending_scores", rs -> {
+            double asOf = toSeconds(rs.getTimestamp("as_of").toLocalDateTime());
+            if (instanceId.equals(rs.getString("instance_id"))) {
+                addPoints(rs.getLong("story_id"), rs.getDouble("score"), asOf);
+            } else {
+                remote.add(new RemoteScore(rs.getLong("story_id"), rs.getDouble("score"), asOf));
+            }
+            restored[0]++;
+        });
+        if (restored[0] == 0) {
+            seed();
+        } else {
+            mergeRemote(remote);
+        }
+        log.info("Trending engine restored {} rows", restored[0]);
+    }
+
+    /**
+     * First start of the cluster: replays the recent hourly rollups and
+     * comments, with the weights live events get.
+     */
+    private void seed() {
+        Timestamp since = Timestamp.valueOf(LocalDateTime.now().minusHours(SEED_HOURS));
+        jdbcTemplate.query(
+            "SELECT story_id, bucket_start, views, likes, watch_seconds FROM story_stats_hourly WHERE bucket_start >= ?",
+            rs -> {
+                double points = VIEW_WEIGHT * rs.getLong("views") + LIKE_WEIGHT * rs.getLong("likes")
+                    + WATCH_MINUTE_WEIGHT * rs.getLong("watch_seconds") / 60.0;
+                addPoints(rs.getLong("story_id"), points, toSeconds(rs.getTimestamp("bucket_start").toLocalDateTime()));
+            },
+            since);
+        jdbcTemplate.query(
+            "SELECT story_id, created_at FROM comments WHERE created_at >= ?",
+            rs -> {
+                addPoints(rs.getLong("story_id"), COMMENT_WEIGHT,
+                    toSeconds(rs.getTimestamp("created_at").toLocalDateTime()));
+            },
+            since);
+    }
+
+    /**
+     * {@code trending.instance-id} when set, otherwise host name and port,
+     * which is unique per replica and stable across restarts of one process
+     * slot, so a restarted instance picks up its own rows. A random id is used
+     * when the port is picked at random or {@code hostName} returns null.
+     */
+    static String resolveInstanceId(String configured, int port, Supplier<String> hostName) {
+        if (configured != null && !configured.isBlank()) {
+            return configured;
+        }
+        if (port > 0) {
+            String host = hostName.get();
+            if (host != null) {
+                return host + ":" + port;
+            }
+        }
+        return UUID.randomUUID().toString();
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            log.warn("Host name unknown, using a random trending instance id: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    String getInstanceId() {
+        return instanceId;
+    }
+
+    private static double nowSeconds() {
+        return toSeconds(LocalDateTime.now());
+    }
+
+    private static double toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        snapshotQuietly();
+    }
+
+    private static final class TrendingEntry {
+        private final long storyId;
+        // this instance's events; forward-decayed like every score here
+        private double score;
+        // the other instances' share, as of their last snapshot
+        private double remote;
+        private String title;
+        private String authorUsername;
+        private String storyNumber;
+        private boolean published;
+        private Set<Long> genreIds = new HashSet<>();
+
+        TrendingEntry(long storyId) {
+            this.storyId = storyId;
+        }
+
+        double total() {
+            return score + remote;
+        }
+    }
+
+    private static final class RemoteScore {
+        private final long storyId;
+        private final double score;
+        private final double asOfSeconds;
+
+        RemoteScore(long storyId, double score, double asOfSeconds) {
+            this.storyId = storyId;
+            this.score = score;
+            this.asOfSeconds = asOfSeconds;
+        }
+    }
+
+    private static final class StoryMetadata {
+        private String title;
+        private String authorUsername;
+        private String storyNumber;
+        private boolean published;
+        private final Set<Long> genreIds = new HashSet<>();
+    }
+}
@@ -0,0 +1,103 @@
+package com.storyapp.story.analytics;
+
+import com.storyapp.story.model.StoryViewerSketch;
+import com.storyapp.story.repository.StoryViewerSketchRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists per-story HyperLogLog sketches of signed-in viewers: one all-time
+ * sketch answering "unique viewers" with a single row read, and one sketch per
+ * day that can be merged for any date range.
+ */
+@Component
+public class ViewerSketchStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final StoryViewerSketchRepository sketchRepository;
+
+    public ViewerSketchStore(JdbcTemplate jdbcTemplate, StoryViewerSketchRepository sketchRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.sketchRepository = sketchRepository;
+    }
+
+    /**
+     * Adds viewers to the all-time and {@code day} sketches of their stories.
+     * Must run inside a transaction; the affected rows are locked while they
+     * are merged.
+     *
+     * @return per story, how much the all-time unique-viewer estimate grew
+     */
+    public Map<Long, Long> addViewers(Map<Long, ? extends Collection<String>> viewersByStory, LocalDate day) {
+        Map<Long, Long> growth = new HashMap<>();
+        if (viewersByStory.isEmpty()) {
+            return growth;
+        }
+        Map<Long, HyperLogLog> totals = new HashMap<>();
+        Map<Long, HyperLogLog> days = new HashMap<>();
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", viewersByStory.keySet())
+            .addValue("days", List.of(Date.valueOf(StoryViewerSketch.ALL_TIME), Date.valueOf(day)));
+        namedJdbcTemplate.query(
+            "SELECT story_id, day, registers FROM story_viewer_sketches WHERE story_id IN (:ids) AND day IN (:days) FOR UPDATE",
+            params,
+            rs -> {
+                HyperLogLog sketch = HyperLogLog.fromBytes(rs.getBytes("registers"));
+                boolean allTime = rs.getDate("day").toLocalDate().equals(StoryViewerSketch.ALL_TIME);
+                (allTime ? totals : days).put(rs.getLong("story_id"), sketch);
+            });
+
+        List<Object[]> upserts = new ArrayList<>();
+        viewersByStory.forEach((storyId, viewers) -> {
+            HyperLogLog total = totals.computeIfAbsent(storyId, k -> new HyperLogLog());
+            HyperLogLog daily = days.computeIfAbsent(storyId, k -> new HyperLogLog());
+            long before = total.estimate();
+            for (String viewer : viewers) {
+                total.offer(viewer);
+                daily.offer(viewer);
+            }
+            growth.put(storyId, Math.max(0, total.estimate() - before));
+            upserts.add(new Object[] { Date.valueOf(StoryViewerSketch.ALL_TIME), total.toBytes(), storyId });
+            upserts.add(new Object[] { Date.valueOf(day), daily.toBytes(), storyId });
+        });
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO story_viewer_sketches (story_id, day, registers) SELECT id, ?, ? FROM stories WHERE id = ? "
+                + "ON DUPLICATE KEY UPDATE registers = VALUES(registers)",
+            upserts);
+        return growth;
+    }
+
+    public long estimateAllTime(Long storyId) {
+        return sketchRepository.findByStoryIdAndDay(storyId, StoryViewerSketch.ALL_TIME)
+            .map(sketch -> HyperLogLog.fromBytes(sketch.getRegisters()).estimate())
+            .orElse(0L);
+    }
+
+    /**
+     * Estimates distinct viewers between {@code from} and {@code to}
+     * (inclusive) by merging the daily sketches.
+     */
+    public long estimateRange(Long storyId, LocalDate from, LocalDate to) {
+        LocalDate firstDay = from.isAfter(StoryViewerSketch.ALL_TIME) ? from : StoryViewerSketch.ALL_TIME.plusDays(1);
+        HyperLogLog merged = new HyperLogLog();
+        for (StoryViewerSketch sketch : sketchRepository.findDays(storyId, firstDay, to)) {
+            merged.merge(HyperLogLog.fromBytes(sketch.getRegisters()));
+        }
+        return merged.estimate();
+    }
+
+    public void deleteSketches(Long storyId) {
+        jdbcTemplate.update("DELETE FROM story_viewer_sketches WHERE story_id = ?", storyId);
+    }
+}
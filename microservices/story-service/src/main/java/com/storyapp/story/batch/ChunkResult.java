@@ -0,0 +1,44 @@
+package com.storyapp.story.batch;
+
+/**
+ * Outcome of one {@link ChunkedJob} chunk: the highest id visited, how many
+ * rows were processed, and whether the job ran out of rows.
+ */
+public final class ChunkResult {
+    private final long lastId;
+    private final int processed;
+    private final boolean exhausted;
+
+    private ChunkResult(long lastId, int processed, boolean exhausted) {
+        this.lastId = lastId;
+        this.processed = processed;
+        this.exhausted = exhausted;
+    }
+
+    /**
+     * A chunk that visited rows up to {@code lastId}. The job is considered
+     * exhausted when fewer rows than the chunk size were found.
+     */
+    public static ChunkResult of(long lastId, int processed, int found, int chunkSize) {
+        return new ChunkResult(lastId, processed, found < chunkSize);
+    }
+
+    /**
+     * A chunk that found nothing left to do.
+     */
+    public static ChunkResult done(long afterId) {
+        return new ChunkResult(afterId, 0, true);
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+}
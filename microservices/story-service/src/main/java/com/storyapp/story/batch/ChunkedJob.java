@@ -0,0 +1,35 @@
+package com.storyapp.story.batch;
+
+import java.time.Duration;
+
+/**
+ * A background data job that walks a table in primary-key order, one chunk at
+ * a time. Implementations are Spring beans; {@link ChunkedJobRunner} picks
+ * them up, runs them off the request path and checkpoints after every chunk.
+ */
+public interface ChunkedJob {
+
+    /**
+     * Stable name, used as the checkpoint key.
+     */
+    String getName();
+
+    default int getChunkSize() {
+        return 200;
+    }
+
+    /**
+     * How long to wait after a completed pass before starting over from the
+     * beginning, or {@code null} for a one-off job that runs to completion once.
+     */
+    default Duration getRepeatInterval() {
+        return null;
+    }
+
+    /**
+     * Processes up to {@code chunkSize} rows with an id greater than
+     * {@code afterId}. Runs inside the transaction that also stores the
+     * checkpoint, so a chunk and its progress commit together.
+     */
+    ChunkResult processChunk(long afterId, int chunkSize);
+}
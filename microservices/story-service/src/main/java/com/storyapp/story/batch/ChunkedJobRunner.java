@@ -0,0 +1,242 @@
+package com.storyapp.story.batch;
+
+import com.storyapp.story.dto.JobStatusResponse;
+import com.storyapp.story.model.JobCheckpoint;
+import com.storyapp.story.repository.JobCheckpointRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs every {@link ChunkedJob} bean on a background thread once the
+ * application is ready.
+ *
+ * Each chunk runs in its own transaction together with its checkpoint
+ * update. The checkpoint row is locked for that transaction, so a job resumes
+ * where it stopped after a restart and several instances never process the
+ * same chunk twice. Failed passes are retried after a delay. Recurring jobs
+ * start a new pass once their repeat interval has elapsed.
+ */
+@Component
+public class ChunkedJobRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedJobRunner.class);
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final List<ChunkedJob> jobs;
+    private final JobCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final ScheduledExecutorService executor;
+    private final Map<String, JobMetrics> metrics = new ConcurrentHashMap<>();
+    private volatile boolean stopping;
+
+    public ChunkedJobRunner(List<ChunkedJob> jobs, JobCheckpointRepository checkpointRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${batch.jobs.enabled:true}") boolean enabled,
+                            @Value("${batch.jobs.threads:2}") int threads) {
+        this.jobs = jobs;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.executor = Executors.newScheduledThreadPool(threads, r -> {
+            Thread t = new Thread(r, "batch-job");
+            t.setDaemon(true);
+            return t;
+        });
+        for (ChunkedJob job : jobs) {
+            metrics.put(job.getName(), new JobMetrics());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startJobs() {
+        if (!enabled) {
+            log.info("Background jobs are disabled");
+            return;
+        }
+        for (ChunkedJob job : jobs) {
+            executor.execute(() -> runPass(job));
+        }
+    }
+
+    public List<JobStatusResponse> getStatuses() {
+        List<JobStatusResponse> statuses = new ArrayList<>();
+        for (ChunkedJob job : jobs) {
+            JobStatusResponse status = new JobStatusResponse();
+            status.setName(job.getName());
+            checkpointRepository.findById(job.getName()).ifPresent(cp -> {
+                status.setStatus(cp.getStatus().name());
+                status.setLastProcessedId(cp.getLastProcessedId());
+                status.setProcessedCount(cp.getProcessedCount());
+                status.setStartedAt(cp.getStartedAt());
+                status.setUpdatedAt(cp.getUpdatedAt());
+                status.setCompletedAt(cp.getCompletedAt());
+                status.setLastError(cp.getLastError());
+            });
+            JobMetrics jobMetrics = metrics.get(job.getName());
+            status.setProcessedSinceStartup(jobMetrics.processed.get());
+            status.setRowsPerSecond(jobMetrics.rowsPerSecond());
+            statuses.add(status);
+        }
+        return statuses;
+    }
+
+    private void runPass(ChunkedJob job) {
+        if (stopping) return;
+        JobMetrics jobMetrics = metrics.get(job.getName());
+        try {
+            Duration wait = transactionTemplate.execute(status -> preparePass(job));
+            if (wait == null) {
+                return;
+            }
+            if (!wait.isZero()) {
+                schedule(job, wait);
+                return;
+            }
+            jobMetrics.markActive();
+            while (!stopping) {
+                ChunkResult result = transactionTemplate.execute(status -> processNextChunk(job));
+                jobMetrics.record(result.getProcessed());
+                if (result.isExhausted()) {
+                    log.info("Job {} finished a pass", job.getName());
+                    break;
+                }
+            }
+            jobMetrics.markIdle();
+            if (!stopping && job.getRepeatInterval() != null) {
+                schedule(job, job.getRepeatInterval());
+            }
+        } catch (Exception e) {
+            jobMetrics.markIdle();
+            log.warn("Job {} failed, retrying in {}: {}", job.getName(), RETRY_DELAY, e.getMessage());
+            recordFailure(job, e);
+            schedule(job, RETRY_DELAY);
+        }
+    }
+
+    /**
+     * Decides whether a pass should run now. Returns {@code null} if the job is
+     * finished for good, a positive delay if a recurring job is not due yet, or
+     * zero to run (rewinding a completed recurring job first).
+     */
+    private Duration preparePass(ChunkedJob job) {
+        JobCheckpoint checkpoint = lockCheckpoint(job);
+        if (checkpoint.getStatus() != JobCheckpoint.Status.COMPLETED) {
+            return Duration.ZERO;
+        }
+        if (job.getRepeatInterval() == null) {
+            return null;
+        }
+        LocalDateTime due = checkpoint.getCompletedAt() != null
+            ? checkpoint.getCompletedAt().plus(job.getRepeatInterval())
+            : LocalDateTime.now();
+        Duration remaining = Duration.between(LocalDateTime.now(), due);
+        if (remaining.compareTo(Duration.ZERO) > 0) {
+            return remaining;
+        }
+        checkpoint.restart();
+        return Duration.ZERO;
+    }
+
+    private ChunkResult processNextChunk(ChunkedJob job) {
+        JobCheckpoint checkpoint = lockCheckpoint(job);
+        if (checkpoint.getStatus() == JobCheckpoint.Status.COMPLETED) {
+            // another instance finished the pass while we were waiting on the lock
+            return ChunkResult.done(checkpoint.getLastProcessedId());
+        }
+        ChunkResult result = job.processChunk(checkpoint.getLastProcessedId(), job.getChunkSize());
+        LocalDateTime now = LocalDateTime.now();
+        checkpoint.setLastProcessedId(result.getLastId());
+        checkpoint.setProcessedCount(checkpoint.getProcessedCount() + result.getProcessed());
+        checkpoint.setUpdatedAt(now);
+        checkpoint.setStatus(JobCheckpoint.Status.RUNNING);
+        checkpoint.setLastError(null);
+        if (result.isExhausted()) {
+            checkpoint.setStatus(JobCheckpoint.Status.COMPLETED);
+            checkpoint.setCompletedAt(now);
+        }
+        return result;
+    }
+
+    private JobCheckpoint lockCheckpoint(ChunkedJob job) {
+        return checkpointRepository.findForUpdate(job.getName())
+            .orElseGet(() -> checkpointRepository.save(new JobCheckpoint(job.getName())));
+    }
+
+    private void recordFailure(ChunkedJob job, Exception e) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                JobCheckpoint checkpoint = lockCheckpoint(job);
+                checkpoint.setStatus(JobCheckpoint.Status.FAILED);
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+                String message = String.valueOf(e.getMessage());
+                checkpoint.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+            });
+        } catch (Exception ignored) {
+            // the failure will show up again on the next attempt
+        }
+    }
+
+    private void schedule(ChunkedJob job, Duration delay) {
+        if (stopping) return;
+        executor.schedule(() -> runPass(job), delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * In-memory throughput counters for the current process.
+     */
+    private static final class JobMetrics {
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong activeMillis = new AtomicLong();
+        private volatile long activeSince;
+
+        void markActive() {
+            activeSince = System.currentTimeMillis();
+        }
+
+        void markIdle() {
+            if (activeSince > 0) {
+                activeMillis.addAndGet(System.currentTimeMillis() - activeSince);
+                activeSince = 0;
+            }
+        }
+
+        void record(int rows) {
+            processed.addAndGet(rows);
+        }
+
+        Double rowsPerSecond() {
+            long millis = activeMillis.get();
+            long since = activeSince;
+            if (since > 0) {
+                millis += System.currentTimeMillis() - since;
+            }
+            return millis == 0 ? 0.0 : processed.get() * 1000.0 / millis;
+        }
+    }
+}
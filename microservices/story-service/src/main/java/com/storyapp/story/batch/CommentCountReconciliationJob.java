@@ -0,0 +1,84 @@
+package com.storyapp.story.batch;
+
+import com.storyapp.story.repository.CommentRepository;
+import com.storyapp.story.repository.StoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodically compares {@code stories.comment_count} with the
+ * {@code comments} table and recounts stories that have drifted (e.g. rows
+ * written before the column existed, or comments removed outside
+ * StoryService).
+ */
+@Component
+public class CommentCountReconciliationJob implements ChunkedJob {
+
+    private static final Logger log = LoggerFactory.getLogger(CommentCountReconciliationJob.class);
+
+    private final StoryRepository storyRepository;
+    private final CommentRepository commentRepository;
+    private final Duration repeatInterval;
+
+    public CommentCountReconciliationJob(StoryRepository storyRepository, CommentRepository commentRepository,
+                                         @Value("${comment-count.reconcile-interval-minutes:60}") long intervalMinutes) {
+        this.storyRepository = storyRepository;
+        this.commentRepository = commentRepository;
+        this.repeatInterval = Duration.ofMinutes(intervalMinutes);
+    }
+
+    @Override
+    public String getName() {
+        return "comment-count-reconciliation";
+    }
+
+    @Override
+    public int getChunkSize() {
+        return 500;
+    }
+
+    @Override
+    public Duration getRepeatInterval() {
+        return repeatInterval;
+    }
+
+    @Override
+    public ChunkResult processChunk(long afterId, int chunkSize) {
+        List<Object[]> rows = storyRepository.findCommentCountsAfter(afterId, PageRequest.of(0, chunkSize));
+        if (rows.isEmpty()) {
+            return ChunkResult.done(afterId);
+        }
+        List<Long> storyIds = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            storyIds.add((Long) row[0]);
+        }
+        Map<Long, Long> actual = new HashMap<>();
+        for (Object[] row : commentRepository.countByStoryIds(storyIds)) {
+            actual.put((Long) row[0], (Long) row[1]);
+        }
+
+        int fixed = 0;
+        for (Object[] row : rows) {
+            Long storyId = (Long) row[0];
+            long stored = ((Integer) row[1]).longValue();
+            if (stored != actual.getOrDefault(storyId, 0L)) {
+                storyRepository.recountComments(storyId);
+                fixed++;
+            }
+        }
+        if (fixed > 0) {
+            log.info("Corrected comment_count on {} stories", fixed);
+        }
+        long lastId = storyIds.get(storyIds.size() - 1);
+        return ChunkResult.of(lastId, rows.size(), rows.size(), chunkSize);
+    }
+}
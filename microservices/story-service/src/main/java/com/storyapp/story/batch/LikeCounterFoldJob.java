@@ -0,0 +1,50 @@
+package com.storyapp.story.batch;
+
+import com.storyapp.story.service.LikeCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Periodically folds pending like-counter slots into {@code stories.like_count}
+ * so the most-liked feed index stays close to the real counts.
+ */
+@Component
+public class LikeCounterFoldJob implements ChunkedJob {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LikeCounter likeCounter;
+    private final Duration repeatInterval;
+
+    public LikeCounterFoldJob(JdbcTemplate jdbcTemplate, LikeCounter likeCounter,
+                              @Value("${like-counter.fold-interval-seconds:30}") long intervalSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.likeCounter = likeCounter;
+        this.repeatInterval = Duration.ofSeconds(intervalSeconds);
+    }
+
+    @Override
+    public String getName() {
+        return "like-counter-fold";
+    }
+
+    @Override
+    public Duration getRepeatInterval() {
+        return repeatInterval;
+    }
+
+    @Override
+    public ChunkResult processChunk(long afterId, int chunkSize) {
+        List<Long> storyIds = jdbcTemplate.queryForList(
+            "SELECT DISTINCT story_id FROM like_counter_shards WHERE story_id > ? AND delta <> 0 ORDER BY story_id LIMIT ?",
+            Long.class, afterId, chunkSize);
+        if (storyIds.isEmpty()) {
+            return ChunkResult.done(afterId);
+        }
+        int folded = likeCounter.fold(storyIds);
+        return ChunkResult.of(storyIds.get(storyIds.size() - 1), folded, storyIds.size(), chunkSize);
+    }
+}
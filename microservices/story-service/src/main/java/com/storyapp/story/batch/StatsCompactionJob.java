@@ -0,0 +1,93 @@
+package com.storyapp.story.batch;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Rebuilds the daily engagement rollups of the last few days from the hourly
+ * ones, story by story, and deletes hourly rows past their retention at the
+ * end of each pass. Rebuilding (rather than adding) keeps the job idempotent,
+ * so overlapping passes or retries never double count.
+ */
+@Component
+public class StatsCompactionJob implements ChunkedJob {
+
+    // days before today whose daily rows are rebuilt on every pass
+    private static final int REBUILD_DAYS = 3;
+    private static final int DELETE_BATCH = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final int hourlyRetentionDays;
+    private final Duration repeatInterval;
+    private final ZoneId zone;
+
+    public StatsCompactionJob(JdbcTemplate jdbcTemplate,
+                              @Value("${stats.hourly-retention-days:14}") int hourlyRetentionDays,
+                              @Value("${stats.compaction-interval-minutes:60}") long intervalMinutes,
+                              @Value("${stats.time-zone:}") String timeZone) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.hourlyRetentionDays = Math.max(hourlyRetentionDays, REBUILD_DAYS + 1);
+        this.repeatInterval = Duration.ofMinutes(intervalMinutes);
+        this.zone = timeZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(timeZone);
+    }
+
+    @Override
+    public String getName() {
+        return "stats-compaction";
+    }
+
+    @Override
+    public int getChunkSize() {
+        return 500;
+    }
+
+    @Override
+    public Duration getRepeatInterval() {
+        return repeatInterval;
+    }
+
+    @Override
+    public ChunkResult processChunk(long afterId, int chunkSize) {
+        Timestamp windowStart = Timestamp.valueOf(LocalDate.now(zone).minusDays(REBUILD_DAYS).atStartOfDay());
+        List<Long> storyIds = jdbcTemplate.queryForList(
+            "SELECT DISTINCT story_id FROM story_stats_hourly WHERE bucket_start >= ? AND story_id > ? "
+                + "ORDER BY story_id LIMIT ?",
+            Long.class, windowStart, afterId, chunkSize);
+        if (storyIds.isEmpty()) {
+            purgeExpiredHours();
+            return ChunkResult.done(afterId);
+        }
+        namedJdbcTemplate.update(
+            "INSERT INTO story_stats_daily (story_id, day, views, likes, watch_seconds) "
+                + "SELECT story_id, DATE(bucket_start), SUM(views), SUM(likes), SUM(watch_seconds) "
+                + "FROM story_stats_hourly WHERE story_id IN (:ids) AND bucket_start >= :from "
+                + "GROUP BY story_id, DATE(bucket_start) "
+                + "ON DUPLICATE KEY UPDATE views = VALUES(views), likes = VALUES(likes), "
+                + "watch_seconds = VALUES(watch_seconds)",
+            new MapSqlParameterSource("ids", storyIds).addValue("from", windowStart));
+        if (storyIds.size() < chunkSize) {
+            purgeExpiredHours();
+        }
+        return ChunkResult.of(storyIds.get(storyIds.size() - 1), storyIds.size(), storyIds.size(), chunkSize);
+    }
+
+    private void purgeExpiredHours() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDate.now(zone).minusDays(hourlyRetentionDays).atStartOfDay());
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(
+                "DELETE FROM story_stats_hourly WHERE bucket_start < ? LIMIT " + DELETE_BATCH, cutoff);
+        } while (deleted == DELETE_BATCH);
+    }
+}
@@ -0,0 +1,43 @@
+package com.storyapp.story.batch;
+
+import com.storyapp.story.model.Story;
+import com.storyapp.story.repository.StoryRepository;
+import com.storyapp.story.service.StoryNumberGenerator;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Assigns story numbers to legacy stories created before numbers existed.
+ */
+@Component
+public class StoryNumberBackfillJob implements ChunkedJob {
+
+    private final StoryRepository storyRepository;
+    private final StoryNumberGenerator storyNumberGenerator;
+
+    public StoryNumberBackfillJob(StoryRepository storyRepository, StoryNumberGenerator storyNumberGenerator) {
+        this.storyRepository = storyRepository;
+        this.storyNumberGenerator = storyNumberGenerator;
+    }
+
+    @Override
+    public String getName() {
+        return "story-number-backfill";
+    }
+
+    @Override
+    public ChunkResult processChunk(long afterId, int chunkSize) {
+        List<Story> stories = storyRepository.findWithoutStoryNumberAfter(afterId, PageRequest.of(0, chunkSize));
+        if (stories.isEmpty()) {
+            return ChunkResult.done(afterId);
+        }
+        for (Story story : stories) {
+            story.setStoryNumber(storyNumberGenerator.nextStoryNumber());
+            storyRepository.save(story);
+        }
+        long lastId = stories.get(stories.size() - 1).getId();
+        return ChunkResult.of(lastId, stories.size(), stories.size(), chunkSize);
+    }
+}
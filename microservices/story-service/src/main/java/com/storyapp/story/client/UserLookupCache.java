@@ -0,0 +1,212 @@
+package com.storyapp.story.client;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Bounded near-cache of author emails in front of {@link UserServiceClient}.
+ *
+ * Misses for a whole page are resolved with one call to the batch endpoint.
+ * Unknown users are cached as negative entries with a shorter TTL. Entries
+ * past their refresh-after age are still served, and a background reload is
+ * queued so hot authors never expire on the request path. If user-service is
+ * down, expired entries are served rather than dropped.
+ *
+ * A failed call stops remote lookups for {@code user-cache.failure-backoff-seconds},
+ * so an outage costs one timeout per backoff period instead of one per
+ * request. Callers inside a database transaction never wait on user-service:
+ * they get what is cached and the misses are loaded in the background, so
+ * no pooled connection is held across a remote call.
+ */
+@Component
+public class UserLookupCache {
+
+    private static final Logger log = LoggerFactory.getLogger(UserLookupCache.class);
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final UserServiceClient userServiceClient;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long refreshAfterMillis;
+    private final long negativeTtlMillis;
+    private final long failureBackoffMillis;
+    private volatile long unavailableUntil;
+
+    private final Map<String, CachedUser> entries;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "user-cache-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public UserLookupCache(UserServiceClient userServiceClient,
+                           @Value("${user-cache.max-entries:10000}") int maxEntries,
+                           @Value("${user-cache.ttl-seconds:600}") long ttlSeconds,
+                           @Value("${user-cache.refresh-after-seconds:300}") long refreshAfterSeconds,
+                           @Value("${user-cache.negative-ttl-seconds:60}") long negativeTtlSeconds,
+                           @Value("${user-cache.failure-backoff-seconds:10}") long failureBackoffSeconds) {
+        this.userServiceClient = userServiceClient;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.refreshAfterMillis = refreshAfterSeconds * 1000;
+        this.negativeTtlMillis = negativeTtlSeconds * 1000;
+        this.failureBackoffMillis = failureBackoffSeconds * 1000;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                return size() > UserLookupCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the email of every known user among {@code usernames}. Users that
+     * do not exist (or whose email is unknown) are absent from the result.
+     */
+    public Map<String, String> getEmails(Collection<String> usernames) {
+        long now = System.currentTimeMillis();
+        Map<String, String> emails = new HashMap<>();
+        Map<String, CachedUser> expired = new HashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+        Set<String> stale = new LinkedHashSet<>();
+
+        synchronized (entries) {
+            for (String username : usernames) {
+                if (username == null) continue;
+                CachedUser cached = entries.get(username);
+                if (cached == null) {
+                    misses.add(username);
+                } else if (cached.isExpired(now)) {
+                    misses.add(username);
+                    expired.put(username, cached);
+                } else {
+                    if (cached.email != null) emails.put(username, cached.email);
+                    if (cached.found && now - cached.loadedAt > refreshAfterMillis) stale.add(username);
+                }
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            Map<String, String> loaded = null;
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                scheduleRefresh(misses);
+            } else {
+                loaded = load(misses);
+            }
+            if (loaded != null) {
+                emails.putAll(loaded);
+            } else {
+                // user-service unavailable or not waited for: fall back to whatever we had
+                expired.forEach((username, cached) -> {
+                    if (cached.email != null) emails.put(username, cached.email);
+                });
+            }
+        }
+        if (!stale.isEmpty()) {
+            scheduleRefresh(stale);
+        }
+        return emails;
+    }
+
+    /**
+     * Loads the given users from user-service and stores positive and negative
+     * entries. Returns {@code null} if the remote call failed or is backing
+     * off after a failure.
+     */
+    private Map<String, String> load(Collection<String> usernames) {
+        if (System.currentTimeMillis() < unavailableUntil) {
+            return null;
+        }
+        Map<String, String> found = new HashMap<>();
+        List<String> pending = new ArrayList<>(usernames);
+        try {
+            for (int from = 0; from < pending.size(); from += MAX_BATCH_SIZE) {
+                List<String> batch = pending.subList(from, Math.min(from + MAX_BATCH_SIZE, pending.size()));
+                List<Map<String, Object>> users = userServiceClient.getUsersByUsernames(batch);
+                if (users == null) continue;
+                for (Map<String, Object> user : users) {
+                    Object username = user.get("username");
+                    if (username != null) {
+                        found.put(username.toString(), (String) user.get("email"));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            unavailableUntil = System.currentTimeMillis() + failureBackoffMillis;
+            log.warn("User lookup failed for {} users, retrying in {} ms: {}",
+                usernames.size(), failureBackoffMillis, e.getMessage());
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            for (String username : usernames) {
+                boolean known = found.containsKey(username);
+                entries.put(username, new CachedUser(found.get(username), known, now,
+                    now + (known ? ttlMillis : negativeTtlMillis)));
+            }
+        }
+        found.values().removeIf(email -> email == null);
+        return found;
+    }
+
+    private void scheduleRefresh(Set<String> usernames) {
+        Set<String> toRefresh = new LinkedHashSet<>();
+        for (String username : usernames) {
+            if (refreshing.add(username)) toRefresh.add(username);
+        }
+        if (toRefresh.isEmpty()) return;
+        try {
+            refresher.execute(() -> {
+                try {
+                    load(toRefresh);
+                } finally {
+                    refreshing.removeAll(toRefresh);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.removeAll(toRefresh);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private static final class CachedUser {
+        private final String email;
+        private final boolean found;
+        private final long loadedAt;
+        private final long expiresAt;
+
+        private CachedUser(String email, boolean found, long loadedAt, long expiresAt) {
+            this.email = email;
+            this.found = found;
+            this.loadedAt = loadedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
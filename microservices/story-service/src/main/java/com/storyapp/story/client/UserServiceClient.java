@@ -3,7 +3,11 @@ package com.storyapp.story.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 @FeignClient(name = "user-service")
@@ -11,4 +15,7 @@ public interface UserServiceClient {
     
     @GetMapping("/api/users/{username}")
     Map<String, Object> getUserByUsername(@PathVariable String username);
+
+    @PostMapping("/api/users/batch")
+    List<Map<String, Object>> getUsersByUsernames(@RequestBody Collection<String> usernames);
 }
@@ -27,6 +27,7 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/actuator/**").permitAll()
+                .requestMatchers("/api/jobs/**").hasRole("ADMIN")  // Background job progress is for operators only
                 .requestMatchers("/uploads/**").permitAll()  // Public access to all uploaded images (PNG, JPEG, JPG, GIF, WEBP)
                 .requestMatchers(HttpMethod.GET, "/api/stories").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/stories/genres").permitAll()  // Public access to genres
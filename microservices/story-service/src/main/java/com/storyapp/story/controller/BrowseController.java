@@ -0,0 +1,46 @@
+package com.storyapp.story.controller;
+
+import com.storyapp.story.dto.StoryBrowseResponse;
+import com.storyapp.story.dto.StoryFieldSet;
+import com.storyapp.story.service.StoryBrowseService;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stories")
+public class BrowseController {
+
+    private final StoryBrowseService storyBrowseService;
+
+    public BrowseController(StoryBrowseService storyBrowseService) {
+        this.storyBrowseService = storyBrowseService;
+    }
+
+    /**
+     * Stories with all of {@code genres}, at least one of {@code anyGenres}
+     * and none of {@code excludeGenres}, plus per-genre counts of the match.
+     * Returns summaries unless {@code view}/{@code fields} ask for more.
+     */
+    @GetMapping("/browse")
+    public StoryBrowseResponse browse(
+            @RequestParam(value = "genres", required = false) List<Long> genres,
+            @RequestParam(value = "anyGenres", required = false) List<Long> anyGenres,
+            @RequestParam(value = "excludeGenres", required = false) List<Long> excludeGenres,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields,
+            Authentication auth) {
+        String username = auth != null ? auth.getName() : null;
+        return storyBrowseService.browse(
+            genres != null ? genres : List.of(),
+            anyGenres != null ? anyGenres : List.of(),
+            excludeGenres != null ? excludeGenres : List.of(),
+            cursor, limit, username, StoryFieldSet.parse(view != null ? view : "summary", fields));
+    }
+}
@@ -0,0 +1,59 @@
+package com.storyapp.story.controller;
+
+/**
+ * Entity-tag helpers for conditional requests.
+ */
+final class ETags {
+
+    private ETags() {}
+
+    static String strong(String value) {
+        return "\"" + value + "\"";
+    }
+
+    /**
+     * Whether an If-None-Match header matches {@code etag}: "*" or any listed
+     * tag, compared weakly (a W/ prefix is ignored), as RFC 9110 prescribes
+     * for If-None-Match.
+     */
+    static boolean noneMatchHits(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        if (ifNoneMatch.trim().equals("*")) {
+            return true;
+        }
+        String opaque = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            if (opaqueTag(candidate.trim()).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The story version at the start of a strong story ETag sent as If-Match,
+     * or null when the header is absent or "*".
+     */
+    static Long versionOf(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/") || tag.contains(",") || tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("If-Match must be a single strong ETag");
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        int dash = value.indexOf('-');
+        try {
+            return Long.parseLong(dash >= 0 ? value.substring(0, dash) : value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match is not a story ETag");
+        }
+    }
+
+    private static String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
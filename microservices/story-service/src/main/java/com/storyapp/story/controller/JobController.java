@@ -0,0 +1,25 @@
+package com.storyapp.story.controller;
+
+import com.storyapp.story.batch.ChunkedJobRunner;
+import com.storyapp.story.dto.JobStatusResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final ChunkedJobRunner jobRunner;
+
+    public JobController(ChunkedJobRunner jobRunner) {
+        this.jobRunner = jobRunner;
+    }
+
+    @GetMapping
+    public List<JobStatusResponse> listJobs() {
+        return jobRunner.getStatuses();
+    }
+}
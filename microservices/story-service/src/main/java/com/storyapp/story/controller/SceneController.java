@@ -4,12 +4,15 @@ import com.storyapp.story.dto.SceneRequest;
 import com.storyapp.story.dto.SceneResponse;
 import com.storyapp.story.service.SceneService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/scenes")
@@ -28,9 +31,23 @@ public class SceneController {
         return ResponseEntity.ok(sceneService.updateScene(id, request));
     }
 
+    /**
+     * Tagged with the story's version, which every scene change bumps, so a
+     * matching If-None-Match gets 304 without the scenes being read.
+     */
     @GetMapping("/story/{storyId}")
-    public ResponseEntity<List<SceneResponse>> getScenesByStoryId(@PathVariable Long storyId) {
-        return ResponseEntity.ok(sceneService.getScenesByStoryId(storyId));
+    public ResponseEntity<List<SceneResponse>> getScenesByStoryId(
+            @PathVariable Long storyId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<Long> version = sceneService.getScenesVersion(storyId);
+        if (version.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        String etag = ETags.strong(String.valueOf(version.get()));
+        if (ETags.noneMatchHits(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(sceneService.getScenesByStoryId(storyId));
     }
 
     @DeleteMapping("/{id}")
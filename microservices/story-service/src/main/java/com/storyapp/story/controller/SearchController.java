@@ -0,0 +1,59 @@
+package com.storyapp.story.controller;
+
+import com.storyapp.story.dto.SearchResultResponse;
+import com.storyapp.story.dto.SuggestionResponse;
+import com.storyapp.story.search.StorySearchIndex;
+import com.storyapp.story.search.SuggestIndex;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stories")
+public class SearchController {
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 50;
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int DEFAULT_SUGGESTIONS = 10;
+
+    private final StorySearchIndex searchIndex;
+    private final SuggestIndex suggestIndex;
+
+    public SearchController(StorySearchIndex searchIndex, SuggestIndex suggestIndex) {
+        this.searchIndex = searchIndex;
+        this.suggestIndex = suggestIndex;
+    }
+
+    @GetMapping("/search")
+    public List<SearchResultResponse> search(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query is limited to " + MAX_QUERY_LENGTH + " characters");
+        }
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        return searchIndex.search(query, size);
+    }
+
+    /**
+     * Titles, authors and character names starting with {@code prefix}; at
+     * most 10.
+     */
+    @GetMapping("/suggest")
+    public List<SuggestionResponse> suggest(
+            @RequestParam("prefix") String prefix,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (prefix.isBlank()) {
+            return List.of();
+        }
+        if (prefix.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Prefix is limited to " + MAX_QUERY_LENGTH + " characters");
+        }
+        int size = limit == null ? DEFAULT_SUGGESTIONS : Math.max(1, limit);
+        return suggestIndex.suggest(prefix, size);
+    }
+}
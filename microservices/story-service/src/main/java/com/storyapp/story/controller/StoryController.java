@@ -1,13 +1,24 @@
 package com.storyapp.story.controller;
 
+import com.storyapp.story.dto.StoryBatchResponse;
+import com.storyapp.story.dto.StoryFeedResponse;
+import com.storyapp.story.dto.StoryFieldSet;
+import com.storyapp.story.dto.StoryMergePatch;
 import com.storyapp.story.dto.StoryRequest;
 import com.storyapp.story.dto.StoryResponse;
 import com.storyapp.story.dto.CommentRequest;
 import com.storyapp.story.dto.CommentResponse;
-import com.storyapp.story.dto.GenreResponse;
+import com.storyapp.story.dto.UniqueViewersResponse;
+import com.storyapp.story.service.GenreCatalog;
+import com.storyapp.story.service.StoryLiveFields;
 import com.storyapp.story.service.StoryService;
 import com.storyapp.story.service.ImageStorageService;
 import com.storyapp.story.service.MediaStorageService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -16,6 +27,8 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -28,11 +41,16 @@ public class StoryController {
     private final StoryService storyService;
     private final ImageStorageService imageStorageService;
     private final MediaStorageService mediaStorageService;
+    private final ObjectMapper objectMapper;
+    private final GenreCatalog genreCatalog;
 
-    public StoryController(StoryService storyService, ImageStorageService imageStorageService, MediaStorageService mediaStorageService) {
+    public StoryController(StoryService storyService, ImageStorageService imageStorageService, MediaStorageService mediaStorageService,
+                           ObjectMapper objectMapper, GenreCatalog genreCatalog) {
         this.storyService = storyService;
         this.imageStorageService = imageStorageService;
         this.mediaStorageService = mediaStorageService;
+        this.objectMapper = objectMapper;
+        this.genreCatalog = genreCatalog;
     }
 
     @PostMapping
@@ -43,33 +61,136 @@ public class StoryController {
     }
 
     @GetMapping
-    public List<StoryResponse> listStories(Authentication auth) {
+    public List<StoryResponse> listStories(
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields,
+            Authentication auth) {
+        String username = auth != null ? auth.getName() : null;
+        return storyService.getAllStoriesForUser(username, StoryFieldSet.parse(view, fields));
+    }
+
+    @GetMapping("/feed")
+    public StoryFeedResponse feed(
+            @RequestParam(value = "sort", defaultValue = "newest") String sort,
+            @RequestParam(value = "genreId", required = false) Long genreId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields,
+            Authentication auth) {
         String username = auth != null ? auth.getName() : null;
-        return storyService.getAllStoriesForUser(username);
+        return storyService.getFeed(sort, genreId, cursor, limit, username, StoryFieldSet.parse(view, fields));
     }
 
+    /**
+     * Several stories in one request, e.g. {@code ?ids=3,17,42}, in the order
+     * given; ids without a story come back with {@code found=false}.
+     */
+    @GetMapping("/batch")
+    public StoryBatchResponse getStories(
+            @RequestParam("ids") String ids,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields,
+            Authentication auth) {
+        String username = auth != null ? auth.getName() : null;
+        return storyService.getStoriesByIds(parseIds(ids), username, StoryFieldSet.parse(view, fields));
+    }
+
+    private static List<Long> parseIds(String ids) {
+        List<Long> parsed = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            if (id.isBlank()) {
+                continue;
+            }
+            try {
+                parsed.add(Long.valueOf(id.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid story id: " + id.trim());
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Answers a matching If-None-Match with 304 from the story's version and
+     * live fields alone, without building the response. The ETag covers the
+     * viewer's like/favorite flags, hence the Vary on Authorization.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<StoryResponse> getStory(@PathVariable Long id, Authentication auth) {
+    public ResponseEntity<StoryResponse> getStory(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(value = "timeline", required = false) String timelineFormat,
+            Authentication auth) {
+        boolean rawTimeline = isRawTimeline(timelineFormat);
         String username = auth != null ? auth.getName() : null;
-        StoryResponse resp = username != null 
-            ? storyService.getStoryByIdForUser(id, username)
-            : storyService.getStoryById(id);
-        return ResponseEntity.ok(resp);
+        StoryLiveFields live = storyService.getStoryLiveFields(id, username);
+        String etag = live.getETag();
+        if (ETags.noneMatchHits(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.AUTHORIZATION).build();
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.AUTHORIZATION)
+            .body(storyService.getStoryById(id, live, rawTimeline));
+    }
+
+    /**
+     * {@code string} (the default) returns the timeline as the escaped
+     * {@code timelineJson} string, {@code raw} as a JSON array in
+     * {@code timeline}.
+     */
+    private static boolean isRawTimeline(String timelineFormat) {
+        if (timelineFormat == null || timelineFormat.equalsIgnoreCase("string")) {
+            return false;
+        }
+        if (timelineFormat.equalsIgnoreCase("raw")) {
+            return true;
+        }
+        throw new IllegalArgumentException("timeline must be 'string' or 'raw'");
     }
 
     @GetMapping("/my-stories")
-    public List<StoryResponse> myStories(Authentication auth) {
+    public List<StoryResponse> myStories(
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields,
+            Authentication auth) {
         String authorUsername = auth.getName();
-        return storyService.getUserStories(authorUsername);
+        return storyService.getUserStories(authorUsername, StoryFieldSet.parse(view, fields));
     }
 
+    /**
+     * An If-Match with an ETag from GET /{id} (or a version in the body)
+     * makes the update fail with 409 if the story was edited since.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<StoryResponse> updateStory(@PathVariable Long id, @RequestBody StoryRequest request, Authentication auth) {
+    public ResponseEntity<StoryResponse> updateStory(
+            @PathVariable Long id,
+            @RequestBody StoryRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            Authentication auth) {
         String authorUsername = auth.getName();
+        if (request.getVersion() == null) {
+            request.setVersion(ETags.versionOf(ifMatch));
+        }
         StoryResponse updated = storyService.updateStory(id, request, authorUsername);
         return ResponseEntity.ok(updated);
     }
 
+    /**
+     * Partial update with JSON Merge Patch semantics; see StoryMergePatch.
+     * Also accepts plain application/json. If-Match works as for PUT.
+     */
+    @PatchMapping(value = "/{id}", consumes = {StoryMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<StoryResponse> patchStory(
+            @PathVariable Long id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            Authentication auth) {
+        String authorUsername = auth.getName();
+        StoryResponse updated = storyService.patchStory(id, StoryMergePatch.parse(patch, objectMapper),
+            ETags.versionOf(ifMatch), authorUsername);
+        return ResponseEntity.ok(updated);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteStory(@PathVariable Long id, Authentication auth) {
         String authorUsername = auth.getName();
@@ -113,9 +234,12 @@ public class StoryController {
     }
 
     @GetMapping("/favorites")
-    public List<StoryResponse> getFavorites(Authentication auth) {
+    public List<StoryResponse> getFavorites(
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields,
+            Authentication auth) {
         String username = auth.getName();
-        return storyService.getFavoriteStories(username);
+        return storyService.getFavoriteStories(username, StoryFieldSet.parse(view, fields));
     }
 
     @PostMapping(value = "/upload-images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -222,9 +346,18 @@ public class StoryController {
     }
 
     // Genre endpoints
+    /**
+     * Served from the genre catalog's pre-serialized JSON; the ETag is the
+     * catalog version.
+     */
     @GetMapping("/genres")
-    public List<GenreResponse> getAllGenres() {
-        return storyService.getAllGenres();
+    public ResponseEntity<byte[]> getAllGenres(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = ETags.strong(genreCatalog.getVersion());
+        if (ETags.noneMatchHits(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(genreCatalog.getJson());
     }
     
     // View tracking endpoints
@@ -248,6 +381,16 @@ public class StoryController {
         return ResponseEntity.ok().build();
     }
 
+    @GetMapping("/{id}/unique-viewers")
+    public UniqueViewersResponse uniqueViewers(
+            @PathVariable Long id,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication auth) {
+        String username = auth != null ? auth.getName() : null;
+        return storyService.getUniqueViewers(id, username, from, to);
+    }
+
     @PostMapping(value = "/upload-media", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> uploadMedia(
             @RequestParam("files") MultipartFile[] files,
@@ -0,0 +1,35 @@
+package com.storyapp.story.controller;
+
+import com.storyapp.story.dto.StoryStatsResponse;
+import com.storyapp.story.service.StoryStatsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/stories")
+public class StoryStatsController {
+
+    private final StoryStatsService storyStatsService;
+
+    public StoryStatsController(StoryStatsService storyStatsService) {
+        this.storyStatsService = storyStatsService;
+    }
+
+    @GetMapping("/{id}/stats")
+    public StoryStatsResponse stats(
+            @PathVariable Long id,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "granularity", defaultValue = "hour") String granularity,
+            Authentication auth) {
+        String username = auth != null ? auth.getName() : null;
+        return storyStatsService.getStats(id, username, from, to, granularity);
+    }
+}
@@ -0,0 +1,32 @@
+package com.storyapp.story.controller;
+
+import com.storyapp.story.analytics.TrendingEngine;
+import com.storyapp.story.dto.TrendingStoryResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stories")
+public class TrendingController {
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+
+    private final TrendingEngine trendingEngine;
+
+    public TrendingController(TrendingEngine trendingEngine) {
+        this.trendingEngine = trendingEngine;
+    }
+
+    @GetMapping("/trending")
+    public List<TrendingStoryResponse> trending(
+            @RequestParam(value = "genre", required = false) Long genreId,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        return trendingEngine.top(genreId, size);
+    }
+}
@@ -0,0 +1,18 @@
+package com.storyapp.story.dto;
+
+public class GenreFacetCount {
+    private Long genreId;
+    private Integer count;
+
+    public GenreFacetCount() {}
+
+    public GenreFacetCount(Long genreId, Integer count) {
+        this.genreId = genreId;
+        this.count = count;
+    }
+
+    public Long getGenreId() { return genreId; }
+    public void setGenreId(Long genreId) { this.genreId = genreId; }
+    public Integer getCount() { return count; }
+    public void setCount(Integer count) { this.count = count; }
+}
@@ -0,0 +1,37 @@
+package com.storyapp.story.dto;
+
+import java.time.LocalDateTime;
+
+public class JobStatusResponse {
+    private String name;
+    private String status;
+    private Long lastProcessedId;
+    private Long processedCount;
+    private Long processedSinceStartup;
+    private Double rowsPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+    private String lastError;
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Long getLastProcessedId() { return lastProcessedId; }
+    public void setLastProcessedId(Long lastProcessedId) { this.lastProcessedId = lastProcessedId; }
+    public Long getProcessedCount() { return processedCount; }
+    public void setProcessedCount(Long processedCount) { this.processedCount = processedCount; }
+    public Long getProcessedSinceStartup() { return processedSinceStartup; }
+    public void setProcessedSinceStartup(Long processedSinceStartup) { this.processedSinceStartup = processedSinceStartup; }
+    public Double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(Double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
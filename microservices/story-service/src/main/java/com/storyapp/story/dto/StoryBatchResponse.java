@@ -0,0 +1,41 @@
+package com.storyapp.story.dto;
+
+import java.util.List;
+
+/**
+ * Stories for {@code GET /api/stories/batch}, one item per requested id in
+ * request order. An id with no story has {@code found=false} and no story.
+ */
+public class StoryBatchResponse {
+    private List<Item> items;
+
+    public StoryBatchResponse() {}
+
+    public StoryBatchResponse(List<Item> items) {
+        this.items = items;
+    }
+
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+
+    public static class Item {
+        private Long id;
+        private Boolean found;
+        private StoryResponse story;
+
+        public Item() {}
+
+        public Item(Long id, StoryResponse story) {
+            this.id = id;
+            this.found = story != null;
+            this.story = story;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public Boolean getFound() { return found; }
+        public void setFound(Boolean found) { this.found = found; }
+        public StoryResponse getStory() { return story; }
+        public void setStory(StoryResponse story) { this.story = story; }
+    }
+}
@@ -0,0 +1,32 @@
+package com.storyapp.story.dto;
+
+import java.util.List;
+
+public class StoryBrowseResponse {
+    private List<StoryResponse> items;
+    private String nextCursor;
+    private Boolean hasMore;
+    private Integer total;
+    private List<GenreFacetCount> facets;
+
+    public StoryBrowseResponse() {}
+
+    public StoryBrowseResponse(List<StoryResponse> items, String nextCursor, Integer total, List<GenreFacetCount> facets) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+        this.total = total;
+        this.facets = facets;
+    }
+
+    public List<StoryResponse> getItems() { return items; }
+    public void setItems(List<StoryResponse> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public Boolean getHasMore() { return hasMore; }
+    public void setHasMore(Boolean hasMore) { this.hasMore = hasMore; }
+    public Integer getTotal() { return total; }
+    public void setTotal(Integer total) { this.total = total; }
+    public List<GenreFacetCount> getFacets() { return facets; }
+    public void setFacets(List<GenreFacetCount> facets) { this.facets = facets; }
+}
@@ -0,0 +1,68 @@
+package com.storyapp.story.dto;
+
+import com.storyapp.story.model.Story;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for the story feed: the sort key and id of the last
+ * story on the previous page. The sort mode is embedded so a cursor cannot be
+ * replayed against a different ordering.
+ */
+public class StoryFeedCursor {
+    private static final String SEPARATOR = "|";
+
+    private final StoryFeedSort sort;
+    private final String key;
+    private final long id;
+
+    public StoryFeedCursor(StoryFeedSort sort, String key, long id) {
+        this.sort = sort;
+        this.key = key;
+        this.id = id;
+    }
+
+    public static StoryFeedCursor after(StoryFeedSort sort, Story story) {
+        return new StoryFeedCursor(sort, sort.keyOf(story), story.getId());
+    }
+
+    public static StoryFeedCursor after(StoryFeedSort sort, StoryResponse story) {
+        return new StoryFeedCursor(sort, sort.keyOf(story), story.getId());
+    }
+
+    public StoryFeedSort getSort() { return sort; }
+    public String getKey() { return key; }
+    public long getId() { return id; }
+
+    /**
+     * Sort key converted to the type of the sorted attribute.
+     */
+    public Object getTypedKey() {
+        return sort.parseKey(key);
+    }
+
+    public String encode() {
+        String raw = sort.getParam() + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static StoryFeedCursor decode(String encoded, StoryFeedSort expectedSort) {
+        StoryFeedCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            cursor = new StoryFeedCursor(StoryFeedSort.fromParam(parts[0]), parts[1], Long.parseLong(parts[2]));
+            cursor.getTypedKey(); // validate the key eagerly
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (cursor.getSort() != expectedSort) {
+            throw new IllegalArgumentException("Cursor does not match sort order");
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,24 @@
+package com.storyapp.story.dto;
+
+import java.util.List;
+
+public class StoryFeedResponse {
+    private List<StoryResponse> items;
+    private String nextCursor;
+    private Boolean hasMore;
+
+    public StoryFeedResponse() {}
+
+    public StoryFeedResponse(List<StoryResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    public List<StoryResponse> getItems() { return items; }
+    public void setItems(List<StoryResponse> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public Boolean getHasMore() { return hasMore; }
+    public void setHasMore(Boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,87 @@
+package com.storyapp.story.dto;
+
+import com.storyapp.story.model.Story;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sort modes for the published story feed. Each mode orders by a single
+ * indexed column (descending) with the story id as tie-breaker, which is
+ * what keeps keyset cursors stable.
+ */
+public enum StoryFeedSort {
+    NEWEST("newest", "createdAt"),
+    MOST_LIKED("most_liked", "likeCount"),
+    MOST_VIEWED("most_viewed", "viewCount"),
+    MOST_WATCHED("most_watched", "totalWatchTime");
+
+    private final String param;
+    private final String property;
+
+    StoryFeedSort(String param, String property) {
+        this.param = param;
+        this.property = property;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    /**
+     * Name of the {@link Story} attribute this mode sorts on.
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Reads the sort key of a story as the string stored in a cursor.
+     */
+    public String keyOf(Story story) {
+        return keyOf(story.getCreatedAt(), story.getLikeCount(), story.getViewCount(), story.getTotalWatchTime());
+    }
+
+    /**
+     * Same as {@link #keyOf(Story)} for a summary row.
+     */
+    public String keyOf(StoryResponse story) {
+        return keyOf(story.getCreatedAt(), story.getLikeCount(), story.getViewCount(), story.getTotalWatchTime());
+    }
+
+    private String keyOf(LocalDateTime createdAt, Integer likeCount, Integer viewCount, Long totalWatchTime) {
+        switch (this) {
+            case MOST_LIKED: return String.valueOf(likeCount);
+            case MOST_VIEWED: return String.valueOf(viewCount);
+            case MOST_WATCHED: return String.valueOf(totalWatchTime);
+            case NEWEST:
+            default: return createdAt.toString();
+        }
+    }
+
+    /**
+     * Parses a cursor key back into the attribute's Java type so it can be bound
+     * as a query parameter.
+     */
+    public Object parseKey(String key) {
+        switch (this) {
+            case MOST_LIKED:
+            case MOST_VIEWED: return Integer.valueOf(key);
+            case MOST_WATCHED: return Long.valueOf(key);
+            case NEWEST:
+            default: return LocalDateTime.parse(key);
+        }
+    }
+
+    public static StoryFeedSort fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        String normalized = value.trim().toLowerCase().replace('-', '_');
+        for (StoryFeedSort sort : values()) {
+            if (sort.param.equals(normalized)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sort: " + value);
+    }
+}
@@ -0,0 +1,61 @@
+package com.storyapp.story.dto;
+
+/**
+ * Which heavy parts of a {@link StoryResponse} a list request wants.
+ *
+ * {@code view=full} (the default) returns everything. {@code view=summary}
+ * returns the card fields only. {@code fields=} names heavy fields to add on
+ * top of the summary: {@code content}, {@code timelineJson}, {@code characters}.
+ * Heavy fields that are not returned are still present in the JSON, as null.
+ */
+public class StoryFieldSet {
+    public static final StoryFieldSet FULL = new StoryFieldSet(true, true, true, true);
+    public static final StoryFieldSet SUMMARY = new StoryFieldSet(false, false, false, false);
+
+    private final boolean full;
+    private final boolean content;
+    private final boolean timeline;
+    private final boolean characters;
+
+    private StoryFieldSet(boolean full, boolean content, boolean timeline, boolean characters) {
+        this.full = full;
+        this.content = content;
+        this.timeline = timeline;
+        this.characters = characters;
+    }
+
+    public static StoryFieldSet parse(String view, String fields) {
+        if (view != null && !view.isBlank()) {
+            if ("full".equalsIgnoreCase(view.trim())) {
+                return FULL;
+            }
+            if (!"summary".equalsIgnoreCase(view.trim())) {
+                throw new IllegalArgumentException("Unknown view: " + view);
+            }
+        } else if (fields == null || fields.isBlank()) {
+            return FULL;
+        }
+        if (fields == null || fields.isBlank()) {
+            return SUMMARY;
+        }
+
+        boolean content = false;
+        boolean timeline = false;
+        boolean characters = false;
+        for (String field : fields.split(",")) {
+            switch (field.trim()) {
+                case "content": content = true; break;
+                case "timelineJson": timeline = true; break;
+                case "characters": characters = true; break;
+                case "": break;
+                default: throw new IllegalArgumentException("Unknown field: " + field.trim());
+            }
+        }
+        return new StoryFieldSet(false, content, timeline, characters);
+    }
+
+    public boolean isFull() { return full; }
+    public boolean includesContent() { return content; }
+    public boolean includesTimeline() { return timeline; }
+    public boolean includesCharacters() { return characters; }
+}
@@ -0,0 +1,128 @@
+package com.storyapp.story.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A JSON Merge Patch (RFC 7396) for a story, checked up front so that a bad
+ * member fails the request before anything is written.
+ *
+ * Only members present in the patch are applied. Text members may be null to
+ * clear them; arrays replace the whole list, and null clears it. Flags and the
+ * title cannot be null.
+ */
+public class StoryMergePatch {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private static final Set<String> TEXT_FIELDS = Set.of("title", "content", "description", "writers", "timelineJson");
+    private static final Set<String> FLAG_FIELDS = Set.of("isPublished", "showSceneTimeline", "exactViewerTracking");
+    private static final Set<String> LIST_FIELDS = Set.of("imageUrls", "characters", "genreIds");
+
+    private final JsonNode patch;
+    private final List<CharacterRequest> characters;
+
+    private StoryMergePatch(JsonNode patch, List<CharacterRequest> characters) {
+        this.patch = patch;
+        this.characters = characters;
+    }
+
+    public static StoryMergePatch parse(JsonNode patch, ObjectMapper objectMapper) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("A merge patch must be a JSON object");
+        }
+        Iterator<String> names = patch.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            JsonNode value = patch.get(name);
+            if (TEXT_FIELDS.contains(name)) {
+                require(value.isNull() || value.isTextual(), name, "a string");
+            } else if (FLAG_FIELDS.contains(name)) {
+                require(value.isBoolean(), name, "true or false");
+            } else if (LIST_FIELDS.contains(name)) {
+                require(value.isNull() || value.isArray(), name, "an array");
+            } else if (name.equals("version")) {
+                require(value.isIntegralNumber(), name, "a number");
+            } else {
+                throw new IllegalArgumentException("Unknown or read-only field: " + name);
+            }
+        }
+        if (patch.has("title")) {
+            require(patch.get("title").isTextual() && !patch.get("title").asText().trim().isEmpty(),
+                "title", "a non-empty string");
+        }
+        List<CharacterRequest> characters = new ArrayList<>();
+        JsonNode characterNodes = patch.get("characters");
+        if (characterNodes != null && characterNodes.isArray()) {
+            for (JsonNode node : characterNodes) {
+                require(node.isObject(), "characters", "an array of objects");
+                try {
+                    characters.add(objectMapper.treeToValue(node, CharacterRequest.class));
+                } catch (Exception e) {
+                    throw new IllegalArgumentException("Invalid character in patch: " + e.getMessage());
+                }
+            }
+        }
+        for (String name : List.of("imageUrls", "genreIds")) {
+            JsonNode values = patch.get(name);
+            if (values != null && values.isArray()) {
+                for (JsonNode value : values) {
+                    require(name.equals("imageUrls") ? value.isTextual() : value.isIntegralNumber(),
+                        name, name.equals("imageUrls") ? "an array of strings" : "an array of ids");
+                }
+            }
+        }
+        return new StoryMergePatch(patch, characters);
+    }
+
+    private static void require(boolean condition, String field, String expected) {
+        if (!condition) {
+            throw new IllegalArgumentException("Field '" + field + "' must be " + expected);
+        }
+    }
+
+    public boolean has(String field) {
+        return patch.has(field);
+    }
+
+    public String text(String field) {
+        JsonNode value = patch.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    public Boolean flag(String field) {
+        return patch.get(field).asBoolean();
+    }
+
+    public List<String> imageUrls() {
+        List<String> urls = new ArrayList<>();
+        JsonNode values = patch.get("imageUrls");
+        if (values != null) {
+            values.forEach(value -> urls.add(value.asText()));
+        }
+        return urls;
+    }
+
+    public List<Long> genreIds() {
+        List<Long> ids = new ArrayList<>();
+        JsonNode values = patch.get("genreIds");
+        if (values != null) {
+            values.forEach(value -> ids.add(value.asLong()));
+        }
+        return ids;
+    }
+
+    public List<CharacterRequest> characters() {
+        return characters;
+    }
+
+    public Long version() {
+        JsonNode value = patch.get("version");
+        return value == null ? null : value.asLong();
+    }
+}
@@ -13,6 +13,9 @@ public class StoryRequest {
     private Boolean isPublished;
     private List<Long> genreIds;
     private Boolean showSceneTimeline;
+    private Boolean exactViewerTracking;
+    // Version the client last read; a mismatch fails the update with 409 instead of overwriting
+    private Long version;
 
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
@@ -34,4 +37,8 @@ public class StoryRequest {
     public void setGenreIds(List<Long> genreIds) { this.genreIds = genreIds; }
     public Boolean getShowSceneTimeline() { return showSceneTimeline; }
     public void setShowSceneTimeline(Boolean showSceneTimeline) { this.showSceneTimeline = showSceneTimeline; }
+    public Boolean getExactViewerTracking() { return exactViewerTracking; }
+    public void setExactViewerTracking(Boolean exactViewerTracking) { this.exactViewerTracking = exactViewerTracking; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package com.storyapp.story.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -10,6 +13,10 @@ public class StoryResponse {
     private String description;
     private String writers;
     private String timelineJson;
+    // The same timeline, embedded as JSON rather than as a string; only set for ?timeline=raw
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonRawValue
+    private String timeline;
     private List<String> imageUrls;
     private String authorUsername;
     private LocalDateTime createdAt;
@@ -25,6 +32,35 @@ public class StoryResponse {
     private Long totalWatchTime; // in seconds
     private Boolean showSceneTimeline;
     private String authorEmail;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long version;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime updatedAt;
+
+    public StoryResponse() {}
+
+    /**
+     * Summary projection used by constructor-expression queries. Leaves out the
+     * TEXT columns so they are never read for list views.
+     */
+    public StoryResponse(Long id, String title, String description, String writers, String authorUsername,
+                         LocalDateTime createdAt, Boolean isPublished, Integer likeCount, Integer viewCount,
+                         String storyNumber, Long totalWatchTime, Boolean showSceneTimeline,
+                         Integer commentCount) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.writers = writers;
+        this.authorUsername = authorUsername;
+        this.createdAt = createdAt;
+        this.isPublished = isPublished;
+        this.likeCount = likeCount;
+        this.viewCount = viewCount;
+        this.storyNumber = storyNumber;
+        this.totalWatchTime = totalWatchTime;
+        this.showSceneTimeline = showSceneTimeline;
+        this.commentCount = commentCount;
+    }
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -38,6 +74,8 @@ public class StoryResponse {
     public void setWriters(String writers) { this.writers = writers; }
     public String getTimelineJson() { return timelineJson; }
     public void setTimelineJson(String timelineJson) { this.timelineJson = timelineJson; }
+    public String getTimeline() { return timeline; }
+    public void setTimeline(String timeline) { this.timeline = timeline; }
     public List<String> getImageUrls() { return imageUrls; }
     public void setImageUrls(List<String> imageUrls) { this.imageUrls = imageUrls; }
     public String getAuthorUsername() { return authorUsername; }
@@ -68,4 +106,8 @@ public class StoryResponse {
     public void setShowSceneTimeline(Boolean showSceneTimeline) { this.showSceneTimeline = showSceneTimeline; }
     public String getAuthorEmail() { return authorEmail; }
     public void setAuthorEmail(String authorEmail) { this.authorEmail = authorEmail; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 }
\ No newline at end of file
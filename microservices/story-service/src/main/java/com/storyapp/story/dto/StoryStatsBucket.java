@@ -0,0 +1,28 @@
+package com.storyapp.story.dto;
+
+import java.time.LocalDateTime;
+
+public class StoryStatsBucket {
+    private LocalDateTime start;
+    private Long views;
+    private Long likes;
+    private Long watchTime; // in seconds
+
+    public StoryStatsBucket() {}
+
+    public StoryStatsBucket(LocalDateTime start, Long views, Long likes, Long watchTime) {
+        this.start = start;
+        this.views = views;
+        this.likes = likes;
+        this.watchTime = watchTime;
+    }
+
+    public LocalDateTime getStart() { return start; }
+    public void setStart(LocalDateTime start) { this.start = start; }
+    public Long getViews() { return views; }
+    public void setViews(Long views) { this.views = views; }
+    public Long getLikes() { return likes; }
+    public void setLikes(Long likes) { this.likes = likes; }
+    public Long getWatchTime() { return watchTime; }
+    public void setWatchTime(Long watchTime) { this.watchTime = watchTime; }
+}
@@ -0,0 +1,32 @@
+package com.storyapp.story.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class StoryStatsResponse {
+    private Long storyId;
+    private String granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Long totalViews;
+    private Long totalLikes;
+    private Long totalWatchTime; // in seconds
+    private List<StoryStatsBucket> buckets;
+
+    public Long getStoryId() { return storyId; }
+    public void setStoryId(Long storyId) { this.storyId = storyId; }
+    public String getGranularity() { return granularity; }
+    public void setGranularity(String granularity) { this.granularity = granularity; }
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+    public LocalDateTime getTo() { return to; }
+    public void setTo(LocalDateTime to) { this.to = to; }
+    public Long getTotalViews() { return totalViews; }
+    public void setTotalViews(Long totalViews) { this.totalViews = totalViews; }
+    public Long getTotalLikes() { return totalLikes; }
+    public void setTotalLikes(Long totalLikes) { this.totalLikes = totalLikes; }
+    public Long getTotalWatchTime() { return totalWatchTime; }
+    public void setTotalWatchTime(Long totalWatchTime) { this.totalWatchTime = totalWatchTime; }
+    public List<StoryStatsBucket> getBuckets() { return buckets; }
+    public void setBuckets(List<StoryStatsBucket> buckets) { this.buckets = buckets; }
+}
@@ -0,0 +1,26 @@
+package com.storyapp.story.dto;
+
+public class SuggestionResponse {
+    private String text;
+    private String type;
+    private Long storyId;
+    private Double score;
+
+    public SuggestionResponse() {}
+
+    public SuggestionResponse(String text, String type, Long storyId, Double score) {
+        this.text = text;
+        this.type = type;
+        this.storyId = storyId;
+        this.score = score;
+    }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public Long getStoryId() { return storyId; }
+    public void setStoryId(Long storyId) { this.storyId = storyId; }
+    public Double getScore() { return score; }
+    public void setScore(Double score) { this.score = score; }
+}
@@ -0,0 +1,30 @@
+package com.storyapp.story.dto;
+
+public class TrendingStoryResponse {
+    private Long storyId;
+    private String storyNumber;
+    private String title;
+    private String authorUsername;
+    private Double score;
+
+    public TrendingStoryResponse() {}
+
+    public TrendingStoryResponse(Long storyId, String storyNumber, String title, String authorUsername, Double score) {
+        this.storyId = storyId;
+        this.storyNumber = storyNumber;
+        this.title = title;
+        this.authorUsername = authorUsername;
+        this.score = score;
+    }
+
+    public Long getStoryId() { return storyId; }
+    public void setStoryId(Long storyId) { this.storyId = storyId; }
+    public String getStoryNumber() { return storyNumber; }
+    public void setStoryNumber(String storyNumber) { this.storyNumber = storyNumber; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getAuthorUsername() { return authorUsername; }
+    public void setAuthorUsername(String authorUsername) { this.authorUsername = authorUsername; }
+    public Double getScore() { return score; }
+    public void setScore(Double score) { this.score = score; }
+}
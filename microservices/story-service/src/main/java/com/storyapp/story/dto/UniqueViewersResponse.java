@@ -0,0 +1,32 @@
+package com.storyapp.story.dto;
+
+import java.time.LocalDate;
+
+public class UniqueViewersResponse {
+    private Long storyId;
+    private Long uniqueViewers;
+    private Boolean exact;
+    private LocalDate from;
+    private LocalDate to;
+
+    public UniqueViewersResponse() {}
+
+    public UniqueViewersResponse(Long storyId, Long uniqueViewers, Boolean exact, LocalDate from, LocalDate to) {
+        this.storyId = storyId;
+        this.uniqueViewers = uniqueViewers;
+        this.exact = exact;
+        this.from = from;
+        this.to = to;
+    }
+
+    public Long getStoryId() { return storyId; }
+    public void setStoryId(Long storyId) { this.storyId = storyId; }
+    public Long getUniqueViewers() { return uniqueViewers; }
+    public void setUniqueViewers(Long uniqueViewers) { this.uniqueViewers = uniqueViewers; }
+    public Boolean getExact() { return exact; }
+    public void setExact(Boolean exact) { this.exact = exact; }
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+}
@@ -1,14 +1,17 @@
 package com.storyapp.story.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "characters")
+@NamedEntityGraph(name = "Character.withImages", attributeNodes = @NamedAttributeNode("imageUrls"))
 public class Character {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "characters_seq")
+    @SequenceGenerator(name = "characters_seq", sequenceName = "characters_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -26,7 +29,8 @@ public class Character {
     @Column(name = "popularity")
     private Integer popularity;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection
+    @BatchSize(size = 50)
     @CollectionTable(name = "character_images", joinColumns = @JoinColumn(name = "character_id"))
     @Column(name = "image_url")
     private List<String> imageUrls = new ArrayList<>();
@@ -0,0 +1,58 @@
+package com.storyapp.story.model;
+
+import jakarta.persistence.*;
+
+/**
+ * One slot of a story's sharded like counter. {@code delta} holds likes minus
+ * unlikes that have not been folded into {@code stories.like_count} yet.
+ * Writers pick a random slot, so concurrent likes on the same story rarely
+ * wait on the same row lock.
+ */
+@Entity
+@Table(name = "like_counter_shards", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_like_counter_shards_story_shard", columnNames = {"story_id", "shard"})
+})
+public class LikeCounterShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "story_id", nullable = false)
+    private Long storyId;
+
+    @Column(nullable = false)
+    private Integer shard;
+
+    @Column(nullable = false)
+    private Long delta = 0L;
+
+    public LikeCounterShard() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getStoryId() {
+        return storyId;
+    }
+
+    public void setStoryId(Long storyId) {
+        this.storyId = storyId;
+    }
+
+    public Integer getShard() {
+        return shard;
+    }
+
+    public void setShard(Integer shard) {
+        this.shard = shard;
+    }
+
+    public Long getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Long delta) {
+        this.delta = delta;
+    }
+}
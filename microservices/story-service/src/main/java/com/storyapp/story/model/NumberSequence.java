@@ -0,0 +1,37 @@
+package com.storyapp.story.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Named counter row. Allocators reserve blocks of values from it with a single
+ * atomic {@code UPDATE}, then hand them out from memory.
+ */
+@Entity
+@Table(name = "number_sequences")
+public class NumberSequence {
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    public NumberSequence() {}
+
+    public NumberSequence(String name, Long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
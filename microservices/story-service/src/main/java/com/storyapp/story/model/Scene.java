@@ -5,10 +5,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "scenes")
+@Table(name = "scenes", indexes = @Index(name = "idx_scenes_story_entry", columnList = "story_id, timeline_entry_id"))
+@NamedEntityGraph(name = "Scene.withStoryAndCharacters", attributeNodes = {
+    @NamedAttributeNode("story"),
+    @NamedAttributeNode("characterNames")
+})
 public class Scene {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scenes_seq")
+    @SequenceGenerator(name = "scenes_seq", sequenceName = "scenes_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -24,11 +29,17 @@ public class Scene {
     @JoinColumn(name = "story_id")
     private Story story;
 
+    // Client-side id of the timeline entry this scene was synced from; null for scenes created directly
+    @Column(name = "timeline_entry_id", length = 64)
+    private String timelineEntryId;
+
     @OneToMany(mappedBy = "scene", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("position ASC, id ASC")
     private List<SceneMedia> media = new ArrayList<>();
 
     @ElementCollection
     @CollectionTable(name = "scene_characters", joinColumns = @JoinColumn(name = "scene_id"))
+    @OrderColumn(name = "character_position")
     @Column(name = "character_name")
     private List<String> characterNames = new ArrayList<>();
 
@@ -81,6 +92,14 @@ public class Scene {
         this.story = story;
     }
 
+    public String getTimelineEntryId() {
+        return timelineEntryId;
+    }
+
+    public void setTimelineEntryId(String timelineEntryId) {
+        this.timelineEntryId = timelineEntryId;
+    }
+
     public List<SceneMedia> getMedia() {
         return media;
     }
@@ -6,12 +6,17 @@ import jakarta.persistence.*;
 @Table(name = "scene_media")
 public class SceneMedia {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scene_media_seq")
+    @SequenceGenerator(name = "scene_media_seq", sequenceName = "scene_media_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String url;
 
+    // Display order within the scene; ids come from pooled blocks and are not in insertion order across instances
+    @Column(name = "media_position")
+    private Integer position;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private MediaType type;
@@ -50,6 +55,14 @@ public class SceneMedia {
         this.url = url;
     }
 
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+
     public MediaType getType() {
         return type;
     }
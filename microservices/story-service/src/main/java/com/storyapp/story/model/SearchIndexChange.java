@@ -0,0 +1,38 @@
+package com.storyapp.story.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A story whose searchable text or publish state changed. Written in the same
+ * transaction as the change and read by StorySearchIndex on every instance.
+ */
+@Entity
+@Table(name = "search_index_changes", indexes = {
+    @Index(name = "idx_search_index_changes_changed_at", columnList = "changed_at")
+})
+public class SearchIndexChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "story_id", nullable = false)
+    private Long storyId;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    public SearchIndexChange() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getStoryId() {
+        return storyId;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+}
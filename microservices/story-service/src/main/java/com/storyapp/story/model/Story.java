@@ -2,12 +2,18 @@ package com.storyapp.story.model;
 
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "stories")
+@Table(name = "stories", indexes = {
+    @Index(name = "idx_stories_pub_created", columnList = "is_published, created_at, id"),
+    @Index(name = "idx_stories_pub_likes", columnList = "is_published, like_count, id"),
+    @Index(name = "idx_stories_pub_views", columnList = "is_published, view_count, id"),
+    @Index(name = "idx_stories_pub_watch", columnList = "is_published, total_watch_time, id")
+})
 public class Story {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,34 +41,57 @@ public class Story {
     @Column(name = "writers", length = 500)
     private String writers;
 
+    // Legacy copy of the timeline; scenes are authoritative and new saves clear it (see TimelineMaterializer)
     @Lob
     @Column(name = "timeline_json", columnDefinition = "TEXT")
     private String timelineJson;
 
     @OneToMany(mappedBy = "story", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("position ASC, id ASC")
     private List<StoryImage> images = new ArrayList<>();
 
     @Column(name = "is_published", nullable = false)
     private Boolean isPublished = false;
 
-    @Column(name = "like_count", nullable = false)
+    // Folded total of the sharded like counter (see LikeCounter); written only by the fold.
+    @Column(name = "like_count", nullable = false, updatable = false)
     private Integer likeCount = 0;
 
-    @Column(name = "view_count", nullable = false)
+    // view_count and total_watch_time are written only by EngagementBuffer flushes.
+    @Column(name = "view_count", nullable = false, updatable = false)
     private Integer viewCount = 0;
 
+    // Maintained only by atomic UPDATEs in StoryRepository, never by entity flushes,
+    // so a stale loaded Story cannot overwrite a concurrent increment.
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    private Integer commentCount = 0;
+
     @Column(name = "story_number", unique = true, length = 20)
     private String storyNumber;
 
-    @Column(name = "total_watch_time", nullable = false)
+    @Column(name = "total_watch_time", nullable = false, updatable = false)
     private Long totalWatchTime = 0L; // in seconds
 
     @Column(name = "show_scene_timeline", nullable = false)
     private Boolean showSceneTimeline = true;
 
+    // Opt-in: keep a story_views row per viewer instead of relying on the HyperLogLog estimate
+    @Column(name = "exact_viewer_tracking", nullable = false)
+    private Boolean exactViewerTracking = false;
+
     @OneToMany(mappedBy = "story", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<StoryView> storyViews = new ArrayList<>();
 
+    // Bumped on every edit to the story or its scenes, characters, images and genres
+    // (see StoryRepository.touch); not by counter updates. Backs ETags and rejects lost updates.
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @OneToMany(mappedBy = "story", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Like> likes = new ArrayList<>();
 
@@ -183,6 +212,14 @@ public class Story {
         this.viewCount = viewCount;
     }
 
+    public Integer getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(Integer commentCount) {
+        this.commentCount = commentCount;
+    }
+
     public List<Like> getLikes() {
         return likes;
     }
@@ -246,4 +283,24 @@ public class Story {
     public void setShowSceneTimeline(Boolean showSceneTimeline) {
         this.showSceneTimeline = showSceneTimeline;
     }
+
+    public Boolean getExactViewerTracking() {
+        return exactViewerTracking;
+    }
+
+    public void setExactViewerTracking(Boolean exactViewerTracking) {
+        this.exactViewerTracking = exactViewerTracking;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
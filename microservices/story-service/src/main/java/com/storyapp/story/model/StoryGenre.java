@@ -3,17 +3,21 @@ package com.storyapp.story.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "story_genres")
+@Table(name = "story_genres", indexes = {
+    @Index(name = "idx_story_genres_story_genre", columnList = "story_id, genre_id")
+})
 public class StoryGenre {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "story_genres_seq")
+    @SequenceGenerator(name = "story_genres_seq", sequenceName = "story_genres_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "story_id", nullable = false)
     private Story story;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Genre names are served from GenreCatalog; only the id is normally needed
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "genre_id", nullable = false)
     private Genre genre;
 
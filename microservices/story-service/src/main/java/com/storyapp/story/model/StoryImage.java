@@ -6,12 +6,17 @@ import jakarta.persistence.*;
 @Table(name = "story_images")
 public class StoryImage {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "story_images_seq")
+    @SequenceGenerator(name = "story_images_seq", sequenceName = "story_images_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String url;
 
+    // Display order within the story; ids come from pooled blocks and are not in insertion order across instances
+    @Column(name = "image_position")
+    private Integer position;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "story_id")
     private Story story;
@@ -39,6 +44,14 @@ public class StoryImage {
         this.url = url;
     }
 
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+
     public Story getStory() {
         return story;
     }
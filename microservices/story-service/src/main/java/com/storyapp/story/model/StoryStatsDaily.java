@@ -0,0 +1,59 @@
+package com.storyapp.story.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Engagement of one story during one day, compacted from
+ * {@link StoryStatsHourly} by the stats-compaction job.
+ */
+@Entity
+@Table(name = "story_stats_daily", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_story_stats_daily_story_day", columnNames = {"story_id", "day"})
+})
+public class StoryStatsDaily {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "story_id", nullable = false)
+    private Long storyId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private Long views = 0L;
+
+    @Column(nullable = false)
+    private Long likes = 0L;
+
+    @Column(name = "watch_seconds", nullable = false)
+    private Long watchSeconds = 0L;
+
+    public StoryStatsDaily() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getStoryId() {
+        return storyId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public Long getViews() {
+        return views;
+    }
+
+    public Long getLikes() {
+        return likes;
+    }
+
+    public Long getWatchSeconds() {
+        return watchSeconds;
+    }
+}
@@ -0,0 +1,62 @@
+package com.storyapp.story.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Engagement of one story during one hour. Filled from the in-memory minute
+ * buckets; rows older than the retention window are folded into
+ * {@link StoryStatsDaily} and deleted.
+ */
+@Entity
+@Table(name = "story_stats_hourly", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_story_stats_hourly_story_bucket", columnNames = {"story_id", "bucket_start"})
+}, indexes = {
+    @Index(name = "idx_story_stats_hourly_bucket", columnList = "bucket_start")
+})
+public class StoryStatsHourly {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "story_id", nullable = false)
+    private Long storyId;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private Long views = 0L;
+
+    @Column(nullable = false)
+    private Long likes = 0L;
+
+    @Column(name = "watch_seconds", nullable = false)
+    private Long watchSeconds = 0L;
+
+    public StoryStatsHourly() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getStoryId() {
+        return storyId;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public Long getViews() {
+        return views;
+    }
+
+    public Long getLikes() {
+        return likes;
+    }
+
+    public Long getWatchSeconds() {
+        return watchSeconds;
+    }
+}
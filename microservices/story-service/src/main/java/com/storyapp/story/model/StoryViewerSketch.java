@@ -0,0 +1,63 @@
+package com.storyapp.story.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Serialized HyperLogLog sketch of the signed-in users who viewed a story,
+ * either on one day or, for {@link #ALL_TIME}, since tracking started.
+ */
+@Entity
+@Table(name = "story_viewer_sketches", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_story_viewer_sketches_story_day", columnNames = {"story_id", "day"})
+})
+public class StoryViewerSketch {
+    /**
+     * {@code day} value of the all-time sketch of a story.
+     */
+    public static final LocalDate ALL_TIME = LocalDate.of(1970, 1, 1);
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "story_id", nullable = false)
+    private Long storyId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] registers;
+
+    public StoryViewerSketch() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getStoryId() {
+        return storyId;
+    }
+
+    public void setStoryId(Long storyId) {
+        this.storyId = storyId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public byte[] getRegisters() {
+        return registers;
+    }
+
+    public void setRegisters(byte[] registers) {
+        this.registers = registers;
+    }
+}
@@ -0,0 +1,68 @@
+package com.storyapp.story.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Snapshot of one instance's share of a story's trending score, decayed to
+ * {@code asOf}. Written and read by TrendingEngine only; the ranking sums the
+ * rows of all instances.
+ */
+@Entity
+@Table(name = "trending_scores")
+@IdClass(TrendingScore.Key.class)
+public class TrendingScore {
+    @Id
+    @Column(name = "instance_id", length = 100)
+    private String instanceId;
+
+    @Id
+    @Column(name = "story_id")
+    private Long storyId;
+
+    @Column(nullable = false)
+    private Double score;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+
+    public TrendingScore() {}
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public Long getStoryId() {
+        return storyId;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+
+    public static class Key implements Serializable {
+        private String instanceId;
+        private Long storyId;
+
+        public Key() {}
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(instanceId, key.instanceId) && Objects.equals(storyId, key.storyId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(instanceId, storyId);
+        }
+    }
+}
@@ -1,7 +1,20 @@
 package com.storyapp.story.repository;
 
 import com.storyapp.story.model.Character;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface CharacterRepository extends JpaRepository<Character, Long> {
-}
\ No newline at end of file
+
+    @Query("SELECT DISTINCT c FROM Character c LEFT JOIN FETCH c.imageUrls WHERE c.story.id IN :storyIds ORDER BY c.id")
+    List<Character> findWithImagesByStoryIds(@Param("storyIds") Collection<Long> storyIds);
+
+    @EntityGraph("Character.withImages")
+    @Query("SELECT c FROM Character c WHERE c.story.authorUsername = :username ORDER BY c.story.id, c.id")
+    List<Character> findWithImagesByAuthor(@Param("username") String username);
+}
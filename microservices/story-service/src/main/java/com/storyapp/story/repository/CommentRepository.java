@@ -3,8 +3,11 @@ package com.storyapp.story.repository;
 import com.storyapp.story.model.Comment;
 import com.storyapp.story.model.Story;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +15,7 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByStoryOrderByCreatedAtDesc(Story story);
     List<Comment> findByUsernameOrderByCreatedAtDesc(String username);
     long countByStory(Story story);
+
+    @Query("SELECT c.story.id, COUNT(c) FROM Comment c WHERE c.story.id IN :storyIds GROUP BY c.story.id")
+    List<Object[]> countByStoryIds(@Param("storyIds") Collection<Long> storyIds);
 }
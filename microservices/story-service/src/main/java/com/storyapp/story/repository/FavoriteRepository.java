@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +18,7 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     
     @Query("SELECT f FROM Favorite f JOIN FETCH f.story WHERE f.username = :username")
     List<Favorite> findByUsername(@Param("username") String username);
+
+    @Query("SELECT f.story.id FROM Favorite f WHERE f.username = :username AND f.story.id IN :storyIds")
+    List<Long> findFavoritedStoryIds(@Param("username") String username, @Param("storyIds") Collection<Long> storyIds);
 }
@@ -3,8 +3,12 @@ package com.storyapp.story.repository;
 import com.storyapp.story.model.Like;
 import com.storyapp.story.model.Story;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,7 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
     Optional<Like> findByStoryAndUsername(Story story, String username);
     boolean existsByStoryAndUsername(Story story, String username);
     long countByStory(Story story);
+
+    @Query("SELECT l.story.id FROM Like l WHERE l.username = :username AND l.story.id IN :storyIds")
+    List<Long> findLikedStoryIds(@Param("username") String username, @Param("storyIds") Collection<Long> storyIds);
 }
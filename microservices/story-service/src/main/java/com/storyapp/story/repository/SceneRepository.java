@@ -1,13 +1,29 @@
 package com.storyapp.story.repository;
 
 import com.storyapp.story.model.Scene;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SceneRepository extends JpaRepository<Scene, Long> {
     List<Scene> findByStoryId(Long storyId);
     List<Scene> findByStoryIdOrderByOrderAsc(Long storyId);
+
+    // Everything an AI prompt reads from the scene itself
+    @EntityGraph("Scene.withStoryAndCharacters")
+    Optional<Scene> findWithStoryAndCharactersById(Long id);
+
+    // Two queries rather than one: Hibernate cannot fetch both bags at once.
+    // Run in the same transaction, the second fills in the scenes loaded by the first.
+    @Query("SELECT DISTINCT s FROM Scene s LEFT JOIN FETCH s.media WHERE s.story.id = :storyId")
+    List<Scene> findWithMediaByStoryId(@Param("storyId") Long storyId);
+
+    @Query("SELECT DISTINCT s FROM Scene s LEFT JOIN FETCH s.characterNames WHERE s.story.id = :storyId")
+    List<Scene> findWithCharacterNamesByStoryId(@Param("storyId") Long storyId);
 }
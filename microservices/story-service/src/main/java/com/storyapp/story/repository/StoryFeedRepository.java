@@ -0,0 +1,31 @@
+package com.storyapp.story.repository;
+
+import com.storyapp.story.dto.StoryFeedCursor;
+import com.storyapp.story.dto.StoryFeedSort;
+import com.storyapp.story.dto.StoryResponse;
+import com.storyapp.story.model.Story;
+
+import java.util.List;
+
+/**
+ * Keyset-paginated access to published stories. Pages are resolved with a
+ * range scan on the (is_published, sort column, id) indexes, so the cost of a
+ * page does not depend on how far into the feed the cursor points.
+ */
+public interface StoryFeedRepository {
+
+    /**
+     * Returns up to {@code limit} published stories ordered by {@code sort}
+     * (descending, ties broken by id), starting strictly after {@code cursor}.
+     *
+     * @param genreId optional genre filter, {@code null} for all genres
+     * @param cursor  position of the last story of the previous page, {@code null} for the first page
+     */
+    List<Story> findPublishedFeed(StoryFeedSort sort, Long genreId, StoryFeedCursor cursor, int limit);
+
+    /**
+     * Same page as {@link #findPublishedFeed}, read as summary rows that leave
+     * out the TEXT columns.
+     */
+    List<StoryResponse> findPublishedFeedSummaries(StoryFeedSort sort, Long genreId, StoryFeedCursor cursor, int limit);
+}
@@ -0,0 +1,59 @@
+package com.storyapp.story.repository;
+
+import com.storyapp.story.dto.StoryFeedCursor;
+import com.storyapp.story.dto.StoryFeedSort;
+import com.storyapp.story.dto.StoryResponse;
+import com.storyapp.story.model.Story;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+public class StoryFeedRepositoryImpl implements StoryFeedRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Story> findPublishedFeed(StoryFeedSort sort, Long genreId, StoryFeedCursor cursor, int limit) {
+        TypedQuery<Story> query = entityManager.createQuery(buildFeedQuery("s", sort, genreId, cursor), Story.class);
+        bindFeedParameters(query, genreId, cursor);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    @Override
+    public List<StoryResponse> findPublishedFeedSummaries(StoryFeedSort sort, Long genreId, StoryFeedCursor cursor, int limit) {
+        TypedQuery<StoryResponse> query = entityManager.createQuery(
+            buildFeedQuery(StoryRepository.SUMMARY_SELECT, sort, genreId, cursor), StoryResponse.class);
+        bindFeedParameters(query, genreId, cursor);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    private String buildFeedQuery(String select, StoryFeedSort sort, Long genreId, StoryFeedCursor cursor) {
+        String property = "s." + sort.getProperty();
+        StringBuilder jpql = new StringBuilder("SELECT ").append(select)
+            .append(" FROM Story s WHERE s.isPublished = true");
+        if (genreId != null) {
+            jpql.append(" AND EXISTS (SELECT sg.id FROM StoryGenre sg WHERE sg.story = s AND sg.genre.id = :genreId)");
+        }
+        if (cursor != null) {
+            jpql.append(" AND (").append(property).append(" < :cursorKey OR (")
+                .append(property).append(" = :cursorKey AND s.id < :cursorId))");
+        }
+        jpql.append(" ORDER BY ").append(property).append(" DESC, s.id DESC");
+        return jpql.toString();
+    }
+
+    private void bindFeedParameters(TypedQuery<?> query, Long genreId, StoryFeedCursor cursor) {
+        if (genreId != null) {
+            query.setParameter("genreId", genreId);
+        }
+        if (cursor != null) {
+            query.setParameter("cursorKey", cursor.getTypedKey());
+            query.setParameter("cursorId", cursor.getId());
+        }
+    }
+}
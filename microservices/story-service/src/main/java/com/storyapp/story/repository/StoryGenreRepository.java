@@ -2,6 +2,14 @@ package com.storyapp.story.repository;
 
 import com.storyapp.story.model.StoryGenre;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface StoryGenreRepository extends JpaRepository<StoryGenre, Long> {
+
+    @Query("SELECT sg.story.id, sg.genre.id FROM StoryGenre sg WHERE sg.story.id IN :storyIds ORDER BY sg.id")
+    List<Object[]> findGenreIdsByStoryIds(@Param("storyIds") Collection<Long> storyIds);
 }
@@ -0,0 +1,15 @@
+package com.storyapp.story.repository;
+
+import com.storyapp.story.model.StoryImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StoryImageRepository extends JpaRepository<StoryImage, Long> {
+
+    @Query("SELECT i FROM StoryImage i WHERE i.story.id IN :storyIds ORDER BY i.position, i.id")
+    List<StoryImage> findByStoryIds(@Param("storyIds") Collection<Long> storyIds);
+}
@@ -1,18 +1,90 @@
 package com.storyapp.story.repository;
 
+import com.storyapp.story.dto.StoryResponse;
 import com.storyapp.story.model.Story;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface StoryRepository extends JpaRepository<Story, Long> {
+public interface StoryRepository extends JpaRepository<Story, Long>, StoryFeedRepository {
+    /**
+     * Constructor expression for list-view summaries, without the TEXT columns.
+     */
+    String SUMMARY_SELECT = "new com.storyapp.story.dto.StoryResponse(s.id, s.title, s.description, s.writers, "
+        + "s.authorUsername, s.createdAt, s.isPublished, s.likeCount, s.viewCount, s.storyNumber, "
+        + "s.totalWatchTime, s.showSceneTimeline, s.commentCount)";
+
+    List<Story> findAllByIsPublishedTrue();
     List<Story> findAllByAuthorUsername(String authorUsername);
     Optional<Story> findByTitleAndAuthorUsername(String title, String authorUsername);
     Optional<Story> findByTitleAndAuthorUsernameAndIdNot(String title, String authorUsername, Long id);
     Optional<Story> findByStoryNumber(String storyNumber);
+
+    @Query("SELECT " + SUMMARY_SELECT + " FROM Story s WHERE s.isPublished = true")
+    List<StoryResponse> findPublishedSummaries();
+
+    @Query("SELECT " + SUMMARY_SELECT + " FROM Story s WHERE s.authorUsername = :username")
+    List<StoryResponse> findSummariesByAuthor(@Param("username") String username);
+
+    @Query("SELECT " + SUMMARY_SELECT + " FROM Favorite f JOIN f.story s WHERE f.username = :username")
+    List<StoryResponse> findFavoriteSummaries(@Param("username") String username);
+
+    @Query("SELECT " + SUMMARY_SELECT + " FROM Story s WHERE s.id IN :ids")
+    List<StoryResponse> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.version, s.authorUsername, s.likeCount, s.viewCount, s.totalWatchTime, s.commentCount "
+        + "FROM Story s WHERE s.id = :id")
+    List<Object[]> findLiveStateById(@Param("id") Long id);
+
+    @Query("SELECT s.version FROM Story s WHERE s.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Bumps the version for edits to a story's scenes or characters, which
+     * do not dirty the Story row itself. Not for use in a transaction that
+     * also modifies the loaded Story, whose stale version would then fail
+     * the optimistic check on flush.
+     */
+    @Modifying
+    @Query("UPDATE Story s SET s.version = s.version + 1, s.updatedAt = :now WHERE s.id = :id")
+    int touch(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Query("SELECT s.id, s.content FROM Story s WHERE s.id IN :ids")
+    List<Object[]> findContentByIds(@Param("ids") Collection<Long> ids);
+
+    // Only stories saved before scenes became the source of truth still have one; see TimelineMaterializer
+    @Query("SELECT s.id, s.timelineJson FROM Story s WHERE s.id IN :ids")
+    List<Object[]> findTimelineJsonByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.id, s.version FROM Story s WHERE s.id IN :ids")
+    List<Object[]> findVersionsByIds(@Param("ids") Collection<Long> ids);
     
-    @Query("SELECT s.storyNumber FROM Story s WHERE s.storyNumber IS NOT NULL ORDER BY LENGTH(s.storyNumber) DESC, s.storyNumber DESC")
-    List<String> findAllStoryNumbersOrderedDesc();
+    @Query("SELECT s FROM Story s WHERE s.id > :afterId AND (s.storyNumber IS NULL OR s.storyNumber = '') ORDER BY s.id")
+    List<Story> findWithoutStoryNumberAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Story s SET s.commentCount = s.commentCount + 1 WHERE s.id = :id")
+    int incrementCommentCount(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Story s SET s.commentCount = s.commentCount - 1 WHERE s.id = :id AND s.commentCount > 0")
+    int decrementCommentCount(@Param("id") Long id);
+
+    @Query("SELECT s.id, s.commentCount FROM Story s WHERE s.id > :afterId ORDER BY s.id")
+    List<Object[]> findCommentCountsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Recounts in a single statement so comments committed between the drift
+     * check and the fix are still included.
+     */
+    @Modifying
+    @Query("UPDATE Story s SET s.commentCount = (SELECT COUNT(c) FROM Comment c WHERE c.story.id = s.id) WHERE s.id = :id")
+    int recountComments(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.storyapp.story.repository;
+
+import com.storyapp.story.model.StoryStatsDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StoryStatsDailyRepository extends JpaRepository<StoryStatsDaily, Long> {
+
+    @Query("SELECT d FROM StoryStatsDaily d WHERE d.storyId = :storyId "
+        + "AND d.day >= :from AND d.day <= :to ORDER BY d.day")
+    List<StoryStatsDaily> findRange(@Param("storyId") Long storyId,
+                                    @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,19 @@
+package com.storyapp.story.repository;
+
+import com.storyapp.story.model.StoryStatsHourly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StoryStatsHourlyRepository extends JpaRepository<StoryStatsHourly, Long> {
+
+    @Query("SELECT h FROM StoryStatsHourly h WHERE h.storyId = :storyId "
+        + "AND h.bucketStart >= :from AND h.bucketStart < :to ORDER BY h.bucketStart")
+    List<StoryStatsHourly> findRange(@Param("storyId") Long storyId,
+                                     @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,19 @@
+package com.storyapp.story.repository;
+
+import com.storyapp.story.model.StoryViewerSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StoryViewerSketchRepository extends JpaRepository<StoryViewerSketch, Long> {
+    Optional<StoryViewerSketch> findByStoryIdAndDay(Long storyId, LocalDate day);
+
+    @Query("SELECT s FROM StoryViewerSketch s WHERE s.storyId = :storyId AND s.day BETWEEN :from AND :to")
+    List<StoryViewerSketch> findDays(@Param("storyId") Long storyId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
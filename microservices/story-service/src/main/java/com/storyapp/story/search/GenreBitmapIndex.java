@@ -0,0 +1,161 @@
+package com.storyapp.story.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published stories per genre as {@link RoaringBitmap}s of story ids.
+ *
+ * Besides the bitmaps, every story keeps a bit mask of its genres (one bit
+ * for each of the first 64 genres seen), so facet counts over a small
+ * matching set are one pass over that set rather than one intersection per
+ * genre. Genres beyond the first 64 are counted by intersection.
+ *
+ * Not thread-safe; GenreFacetIndex serializes writers against readers.
+ */
+final class GenreBitmapIndex {
+
+    private static final int MAX_MASKED_GENRES = 64;
+
+    private final RoaringBitmap published = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byGenre = new HashMap<>();
+    private final Map<Long, Integer> maskBits = new HashMap<>();
+    private final List<Long> maskedGenres = new ArrayList<>();
+    private long[] genreMasks = new long[1024];
+    private long memberships;
+
+    /**
+     * Replaces everything known about the story.
+     */
+    void put(int storyId, boolean isPublished, Collection<Long> genreIds) {
+        remove(storyId);
+        if (!isPublished) {
+            return;
+        }
+        published.add(storyId);
+        long mask = 0;
+        for (Long genreId : genreIds) {
+            RoaringBitmap stories = byGenre.computeIfAbsent(genreId, id -> new RoaringBitmap());
+            if (!stories.contains(storyId)) {
+                stories.add(storyId);
+                memberships++;
+            }
+            Integer bit = maskBit(genreId);
+            if (bit != null) {
+                mask |= 1L << bit;
+            }
+        }
+        if (storyId >= genreMasks.length) {
+            genreMasks = Arrays.copyOf(genreMasks, Math.max(genreMasks.length * 2, storyId + 1));
+        }
+        genreMasks[storyId] = mask;
+    }
+
+    void remove(int storyId) {
+        if (!published.contains(storyId)) {
+            return;
+        }
+        published.remove(storyId);
+        for (RoaringBitmap stories : byGenre.values()) {
+            if (stories.contains(storyId)) {
+                stories.remove(storyId);
+                memberships--;
+            }
+        }
+        genreMasks[storyId] = 0;
+    }
+
+    int publishedCount() {
+        return published.cardinality();
+    }
+
+    /**
+     * Published stories in every genre of {@code all}, at least one genre of
+     * {@code any} (when given) and none of {@code none}. The result may be an
+     * internal bitmap and must not be modified.
+     */
+    RoaringBitmap match(Collection<Long> all, Collection<Long> any, Collection<Long> none) {
+        RoaringBitmap result = null;
+        if (!all.isEmpty()) {
+            List<RoaringBitmap> required = new ArrayList<>(all.size());
+            for (Long genreId : all) {
+                required.add(genre(genreId));
+            }
+            // smallest first, so every later intersection works on the fewest candidates
+            required.sort(Comparator.comparingInt(RoaringBitmap::cardinality));
+            for (RoaringBitmap stories : required) {
+                result = result == null ? stories : RoaringBitmap.and(result, stories);
+            }
+        }
+        if (!any.isEmpty()) {
+            RoaringBitmap union = new RoaringBitmap();
+            for (Long genreId : any) {
+                union = RoaringBitmap.or(union, genre(genreId));
+            }
+            result = result == null ? union : RoaringBitmap.and(result, union);
+        }
+        if (result == null) {
+            result = published;
+        }
+        for (Long genreId : none) {
+            RoaringBitmap excluded = byGenre.get(genreId);
+            if (excluded != null) {
+                result = RoaringBitmap.andNot(result, excluded);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of stories in {@code matching} per genre, for every genre with
+     * published stories (zero counts included).
+     */
+    Map<Long, Integer> facetCounts(RoaringBitmap matching) {
+        Map<Long, Integer> counts = new HashMap<>();
+        if (matching == published) {
+            // genre bitmaps only hold published stories
+            byGenre.forEach((genreId, stories) -> counts.put(genreId, stories.cardinality()));
+            return counts;
+        }
+        if (matching.cardinality() * 4L <= memberships) {
+            int[] perBit = new int[MAX_MASKED_GENRES];
+            long[] masks = genreMasks;
+            matching.forEach(storyId -> {
+                long mask = masks[storyId];
+                while (mask != 0) {
+                    perBit[Long.numberOfTrailingZeros(mask)]++;
+                    mask &= mask - 1;
+                }
+            });
+            for (int bit = 0; bit < maskedGenres.size(); bit++) {
+                counts.put(maskedGenres.get(bit), perBit[bit]);
+            }
+        }
+        for (Map.Entry<Long, RoaringBitmap> entry : byGenre.entrySet()) {
+            if (!counts.containsKey(entry.getKey())) {
+                counts.put(entry.getKey(), RoaringBitmap.andCardinality(matching, entry.getValue()));
+            }
+        }
+        return counts;
+    }
+
+    private RoaringBitmap genre(Long genreId) {
+        RoaringBitmap stories = byGenre.get(genreId);
+        return stories != null ? stories : new RoaringBitmap();
+    }
+
+    private Integer maskBit(Long genreId) {
+        Integer bit = maskBits.get(genreId);
+        if (bit == null && maskedGenres.size() < MAX_MASKED_GENRES) {
+            bit = maskedGenres.size();
+            maskBits.put(genreId, bit);
+            maskedGenres.add(genreId);
+        }
+        return bit;
+    }
+}
@@ -0,0 +1,253 @@
+package com.storyapp.story.search;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Genre filtering and facet counts for the browse page, answered from
+ * in-memory bitmaps instead of joins over {@code story_genres}.
+ *
+ * Built from MySQL on startup. Afterwards every story change that
+ * StorySearchIndex picks up from the change log (on any instance) is
+ * re-read here, so genre edits and publish toggles show up within a poll
+ * interval. While StorySearchIndex has failed to load no changes arrive, so
+ * the index reports itself not ready (browsing answers 503) and is rebuilt
+ * once the search index has recovered. A failed build is retried every
+ * minute.
+ */
+@Component
+public class GenreFacetIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(GenreFacetIndex.class);
+    private static final int BUILD_RANGE = 10_000;
+    private static final int REFRESH_BATCH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final StorySearchIndex searchIndex;
+    private final ScheduledExecutorService executor;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    // replaced or written only on the executor thread, under the write lock
+    private GenreBitmapIndex index = new GenreBitmapIndex();
+    private volatile boolean ready;
+    // set once the search index has been seen failing; changes may have been missed since
+    private volatile boolean missedChanges;
+
+    public GenreFacetIndex(JdbcTemplate jdbcTemplate, StorySearchIndex searchIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.searchIndex = searchIndex;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "genre-facets");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(this::buildQuietly);
+        executor.scheduleWithFixedDelay(this::recheck, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @EventListener
+    public void onStoriesReindexed(StoriesReindexedEvent event) {
+        pending.addAll(event.getStoryIds());
+        try {
+            executor.execute(this::refreshPendingQuietly);
+        } catch (RejectedExecutionException e) {
+            // shutting down
+        }
+    }
+
+    public boolean isReady() {
+        return ready && !missedChanges && !searchIndex.isLoadFailed();
+    }
+
+    /**
+     * Published stories matching the genre filter, newest (highest id) first.
+     *
+     * @param all    genres a story must all have
+     * @param any    genres of which a story must have at least one; ignored when empty
+     * @param none   genres a story must not have
+     * @param before only stories with a lower id, for paging; null for the first page
+     */
+    public Result browse(Collection<Long> all, Collection<Long> any, Collection<Long> none, Long before, int limit) {
+        if (!isReady()) {
+            throw new IllegalStateException("Genre index is still loading");
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matching = index.match(all, any, none);
+            int[] page = matching.descending(before != null ? before : Long.MAX_VALUE, limit);
+            List<Long> storyIds = new ArrayList<>(page.length);
+            for (int storyId : page) {
+                storyIds.add((long) storyId);
+            }
+            return new Result(storyIds, matching.cardinality(), index.facetCounts(matching));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void buildQuietly() {
+        try {
+            build();
+            ready = true;
+            refreshPendingQuietly();
+        } catch (Exception e) {
+            log.error("Genre index failed to build, retrying in a minute; browsing by genre is unavailable "
+                + "until then", e);
+        }
+    }
+
+    /**
+     * Runs every minute: retries a failed startup build, and rebuilds once the
+     * search index recovers from a failed load.
+     */
+    private void recheck() {
+        if (!ready) {
+            buildQuietly();
+            return;
+        }
+        if (searchIndex.isLoadFailed()) {
+            if (!missedChanges) {
+                missedChanges = true;
+                log.error("Search index failed to load, so story changes no longer reach the genre index; "
+                    + "browsing by genre is unavailable until it recovers");
+            }
+        } else if (missedChanges && searchIndex.isReady()) {
+            try {
+                build();
+                missedChanges = false;
+                log.info("Search index recovered; genre index rebuilt");
+                refreshPendingQuietly();
+            } catch (Exception e) {
+                log.warn("Genre index rebuild failed, will retry: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Loads published stories and their genres in id ranges, so a story's
+     * rows are never split across two queries.
+     */
+    private void build() {
+        GenreBitmapIndex built = new GenreBitmapIndex();
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM stories", Long.class);
+        for (long from = 0; from < maxId; from += BUILD_RANGE) {
+            Map<Long, List<Long>> genres = new HashMap<>();
+            jdbcTemplate.query(
+                "SELECT s.id, sg.genre_id FROM stories s LEFT JOIN story_genres sg ON sg.story_id = s.id "
+                    + "WHERE s.is_published = TRUE AND s.id > ? AND s.id <= ? ORDER BY s.id",
+                rs -> {
+                    List<Long> storyGenres = genres.computeIfAbsent(rs.getLong("id"), id -> new ArrayList<>());
+                    long genreId = rs.getLong("genre_id");
+                    if (!rs.wasNull()) {
+                        storyGenres.add(genreId);
+                    }
+                },
+                from, from + BUILD_RANGE);
+            genres.forEach((storyId, genreIds) -> built.put(Math.toIntExact(storyId), true, genreIds));
+        }
+        lock.writeLock().lock();
+        try {
+            index = built;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built genre index: {} published stories", built.publishedCount());
+    }
+
+    private void refreshPendingQuietly() {
+        if (!ready || pending.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> storyIds = new ArrayList<>(pending);
+            pending.removeAll(storyIds);
+            for (int from = 0; from < storyIds.size(); from += REFRESH_BATCH) {
+                refresh(storyIds.subList(from, Math.min(from + REFRESH_BATCH, storyIds.size())));
+            }
+        } catch (Exception e) {
+            log.warn("Genre index refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private void refresh(List<Long> storyIds) {
+        Set<Long> publishedIds = new HashSet<>();
+        Map<Long, List<Long>> genres = new HashMap<>();
+        namedJdbcTemplate.query(
+            "SELECT s.id, s.is_published, sg.genre_id FROM stories s "
+                + "LEFT JOIN story_genres sg ON sg.story_id = s.id WHERE s.id IN (:ids)",
+            new MapSqlParameterSource("ids", storyIds),
+            rs -> {
+                long storyId = rs.getLong("id");
+                if (rs.getBoolean("is_published")) {
+                    publishedIds.add(storyId);
+                }
+                List<Long> storyGenres = genres.computeIfAbsent(storyId, id -> new ArrayList<>());
+                long genreId = rs.getLong("genre_id");
+                if (!rs.wasNull()) {
+                    storyGenres.add(genreId);
+                }
+            });
+        lock.writeLock().lock();
+        try {
+            for (Long storyId : storyIds) {
+                // missing from the result means deleted
+                List<Long> storyGenres = genres.get(storyId);
+                index.put(Math.toIntExact(storyId), publishedIds.contains(storyId),
+                    storyGenres != null ? storyGenres : List.of());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public static final class Result {
+        private final List<Long> storyIds;
+        private final int total;
+        private final Map<Long, Integer> facetCounts;
+
+        Result(List<Long> storyIds, int total, Map<Long, Integer> facetCounts) {
+            this.storyIds = storyIds;
+            this.total = total;
+            this.facetCounts = facetCounts;
+        }
+
+        public List<Long> getStoryIds() { return storyIds; }
+        public int getTotal() { return total; }
+        public Map<Long, Integer> getFacetCounts() { return facetCounts; }
+    }
+}
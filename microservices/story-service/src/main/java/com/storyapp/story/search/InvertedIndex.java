@@ -0,0 +1,291 @@
+package com.storyapp.story.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Term to postings map over published stories, ranked with BM25.
+ *
+ * Postings refer to document numbers rather than story ids. Every put gives
+ * the story a new document number, higher than any before, so its postings
+ * are appended; the previous version's document is only marked deleted
+ * (nulled in {@code docs}) and its postings are skipped when scoring.
+ * Replacing or removing a story therefore costs one step per term of the old
+ * version, not a rewrite of those terms' lists. {@link #compact()} drops the
+ * deleted postings; StorySearchIndex runs it before saving a segment.
+ *
+ * Term frequencies and lengths are field-weighted (see SearchDocument) and
+ * divided by the content weight when scoring, so a plain content match
+ * counts as one occurrence.
+ *
+ * Not thread-safe; StorySearchIndex serializes writers against readers.
+ */
+final class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Comparator<Hit> BY_SCORE = Comparator
+        .comparingDouble((Hit h) -> h.score)
+        .thenComparing(h -> -h.storyId);
+
+    private final Map<String, PostingsList> postings = new HashMap<>();
+    private final Map<Long, IndexedStory> stories = new HashMap<>();
+    // by document number; null for deleted documents
+    private final List<IndexedStory> docs = new ArrayList<>();
+    private int deletedDocs;
+    private long totalLength;
+
+    int size() {
+        return stories.size();
+    }
+
+    int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * Documents that were replaced or removed since the last compaction.
+     */
+    int deletedCount() {
+        return deletedDocs;
+    }
+
+    void put(SearchDocument document) {
+        long storyId = document.getStoryId();
+        remove(storyId);
+        int doc = docs.size();
+        Map<String, Integer> frequencies = document.getFrequencies();
+        String[] terms = frequencies.keySet().toArray(new String[0]);
+        for (String term : terms) {
+            postings.computeIfAbsent(term, t -> new PostingsList()).append(doc, frequencies.get(term));
+        }
+        IndexedStory story = new IndexedStory(storyId, doc, document.getTitle(), document.getAuthorUsername(),
+            document.getStoryNumber(), document.getLength(), terms);
+        docs.add(story);
+        stories.put(storyId, story);
+        totalLength += document.getLength();
+    }
+
+    boolean remove(long storyId) {
+        IndexedStory story = stories.remove(storyId);
+        if (story == null) {
+            return false;
+        }
+        docs.set(story.doc, null);
+        deletedDocs++;
+        for (String term : story.terms) {
+            PostingsList list = postings.get(term);
+            if (list != null) {
+                list.markDeleted();
+                if (list.liveSize() == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= story.length;
+        return true;
+    }
+
+    /**
+     * A copy without deleted documents, renumbered densely in the same order
+     * so every postings list is rebuilt by appending.
+     */
+    InvertedIndex compact() {
+        InvertedIndex compacted = new InvertedIndex();
+        int[] renumbered = new int[docs.size()];
+        for (int doc = 0; doc < docs.size(); doc++) {
+            IndexedStory story = docs.get(doc);
+            if (story == null) {
+                renumbered[doc] = -1;
+                continue;
+            }
+            renumbered[doc] = compacted.docs.size();
+            IndexedStory moved = story.renumbered(renumbered[doc]);
+            compacted.docs.add(moved);
+            compacted.stories.put(moved.storyId, moved);
+        }
+        postings.forEach((term, list) -> {
+            PostingsList live = new PostingsList();
+            list.forEach((doc, frequency) -> {
+                int to = renumbered[(int) doc];
+                if (to >= 0) {
+                    live.append(to, frequency);
+                }
+            });
+            compacted.postings.put(term, live);
+        });
+        compacted.totalLength = totalLength;
+        return compacted;
+    }
+
+    /**
+     * The {@code limit} best matches for any of the query terms, best first.
+     */
+    List<Hit> search(List<String> queryTerms, int limit) {
+        if (stories.isEmpty() || queryTerms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int n = stories.size();
+        double avgLength = Math.max(1.0, (double) totalLength / n);
+        Map<Integer, double[]> scores = new HashMap<>();
+        Set<String> distinctTerms = new LinkedHashSet<>(queryTerms);
+        for (String term : distinctTerms) {
+            PostingsList list = postings.get(term);
+            if (list == null) {
+                continue;
+            }
+            int df = list.liveSize();
+            double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            list.forEach((doc, frequency) -> {
+                IndexedStory story = docs.get((int) doc);
+                if (story == null) {
+                    return;
+                }
+                double tf = (double) frequency / SearchDocument.CONTENT_WEIGHT;
+                double norm = K1 * (1 - B + B * story.length / avgLength);
+                scores.computeIfAbsent(story.doc, d -> new double[1])[0] += idf * tf * (K1 + 1) / (tf + norm);
+            });
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, BY_SCORE);
+        scores.forEach((doc, score) -> {
+            if (top.size() < limit || score[0] > top.peek().score) {
+                IndexedStory story = docs.get(doc);
+                top.add(new Hit(story.storyId, story.title, story.authorUsername, story.storyNumber, score[0]));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        });
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(BY_SCORE.reversed());
+        return hits;
+    }
+
+    /**
+     * Writes the index without deleted documents, which are compacted away
+     * first if there are any.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        if (deletedDocs > 0) {
+            compact().writeTo(out);
+            return;
+        }
+        out.writeInt(docs.size());
+        for (IndexedStory story : docs) {
+            out.writeLong(story.storyId);
+            out.writeInt(story.length);
+            writeNullable(out, story.title);
+            writeNullable(out, story.authorUsername);
+            writeNullable(out, story.storyNumber);
+        }
+        out.writeInt(postings.size());
+        for (Map.Entry<String, PostingsList> entry : postings.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    static InvertedIndex readFrom(DataInput in) throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        int docCount = in.readInt();
+        long[] storyIds = new long[docCount];
+        int[] lengths = new int[docCount];
+        String[][] fields = new String[docCount][];
+        List<List<String>> termsByDoc = new ArrayList<>(docCount);
+        for (int doc = 0; doc < docCount; doc++) {
+            storyIds[doc] = in.readLong();
+            lengths[doc] = in.readInt();
+            fields[doc] = new String[] {readNullable(in), readNullable(in), readNullable(in)};
+            termsByDoc.add(new ArrayList<>());
+        }
+        int termCount = in.readInt();
+        for (int i = 0; i < termCount; i++) {
+            String term = in.readUTF();
+            PostingsList list = PostingsList.readFrom(in);
+            index.postings.put(term, list);
+            list.forEach((doc, frequency) -> {
+                if (doc >= docCount) {
+                    throw new IllegalStateException("Posting for unknown document " + doc);
+                }
+                termsByDoc.get((int) doc).add(term);
+            });
+        }
+        for (int doc = 0; doc < docCount; doc++) {
+            IndexedStory story = new IndexedStory(storyIds[doc], doc, fields[doc][0], fields[doc][1], fields[doc][2],
+                lengths[doc], termsByDoc.get(doc).toArray(new String[0]));
+            index.docs.add(story);
+            index.stories.put(story.storyId, story);
+            index.totalLength += lengths[doc];
+        }
+        return index;
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static final class Hit {
+        private final long storyId;
+        private final String title;
+        private final String authorUsername;
+        private final String storyNumber;
+        private final double score;
+
+        Hit(long storyId, String title, String authorUsername, String storyNumber, double score) {
+            this.storyId = storyId;
+            this.title = title;
+            this.authorUsername = authorUsername;
+            this.storyNumber = storyNumber;
+            this.score = score;
+        }
+
+        long getStoryId() { return storyId; }
+        String getTitle() { return title; }
+        String getAuthorUsername() { return authorUsername; }
+        String getStoryNumber() { return storyNumber; }
+        double getScore() { return score; }
+    }
+
+    private static final class IndexedStory {
+        private final long storyId;
+        private final int doc;
+        private final String title;
+        private final String authorUsername;
+        private final String storyNumber;
+        private final int length;
+        private final String[] terms;
+
+        IndexedStory(long storyId, int doc, String title, String authorUsername, String storyNumber, int length,
+                     String[] terms) {
+            this.storyId = storyId;
+            this.doc = doc;
+            this.title = title;
+            this.authorUsername = authorUsername;
+            this.storyNumber = storyNumber;
+            this.length = length;
+            this.terms = terms;
+        }
+
+        IndexedStory renumbered(int newDoc) {
+            return new IndexedStory(storyId, newDoc, title, authorUsername, storyNumber, length, terms);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.storyapp.story.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The documents containing one term, in ascending document number order,
+ * with the term's weighted frequency in each. Stored as varints: the gap to
+ * the previous document number followed by the frequency, which keeps a
+ * typical posting to two or three bytes.
+ *
+ * Append-only: InvertedIndex gives every new version of a story a new,
+ * higher document number, and only counts postings of replaced or removed
+ * versions as deleted. They are dropped when the index is compacted. Not
+ * thread-safe; InvertedIndex guards access.
+ */
+final class PostingsList {
+
+    interface PostingConsumer {
+        void accept(long docId, int frequency);
+    }
+
+    private byte[] data;
+    private int length;
+    private int size;
+    private int deleted;
+    private long lastDocId;
+
+    PostingsList() {
+        this.data = new byte[8];
+    }
+
+    private PostingsList(byte[] data, int size, long lastDocId) {
+        this.data = data;
+        this.length = data.length;
+        this.size = size;
+        this.lastDocId = lastDocId;
+    }
+
+    /**
+     * Postings of live documents, the document frequency used for scoring.
+     */
+    int liveSize() {
+        return size - deleted;
+    }
+
+    void append(long docId, int frequency) {
+        if (size > 0 && docId <= lastDocId) {
+            throw new IllegalArgumentException("Document " + docId + " is not after " + lastDocId);
+        }
+        writeVarLong(docId - lastDocId);
+        writeVarLong(frequency);
+        lastDocId = docId;
+        size++;
+    }
+
+    /**
+     * Records that one of the documents in this list was replaced or removed.
+     */
+    void markDeleted() {
+        deleted++;
+    }
+
+    void forEach(PostingConsumer consumer) {
+        int pos = 0;
+        long docId = 0;
+        while (pos < length) {
+            long gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                gap |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            int frequency = 0;
+            shift = 0;
+            do {
+                b = data[pos++];
+                frequency |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            docId += gap;
+            consumer.accept(docId, frequency);
+        }
+    }
+
+    private void writeVarLong(long value) {
+        if (length + 10 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 10));
+        }
+        while ((value & ~0x7FL) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeLong(lastDocId);
+        out.writeInt(length);
+        out.write(data, 0, length);
+    }
+
+    static PostingsList readFrom(DataInput in) throws IOException {
+        int size = in.readInt();
+        long lastDocId = in.readLong();
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        return new PostingsList(data, size, lastDocId);
+    }
+}
@@ -0,0 +1,48 @@
+package com.storyapp.story.search;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One story as it is fed to the index: the fields shown in search results and
+ * the weighted frequency of every term in its text. A term in the title counts
+ * three times as much as one in the content; scene titles and character names
+ * count double.
+ */
+final class SearchDocument {
+
+    static final int CONTENT_WEIGHT = 2;
+    static final int TITLE_WEIGHT = 6;
+    static final int DESCRIPTION_WEIGHT = 3;
+    static final int SCENE_TITLE_WEIGHT = 4;
+    static final int SCENE_DESCRIPTION_WEIGHT = 2;
+    static final int CHARACTER_NAME_WEIGHT = 4;
+
+    private final long storyId;
+    private final String title;
+    private final String authorUsername;
+    private final String storyNumber;
+    private final Map<String, Integer> frequencies = new HashMap<>();
+    private int length;
+
+    SearchDocument(long storyId, String title, String authorUsername, String storyNumber) {
+        this.storyId = storyId;
+        this.title = title;
+        this.authorUsername = authorUsername;
+        this.storyNumber = storyNumber;
+    }
+
+    void addText(String text, int weight) {
+        for (String term : Tokenizer.tokenize(text)) {
+            frequencies.merge(term, weight, Integer::sum);
+            length += weight;
+        }
+    }
+
+    long getStoryId() { return storyId; }
+    String getTitle() { return title; }
+    String getAuthorUsername() { return authorUsername; }
+    String getStoryNumber() { return storyNumber; }
+    Map<String, Integer> getFrequencies() { return frequencies; }
+    int getLength() { return length; }
+}
@@ -0,0 +1,20 @@
+package com.storyapp.story.search;
+
+import java.util.Collection;
+
+/**
+ * Published on every instance once StorySearchIndex has applied a batch of
+ * logged story changes, including changes made through other instances.
+ * Other per-instance indexes listen for it instead of polling the change log
+ * themselves.
+ */
+public class StoriesReindexedEvent {
+
+    private final Collection<Long> storyIds;
+
+    public StoriesReindexedEvent(Collection<Long> storyIds) {
+        this.storyIds = storyIds;
+    }
+
+    public Collection<Long> getStoryIds() { return storyIds; }
+}
@@ -0,0 +1,500 @@
+package com.storyapp.story.search;
+
+import com.storyapp.story.dto.SearchResultResponse;
+import com.storyapp.story.service.StoryChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full-text search over published stories: title, description, content, scene
+ * titles and descriptions, and character names.
+ *
+ * Each instance holds its own {@link InvertedIndex}. Story changes are written
+ * to {@code search_index_changes} in the same transaction as the change, and
+ * every instance polls that table and re-reads the changed stories, so all
+ * instances converge within a poll interval (the instance that made the
+ * change polls right after commit).
+ *
+ * The index is saved to a segment file under {@code search.index-dir} every
+ * minute it has changed and on shutdown. Replaced and removed stories leave
+ * deleted postings behind; they are compacted away just before each save. On
+ * startup the segment is loaded and only the changes logged since it was
+ * written are replayed, together with the log ids that were still uncommitted
+ * when it was written; MySQL is only scanned in full when there is no usable
+ * segment, or when it is older than the change log retention. A load that
+ * fails is retried every minute.
+ */
+@Component
+public class StorySearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(StorySearchIndex.class);
+    private static final int SEGMENT_MAGIC = 0x53545358;
+    private static final int SEGMENT_VERSION = 3;
+    private static final String SEGMENT_FILE = "stories.seg";
+    private static final int POLL_BATCH = 500;
+    private static final int LOAD_BATCH = 200;
+    private static final int MAX_TRACKED_GAPS = 1000;
+    private static final long GAP_TIMEOUT_MILLIS = 60_000;
+    private static final long LOAD_RETRY_MILLIS = 60_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path segmentPath;
+    private final long pollIntervalMillis;
+    private final long persistIntervalSeconds;
+    private final int changeRetentionDays;
+    private final ScheduledExecutorService executor;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // written only on the executor thread, under the write lock
+    private InvertedIndex index = new InvertedIndex();
+    private volatile boolean ready;
+    private volatile boolean loadFailed;
+    private long nextLoadAttempt;
+    private long lastChangeId;
+    private boolean dirty;
+    private long persistedAt;
+    // change ids skipped over by the poller; their transactions may still commit
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    public StorySearchIndex(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                            @Value("${search.index-dir:search-index}") String indexDir,
+                            @Value("${search.poll-interval-millis:2000}") long pollIntervalMillis,
+                            @Value("${search.persist-interval-seconds:60}") long persistIntervalSeconds,
+                            @Value("${search.change-retention-days:7}") int changeRetentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.eventPublisher = eventPublisher;
+        this.segmentPath = Paths.get(indexDir).resolve(SEGMENT_FILE);
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.persistIntervalSeconds = persistIntervalSeconds;
+        this.changeRetentionDays = changeRetentionDays;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "search-index");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(this::loadQuietly);
+        executor.scheduleWithFixedDelay(this::pollQuietly, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::persistQuietly,
+            persistIntervalSeconds, persistIntervalSeconds, TimeUnit.SECONDS);
+        executor.scheduleWithFixedDelay(this::purgeQuietly, 1, 60, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Logs the change inside the caller's transaction, so it is recorded if
+     * and only if the change commits.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void recordChange(StoryChangedEvent event) {
+        jdbcTemplate.update("INSERT INTO search_index_changes (story_id, changed_at) VALUES (?, ?)",
+            event.getStoryId(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoryChanged(StoryChangedEvent event) {
+        if (ready) {
+            try {
+                executor.execute(this::pollQuietly);
+            } catch (RejectedExecutionException e) {
+                // shutting down; the change is picked up from the log on next start
+            }
+        }
+    }
+
+    /**
+     * Published stories matching any term of {@code query}, best match first.
+     * Empty until the index has been loaded after startup.
+     */
+    public List<SearchResultResponse> search(String query, int limit) {
+        List<String> terms = Tokenizer.tokenize(query);
+        List<SearchResultResponse> results = new ArrayList<>();
+        if (terms.isEmpty()) {
+            return results;
+        }
+        List<InvertedIndex.Hit> hits;
+        lock.readLock().lock();
+        try {
+            hits = index.search(terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (InvertedIndex.Hit hit : hits) {
+            results.add(new SearchResultResponse(hit.getStoryId(), hit.getStoryNumber(), hit.getTitle(),
+                hit.getAuthorUsername(), hit.getScore()));
+        }
+        return results;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * True while the last attempt to load the index failed. No changes are
+     * polled then, so GenreFacetIndex and SuggestIndex, which follow the
+     * change log through this index, stop seeing story changes too.
+     */
+    public boolean isLoadFailed() {
+        return loadFailed;
+    }
+
+    private void loadQuietly() {
+        try {
+            if (!loadSegment()) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            loadFailed = true;
+            nextLoadAttempt = System.currentTimeMillis() + LOAD_RETRY_MILLIS;
+            log.error("Search index failed to load, retrying in a minute; until then searches return no results "
+                + "and genre facets and suggestions stop following story changes", e);
+            return;
+        }
+        ready = true;
+        loadFailed = false;
+        try {
+            while (poll() == POLL_BATCH) {
+                // catching up on changes made while this instance was down
+            }
+        } catch (Exception e) {
+            log.warn("Search index poll failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private boolean loadSegment() {
+        if (!Files.exists(segmentPath)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segmentPath)))) {
+            if (in.readInt() != SEGMENT_MAGIC || in.readInt() != SEGMENT_VERSION) {
+                log.info("Ignoring search segment {} written in another format", segmentPath);
+                return false;
+            }
+            long segmentChangeId = in.readLong();
+            long writtenAt = in.readLong();
+            int gapCount = in.readInt();
+            List<Long> openGaps = new ArrayList<>(gapCount);
+            for (int i = 0; i < gapCount; i++) {
+                openGaps.add(in.readLong());
+            }
+            if (writtenAt < System.currentTimeMillis() - TimeUnit.DAYS.toMillis(changeRetentionDays)) {
+                log.info("Search segment is older than the change log; rebuilding");
+                return false;
+            }
+            InvertedIndex loaded = InvertedIndex.readFrom(in);
+            swap(loaded, segmentChangeId);
+            trackGaps(openGaps);
+            dirty = false;
+            persistedAt = writtenAt;
+            log.info("Loaded search segment: {} stories, {} terms", loaded.size(), loaded.termCount());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unreadable search segment {}, rebuilding: {}", segmentPath, e.getMessage());
+            return false;
+        }
+    }
+
+    private void rebuild() {
+        long startChangeId = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(MAX(id), 0) FROM search_index_changes", Long.class);
+        List<Long> openGaps = uncommittedBelow(startChangeId);
+        InvertedIndex rebuilt = new InvertedIndex();
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM stories WHERE is_published = TRUE AND id > ? ORDER BY id LIMIT ?",
+                Long.class, afterId, LOAD_BATCH);
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (SearchDocument document : loadDocuments(ids).values()) {
+                rebuilt.put(document);
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        swap(rebuilt, startChangeId);
+        trackGaps(openGaps);
+        dirty = true;
+        log.info("Rebuilt search index from the database: {} stories, {} terms", rebuilt.size(), rebuilt.termCount());
+        persistQuietly();
+    }
+
+    private void swap(InvertedIndex replacement, long changeId) {
+        lock.writeLock().lock();
+        try {
+            index = replacement;
+            lastChangeId = changeId;
+            gaps.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Log ids at or below {@code changeId} (within the last
+     * {@value #MAX_TRACKED_GAPS}) that are not visible yet. Their transactions
+     * may commit after the rebuild has read the stories.
+     */
+    private List<Long> uncommittedBelow(long changeId) {
+        long from = Math.max(0, changeId - MAX_TRACKED_GAPS);
+        Set<Long> visible = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT id FROM search_index_changes WHERE id > ? AND id <= ?", Long.class, from, changeId));
+        List<Long> missing = new ArrayList<>();
+        for (long id = from + 1; id <= changeId; id++) {
+            if (!visible.contains(id)) {
+                missing.add(id);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Re-checks {@code ids} on the next polls, like ids the poller skipped.
+     */
+    private void trackGaps(List<Long> ids) {
+        long now = System.currentTimeMillis();
+        for (Long id : ids) {
+            if (gaps.size() >= MAX_TRACKED_GAPS) {
+                break;
+            }
+            gaps.put(id, now);
+        }
+    }
+
+    private void pollQuietly() {
+        if (!ready) {
+            if (loadFailed && System.currentTimeMillis() >= nextLoadAttempt) {
+                loadQuietly();
+            }
+            return;
+        }
+        try {
+            poll();
+        } catch (Exception e) {
+            log.warn("Search index poll failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Applies the next batch of logged changes and returns how many new log
+     * rows it read.
+     *
+     * Log ids are allocated at insert but become visible at commit, so a
+     * lower id can appear after a higher one has been read. Ids skipped over
+     * are re-checked on each poll for a minute before being given up as
+     * rolled back.
+     */
+    int poll() {
+        Set<Long> storyIds = new LinkedHashSet<>();
+        if (!gaps.isEmpty()) {
+            namedJdbcTemplate.query(
+                "SELECT id, story_id FROM search_index_changes WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", new ArrayList<>(gaps.keySet())),
+                rs -> {
+                    gaps.remove(rs.getLong("id"));
+                    storyIds.add(rs.getLong("story_id"));
+                });
+            long expired = System.currentTimeMillis() - GAP_TIMEOUT_MILLIS;
+            gaps.values().removeIf(noticedAt -> noticedAt < expired);
+        }
+
+        long now = System.currentTimeMillis();
+        int[] read = {0};
+        jdbcTemplate.query(
+            "SELECT id, story_id FROM search_index_changes WHERE id > ? ORDER BY id LIMIT ?",
+            rs -> {
+                long id = rs.getLong("id");
+                for (long missing = lastChangeId + 1; missing < id && gaps.size() < MAX_TRACKED_GAPS; missing++) {
+                    gaps.put(missing, now);
+                }
+                lastChangeId = id;
+                storyIds.add(rs.getLong("story_id"));
+                read[0]++;
+            },
+            lastChangeId, POLL_BATCH);
+
+        if (!storyIds.isEmpty()) {
+            reindex(storyIds);
+            eventPublisher.publishEvent(new StoriesReindexedEvent(storyIds));
+        }
+        return read[0];
+    }
+
+    private void reindex(Collection<Long> storyIds) {
+        List<Long> ids = new ArrayList<>(storyIds);
+        for (int from = 0; from < ids.size(); from += LOAD_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(from + LOAD_BATCH, ids.size()));
+            Map<Long, SearchDocument> documents = loadDocuments(batch);
+            lock.writeLock().lock();
+            try {
+                for (Long storyId : batch) {
+                    SearchDocument document = documents.get(storyId);
+                    if (document != null) {
+                        index.put(document);
+                    } else {
+                        // deleted or unpublished
+                        index.remove(storyId);
+                    }
+                }
+                dirty = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Reads the searchable text of the given stories, skipping unpublished
+     * ones, with one query per table.
+     */
+    private Map<Long, SearchDocument> loadDocuments(List<Long> storyIds) {
+        Map<Long, SearchDocument> documents = new HashMap<>();
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", storyIds);
+        namedJdbcTemplate.query(
+            "SELECT id, title, description, content, author_username, story_number FROM stories "
+                + "WHERE id IN (:ids) AND is_published = TRUE",
+            params,
+            rs -> {
+                SearchDocument document = new SearchDocument(rs.getLong("id"), rs.getString("title"),
+                    rs.getString("author_username"), rs.getString("story_number"));
+                document.addText(rs.getString("title"), SearchDocument.TITLE_WEIGHT);
+                document.addText(rs.getString("description"), SearchDocument.DESCRIPTION_WEIGHT);
+                document.addText(rs.getString("content"), SearchDocument.CONTENT_WEIGHT);
+                documents.put(document.getStoryId(), document);
+            });
+        if (documents.isEmpty()) {
+            return documents;
+        }
+        params = new MapSqlParameterSource("ids", documents.keySet());
+        namedJdbcTemplate.query(
+            "SELECT story_id, title, description FROM scenes WHERE story_id IN (:ids)",
+            params,
+            rs -> {
+                SearchDocument document = documents.get(rs.getLong("story_id"));
+                document.addText(rs.getString("title"), SearchDocument.SCENE_TITLE_WEIGHT);
+                document.addText(rs.getString("description"), SearchDocument.SCENE_DESCRIPTION_WEIGHT);
+            });
+        namedJdbcTemplate.query(
+            "SELECT story_id, name FROM characters WHERE story_id IN (:ids)",
+            params,
+            rs -> {
+                documents.get(rs.getLong("story_id")).addText(rs.getString("name"), SearchDocument.CHARACTER_NAME_WEIGHT);
+            });
+        return documents;
+    }
+
+    private void persistQuietly() {
+        try {
+            persist();
+        } catch (Exception e) {
+            log.warn("Could not write search segment, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the index to a temporary file and moves it over the previous
+     * segment, so a crash mid-write leaves the old segment intact. An
+     * unchanged index is still rewritten hourly, since the segment's age
+     * decides whether the change log can bring it up to date. Only called on
+     * the executor thread (or after it has stopped), which is the only writer,
+     * so reading the index needs no lock; deleted postings are compacted off
+     * the lock and the result swapped in under a brief write lock.
+     */
+    private void persist() throws IOException {
+        long now = System.currentTimeMillis();
+        if (!dirty && now - persistedAt < TimeUnit.HOURS.toMillis(1)) {
+            return;
+        }
+        if (index.deletedCount() > 0) {
+            InvertedIndex compacted = index.compact();
+            lock.writeLock().lock();
+            try {
+                index = compacted;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        Files.createDirectories(segmentPath.getParent());
+        Path temp = segmentPath.resolveSibling(SEGMENT_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SEGMENT_MAGIC);
+            out.writeInt(SEGMENT_VERSION);
+            out.writeLong(lastChangeId);
+            out.writeLong(now);
+            // changes the index may not contain yet, re-checked after a restart
+            out.writeInt(gaps.size());
+            for (Long gap : gaps.keySet()) {
+                out.writeLong(gap);
+            }
+            index.writeTo(out);
+        }
+        Files.move(temp, segmentPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+        persistedAt = now;
+    }
+
+    private void purgeQuietly() {
+        try {
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(changeRetentionDays));
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(
+                    "DELETE FROM search_index_changes WHERE changed_at < ? LIMIT 10000", cutoff);
+            } while (deleted == 10000);
+        } catch (Exception e) {
+            log.warn("Search change log purge failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        if (ready) {
+            persistQuietly();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.storyapp.story.search;
+
+import com.storyapp.story.dto.SuggestionResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Search-as-you-type suggestions from published story titles, author names
+ * and character names, ranked by story popularity.
+ *
+ * Built from MySQL on startup and rebuilt every
+ * {@code search.suggest.rebuild-interval-minutes} so rankings follow likes
+ * and views. In between, stories picked up from the change log by
+ * StorySearchIndex are re-read and their suggestions replaced. While
+ * StorySearchIndex has failed to load no changes arrive; the suggestions are
+ * still served, and rebuilt once it has recovered.
+ */
+@Component
+public class SuggestIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestIndex.class);
+    private static final int BUILD_RANGE = 10_000;
+    private static final int REFRESH_BATCH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final StorySearchIndex searchIndex;
+    private final long rebuildIntervalMinutes;
+    private final ScheduledExecutorService executor;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    // replaced or written only on the executor thread, under the write lock
+    private SuggestionTrie trie = new SuggestionTrie();
+    private Map<Long, IndexedStory> stories = new HashMap<>();
+    private volatile boolean ready;
+    // set once the search index has been seen failing; changes may have been missed since
+    private boolean missedChanges;
+
+    public SuggestIndex(JdbcTemplate jdbcTemplate, StorySearchIndex searchIndex,
+                        @Value("${search.suggest.rebuild-interval-minutes:60}") long rebuildIntervalMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.searchIndex = searchIndex;
+        this.rebuildIntervalMinutes = rebuildIntervalMinutes;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "suggest-index");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::buildQuietly, 0, rebuildIntervalMinutes, TimeUnit.MINUTES);
+        executor.scheduleWithFixedDelay(this::checkSearchIndex, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @EventListener
+    public void onStoriesReindexed(StoriesReindexedEvent event) {
+        pending.addAll(event.getStoryIds());
+        try {
+            executor.execute(this::refreshPendingQuietly);
+        } catch (RejectedExecutionException e) {
+            // shutting down
+        }
+    }
+
+    /**
+     * Up to {@code limit} suggestions starting with {@code prefix}, most
+     * popular first. Empty until the first build has finished.
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        List<SuggestionResponse> results = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (SuggestionTrie.Suggestion s : trie.suggest(prefix, Math.min(limit, SuggestionTrie.TOP_K))) {
+                Long storyId = s.getType() == SuggestionTrie.Type.AUTHOR ? null : s.getStoryId();
+                results.add(new SuggestionResponse(s.getText(), s.getType().name().toLowerCase(Locale.ROOT),
+                    storyId, s.getWeight()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return results;
+    }
+
+    private void buildQuietly() {
+        try {
+            build();
+            ready = true;
+            refreshPendingQuietly();
+        } catch (Exception e) {
+            log.error("Suggestion index build failed; keeping the previous one", e);
+        }
+    }
+
+    private void checkSearchIndex() {
+        if (searchIndex.isLoadFailed()) {
+            if (!missedChanges) {
+                missedChanges = true;
+                log.error("Search index failed to load, so story changes no longer reach the suggestion index; "
+                    + "suggestions may list edited, unpublished or deleted stories until it recovers");
+            }
+        } else if (missedChanges && searchIndex.isReady()) {
+            missedChanges = false;
+            log.info("Search index recovered; rebuilding the suggestion index");
+            buildQuietly();
+        }
+    }
+
+    private void build() {
+        SuggestionTrie built = new SuggestionTrie();
+        Map<Long, IndexedStory> builtStories = new HashMap<>();
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM stories", Long.class);
+        for (long from = 0; from < maxId; from += BUILD_RANGE) {
+            Map<Long, IndexedStory> range = new HashMap<>();
+            jdbcTemplate.query(
+                "SELECT id, title, author_username, like_count, view_count, comment_count FROM stories "
+                    + "WHERE is_published = TRUE AND id > ? AND id <= ?",
+                rs -> {
+                    range.put(rs.getLong("id"), new IndexedStory(rs.getString("title"), rs.getString("author_username"),
+                        popularity(rs.getLong("like_count"), rs.getLong("view_count"), rs.getLong("comment_count"))));
+                },
+                from, from + BUILD_RANGE);
+            if (range.isEmpty()) {
+                continue;
+            }
+            jdbcTemplate.query(
+                "SELECT story_id, name FROM characters WHERE story_id > ? AND story_id <= ?",
+                rs -> {
+                    IndexedStory story = range.get(rs.getLong("story_id"));
+                    if (story != null) {
+                        story.characterNames.add(rs.getString("name"));
+                    }
+                },
+                from, from + BUILD_RANGE);
+            range.forEach((storyId, story) -> {
+                built.bulkAdd(SuggestionTrie.Type.TITLE, story.title, storyId, story.weight);
+                built.bulkAdd(SuggestionTrie.Type.AUTHOR, story.authorUsername, storyId, story.weight);
+                for (String name : story.characterNames) {
+                    built.bulkAdd(SuggestionTrie.Type.CHARACTER, name, storyId, story.weight);
+                }
+            });
+            builtStories.putAll(range);
+        }
+        built.finishBulkLoad();
+        lock.writeLock().lock();
+        try {
+            trie = built;
+            stories = builtStories;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built suggestion index: {} suggestions from {} stories", built.size(), builtStories.size());
+    }
+
+    private void refreshPendingQuietly() {
+        if (!ready || pending.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> storyIds = new ArrayList<>(pending);
+            pending.removeAll(storyIds);
+            for (int from = 0; from < storyIds.size(); from += REFRESH_BATCH) {
+                refresh(storyIds.subList(from, Math.min(from + REFRESH_BATCH, storyIds.size())));
+            }
+        } catch (Exception e) {
+            log.warn("Suggestion index refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private void refresh(List<Long> storyIds) {
+        Map<Long, IndexedStory> loaded = new HashMap<>();
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", storyIds);
+        namedJdbcTemplate.query(
+            "SELECT id, title, author_username, like_count, view_count, comment_count FROM stories "
+                + "WHERE id IN (:ids) AND is_published = TRUE",
+            params,
+            rs -> {
+                loaded.put(rs.getLong("id"), new IndexedStory(rs.getString("title"), rs.getString("author_username"),
+                    popularity(rs.getLong("like_count"), rs.getLong("view_count"), rs.getLong("comment_count"))));
+            });
+        if (!loaded.isEmpty()) {
+            namedJdbcTemplate.query(
+                "SELECT story_id, name FROM characters WHERE story_id IN (:ids)",
+                new MapSqlParameterSource("ids", loaded.keySet()),
+                rs -> {
+                    loaded.get(rs.getLong("story_id")).characterNames.add(rs.getString("name"));
+                });
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long storyId : storyIds) {
+                IndexedStory old = stories.remove(storyId);
+                if (old != null) {
+                    trie.remove(SuggestionTrie.Type.TITLE, old.title, storyId);
+                    trie.remove(SuggestionTrie.Type.AUTHOR, old.authorUsername, storyId);
+                    for (String name : old.characterNames) {
+                        trie.remove(SuggestionTrie.Type.CHARACTER, name, storyId);
+                    }
+                }
+                // absent when deleted or unpublished
+                IndexedStory story = loaded.get(storyId);
+                if (story != null) {
+                    trie.add(SuggestionTrie.Type.TITLE, story.title, storyId, story.weight);
+                    trie.add(SuggestionTrie.Type.AUTHOR, story.authorUsername, storyId, story.weight);
+                    for (String name : story.characterNames) {
+                        trie.add(SuggestionTrie.Type.CHARACTER, name, storyId, story.weight);
+                    }
+                    stories.put(storyId, story);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Same relative weights as the trending score: a like is worth five
+     * views, a comment three. The 1 keeps new stories rankable.
+     */
+    private static double popularity(long likes, long views, long comments) {
+        return 1 + views + 5.0 * likes + 3.0 * comments;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static final class IndexedStory {
+        private final String title;
+        private final String authorUsername;
+        private final double weight;
+        private final List<String> characterNames = new ArrayList<>();
+
+        IndexedStory(String title, String authorUsername, double weight) {
+            this.title = title;
+            this.authorUsername = authorUsername;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.storyapp.story.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Radix trie of suggestion texts (story titles, author names, character
+ * names) in which every node stores the {@value #TOP_K} heaviest suggestions
+ * below it. Answering a prefix is a walk down at most prefix-length
+ * characters followed by reading that node's list; nothing below it is
+ * visited.
+ *
+ * A suggestion's weight is the sum of the weights its stories contribute, so
+ * an author with several popular stories outranks one with a single story.
+ * After any change the top lists on the path from that suggestion's node to
+ * the root are recomputed from the children's lists.
+ *
+ * Not thread-safe; SuggestIndex serializes writers against readers.
+ */
+final class SuggestionTrie {
+
+    static final int TOP_K = 10;
+
+    enum Type { TITLE, AUTHOR, CHARACTER }
+
+    private static final Suggestion[] NONE = new Suggestion[0];
+
+    private final Node root = new Node("");
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+
+    int size() {
+        return suggestions.size();
+    }
+
+    /**
+     * Adds {@code weight} from the given story to the suggestion for
+     * {@code text}. A story contributes at most once per text and type.
+     */
+    void add(Type type, String text, long storyId, double weight) {
+        List<Node> path = new ArrayList<>();
+        if (addContribution(type, text, storyId, weight, path)) {
+            recompute(path);
+        }
+    }
+
+    /**
+     * Like {@link #add} but leaves the top lists stale; call
+     * {@link #finishBulkLoad()} once everything has been added. Loading a
+     * whole trie this way ranks every node once instead of once per add.
+     */
+    void bulkAdd(Type type, String text, long storyId, double weight) {
+        addContribution(type, text, storyId, weight, new ArrayList<>());
+    }
+
+    void finishBulkLoad() {
+        recomputeSubtree(root);
+    }
+
+    private boolean addContribution(Type type, String text, long storyId, double weight, List<Node> path) {
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return false;
+        }
+        String id = type.ordinal() + ":" + key;
+        Suggestion suggestion = suggestions.get(id);
+        Node node = insertPath(key, path);
+        if (suggestion == null) {
+            suggestion = new Suggestion(type, text.trim(), key);
+            suggestions.put(id, suggestion);
+            node.terminals = append(node.terminals, suggestion);
+        }
+        suggestion.contributions.put(storyId, weight);
+        suggestion.recalculate();
+        return true;
+    }
+
+    void remove(Type type, String text, long storyId) {
+        String key = normalize(text);
+        String id = type.ordinal() + ":" + key;
+        Suggestion suggestion = suggestions.get(id);
+        if (suggestion == null || suggestion.contributions.remove(storyId) == null) {
+            return;
+        }
+        List<Node> path = new ArrayList<>();
+        Node node = findPath(key, path);
+        if (suggestion.contributions.isEmpty()) {
+            suggestions.remove(id);
+            node.terminals = without(node.terminals, suggestion);
+            prune(path);
+        } else {
+            suggestion.recalculate();
+        }
+        recompute(path);
+    }
+
+    List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        Node node = root;
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.child(key.charAt(pos));
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefix(child.label, key, pos);
+            if (pos + common == key.length()) {
+                node = child;
+                break;
+            }
+            if (common < child.label.length()) {
+                return List.of();
+            }
+            node = child;
+            pos += common;
+        }
+        return Arrays.asList(node.top).subList(0, Math.min(limit, node.top.length));
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Finds or creates the node for {@code key}, splitting an edge when the
+     * key ends or diverges in the middle of it, and records every node from
+     * the root down in {@code path}.
+     */
+    private Node insertPath(String key, List<Node> path) {
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.child(key.charAt(pos));
+            if (child == null) {
+                Node leaf = new Node(key.substring(pos));
+                node.addChild(leaf);
+                path.add(leaf);
+                return leaf;
+            }
+            int common = commonPrefix(child.label, key, pos);
+            if (common < child.label.length()) {
+                Node split = new Node(child.label.substring(0, common));
+                node.replaceChild(child, split);
+                child.label = child.label.substring(common);
+                split.addChild(child);
+                split.top = child.top;
+                child = split;
+            }
+            node = child;
+            path.add(node);
+            pos += common;
+        }
+        return node;
+    }
+
+    private Node findPath(String key, List<Node> path) {
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            node = node.child(key.charAt(pos));
+            path.add(node);
+            pos += node.label.length();
+        }
+        return node;
+    }
+
+    /**
+     * Drops nodes left without suggestions or children, bottom-up.
+     */
+    private void prune(List<Node> path) {
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            if (node.terminals.length > 0 || node.children.length > 0) {
+                break;
+            }
+            path.get(i - 1).removeChild(node);
+            path.remove(i);
+        }
+    }
+
+    private void recompute(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            path.get(i).recomputeTop();
+        }
+    }
+
+    private void recomputeSubtree(Node node) {
+        for (Node child : node.children) {
+            recomputeSubtree(child);
+        }
+        node.recomputeTop();
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Suggestion[] append(Suggestion[] array, Suggestion suggestion) {
+        Suggestion[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = suggestion;
+        return result;
+    }
+
+    private static Suggestion[] without(Suggestion[] array, Suggestion suggestion) {
+        Suggestion[] result = new Suggestion[array.length - 1];
+        int n = 0;
+        for (Suggestion s : array) {
+            if (s != suggestion) {
+                result[n++] = s;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * True when {@code a} ranks before {@code b}: heavier first, then
+     * shorter, then alphabetical.
+     */
+    private static boolean ranksBefore(Suggestion a, Suggestion b) {
+        if (a.weight != b.weight) {
+            return a.weight > b.weight;
+        }
+        if (a.key.length() != b.key.length()) {
+            return a.key.length() < b.key.length();
+        }
+        return a.key.compareTo(b.key) < 0;
+    }
+
+    private static final class Node {
+        private String label;
+        private Node[] children = new Node[0];
+        private Suggestion[] terminals = NONE;
+        private Suggestion[] top = NONE;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            for (Node child : children) {
+                if (child.label.charAt(0) == first) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        void addChild(Node child) {
+            children = Arrays.copyOf(children, children.length + 1);
+            children[children.length - 1] = child;
+        }
+
+        void replaceChild(Node old, Node replacement) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == old) {
+                    children[i] = replacement;
+                }
+            }
+        }
+
+        void removeChild(Node child) {
+            Node[] result = new Node[children.length - 1];
+            int n = 0;
+            for (Node c : children) {
+                if (c != child) {
+                    result[n++] = c;
+                }
+            }
+            children = result;
+        }
+
+        void recomputeTop() {
+            Suggestion[] best = new Suggestion[TOP_K];
+            int[] count = {0};
+            for (Suggestion s : terminals) {
+                offer(best, count, s);
+            }
+            for (Node child : children) {
+                for (Suggestion s : child.top) {
+                    offer(best, count, s);
+                }
+            }
+            top = Arrays.copyOf(best, count[0]);
+        }
+
+        private static void offer(Suggestion[] best, int[] count, Suggestion s) {
+            int n = count[0];
+            if (n == TOP_K && !ranksBefore(s, best[n - 1])) {
+                return;
+            }
+            int i = n == TOP_K ? n - 1 : n;
+            while (i > 0 && ranksBefore(s, best[i - 1])) {
+                best[i] = best[i - 1];
+                i--;
+            }
+            best[i] = s;
+            if (n < TOP_K) {
+                count[0] = n + 1;
+            }
+        }
+    }
+
+    static final class Suggestion {
+        private final Type type;
+        private final String text;
+        private final String key;
+        private final Map<Long, Double> contributions = new HashMap<>();
+        private double weight;
+        private long storyId;
+
+        Suggestion(Type type, String text, String key) {
+            this.type = type;
+            this.text = text;
+            this.key = key;
+        }
+
+        private void recalculate() {
+            double total = 0;
+            double best = -1;
+            for (Map.Entry<Long, Double> entry : contributions.entrySet()) {
+                total += entry.getValue();
+                if (entry.getValue() > best) {
+                    best = entry.getValue();
+                    storyId = entry.getKey();
+                }
+            }
+            weight = total;
+        }
+
+        Type getType() { return type; }
+        String getText() { return text; }
+        double getWeight() { return weight; }
+        /** The most popular story behind this suggestion. */
+        long getStoryId() { return storyId; }
+    }
+}
@@ -22,7 +22,7 @@ public class AIService {
             throw new IllegalArgumentException("Scene ID cannot be null");
         }
         
-        Scene scene = sceneRepository.findById(request.getSceneId())
+        Scene scene = sceneRepository.findWithStoryAndCharactersById(request.getSceneId())
                 .orElseThrow(() -> new RuntimeException("Scene not found"));
 
         Story story = scene.getStory();
@@ -0,0 +1,167 @@
+package com.storyapp.story.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.storyapp.story.dto.GenreResponse;
+import com.storyapp.story.exception.ResourceNotFoundException;
+import com.storyapp.story.model.Genre;
+import com.storyapp.story.repository.GenreRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The genre list, held in memory as an immutable snapshot: an id lookup, the
+ * {@code /genres} response already serialized to JSON, and a version taken
+ * from a digest of that JSON (so every instance derives the same one).
+ *
+ * Genres are seeded once by GenreInitializer and hardly ever change, so the
+ * snapshot is only re-read every {@code genres.reload-interval-minutes}, or
+ * when {@link #reload()} is called; an unchanged list keeps the current
+ * snapshot. Readers never lock: a reload swaps in a whole new snapshot.
+ */
+@Component
+public class GenreCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(GenreCatalog.class);
+
+    private final GenreRepository genreRepository;
+    private final ObjectMapper objectMapper;
+    private final long reloadIntervalMinutes;
+    private final ScheduledExecutorService executor;
+
+    private volatile Snapshot snapshot;
+
+    public GenreCatalog(GenreRepository genreRepository, ObjectMapper objectMapper,
+                        @Value("${genres.reload-interval-minutes:10}") long reloadIntervalMinutes) {
+        this.genreRepository = genreRepository;
+        this.objectMapper = objectMapper;
+        this.reloadIntervalMinutes = reloadIntervalMinutes;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "genre-catalog");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::reloadQuietly, reloadIntervalMinutes, reloadIntervalMinutes,
+            TimeUnit.MINUTES);
+    }
+
+    /**
+     * Genres ordered by id. The elements are shared and must not be modified.
+     */
+    public List<GenreResponse> getAll() {
+        return current().genres;
+    }
+
+    /**
+     * Null when no such genre exists.
+     */
+    public GenreResponse get(Long genreId) {
+        return current().byId.get(genreId);
+    }
+
+    /**
+     * Throws ResourceNotFoundException for an unknown id, like the
+     * repository lookup it replaces.
+     */
+    public void requireExists(Long genreId) {
+        if (!current().byId.containsKey(genreId)) {
+            throw new ResourceNotFoundException("Genre not found: " + genreId);
+        }
+    }
+
+    public byte[] getJson() {
+        return current().json;
+    }
+
+    public String getVersion() {
+        return current().version;
+    }
+
+    public synchronized void reload() {
+        List<Genre> genres = genreRepository.findAll();
+        genres.sort(Comparator.comparing(Genre::getId));
+        List<GenreResponse> responses = genres.stream()
+            .map(GenreCatalog::toResponse)
+            .collect(Collectors.toUnmodifiableList());
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(responses);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize genres", e);
+        }
+        String version = DigestUtils.md5DigestAsHex(json);
+        Snapshot previous = snapshot;
+        if (previous != null && previous.version.equals(version)) {
+            return;
+        }
+        Map<Long, GenreResponse> byId = new HashMap<>();
+        responses.forEach(genre -> byId.put(genre.getId(), genre));
+        snapshot = new Snapshot(responses, Map.copyOf(byId), json, version);
+        log.info("Loaded {} genres (catalog version {})", responses.size(), version);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // first use before the startup load
+            reload();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Genre catalog reload failed; keeping the previous one: {}", e.getMessage());
+        }
+    }
+
+    private static GenreResponse toResponse(Genre genre) {
+        GenreResponse resp = new GenreResponse();
+        resp.setId(genre.getId());
+        resp.setName(genre.getName());
+        resp.setDescription(genre.getDescription());
+        return resp;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static final class Snapshot {
+        private final List<GenreResponse> genres;
+        private final Map<Long, GenreResponse> byId;
+        private final byte[] json;
+        private final String version;
+
+        Snapshot(List<GenreResponse> genres, Map<Long, GenreResponse> byId, byte[] json, String version) {
+            this.genres = genres;
+            this.byId = byId;
+            this.json = json;
+            this.version = version;
+        }
+    }
+}
@@ -11,9 +11,11 @@ import java.util.List;
 public class GenreInitializer implements CommandLineRunner {
 
     private final GenreRepository genreRepository;
+    private final GenreCatalog genreCatalog;
 
-    public GenreInitializer(GenreRepository genreRepository) {
+    public GenreInitializer(GenreRepository genreRepository, GenreCatalog genreCatalog) {
         this.genreRepository = genreRepository;
+        this.genreCatalog = genreCatalog;
     }
 
     @Override
@@ -47,5 +49,6 @@ public class GenreInitializer implements CommandLineRunner {
                 System.out.println("Initialized " + genres.size() + " genres");
             }
         }
+        genreCatalog.reload();
     }
 }
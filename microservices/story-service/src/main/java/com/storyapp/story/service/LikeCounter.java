@@ -0,0 +1,168 @@
+package com.storyapp.story.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sharded like counter.
+ *
+ * A story's like count is {@code stories.like_count} plus the pending deltas in
+ * its {@code like_counter_shards} slots. Likes and unlikes add to a random slot
+ * with a single upsert, so writes on a popular story spread over several rows
+ * instead of all queueing on the story row. {@link #fold} periodically moves
+ * the pending deltas into {@code stories.like_count}, which the feed sorts on.
+ *
+ * Pending deltas are cached per story for a short time. A write evicts the
+ * story's entry on this instance so the writer sees their own like at once.
+ */
+@Component
+public class LikeCounter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final int shards;
+    private final long cacheTtlMillis;
+    private final int maxCacheEntries;
+    private final Map<Long, CachedDelta> cache = new ConcurrentHashMap<>();
+
+    public LikeCounter(JdbcTemplate jdbcTemplate,
+                       @Value("${like-counter.shards:16}") int shards,
+                       @Value("${like-counter.cache-ttl-millis:2000}") long cacheTtlMillis,
+                       @Value("${like-counter.cache-max-entries:10000}") int maxCacheEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.shards = shards;
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.maxCacheEntries = maxCacheEntries;
+    }
+
+    public void increment(Long storyId) {
+        add(storyId, 1);
+    }
+
+    public void decrement(Long storyId) {
+        add(storyId, -1);
+    }
+
+    private void add(Long storyId, int delta) {
+        int shard = ThreadLocalRandom.current().nextInt(shards);
+        jdbcTemplate.update(
+            "INSERT INTO like_counter_shards (story_id, shard, delta) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE delta = delta + VALUES(delta)",
+            storyId, shard, delta);
+        cache.remove(storyId);
+    }
+
+    /**
+     * Returns the not-yet-folded delta per story. Stories without pending
+     * likes map to 0. Uncached stories are summed with one grouped query.
+     */
+    public Map<Long, Long> pendingDeltas(Collection<Long> storyIds) {
+        Map<Long, Long> deltas = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Long storyId : storyIds) {
+            CachedDelta cached = cache.get(storyId);
+            if (cached != null && cached.expiresAt > now) {
+                deltas.put(storyId, cached.delta);
+            } else {
+                missing.add(storyId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return deltas;
+        }
+
+        Map<Long, Long> loaded = new HashMap<>();
+        namedJdbcTemplate.query(
+            "SELECT story_id, SUM(delta) AS pending FROM like_counter_shards WHERE story_id IN (:ids) GROUP BY story_id",
+            new MapSqlParameterSource("ids", missing),
+            rs -> { loaded.put(rs.getLong("story_id"), rs.getLong("pending")); });
+        if (cache.size() + missing.size() > maxCacheEntries) {
+            cache.values().removeIf(entry -> entry.expiresAt <= now);
+        }
+        for (Long storyId : missing) {
+            long delta = loaded.getOrDefault(storyId, 0L);
+            deltas.put(storyId, delta);
+            if (cache.size() < maxCacheEntries) {
+                cache.put(storyId, new CachedDelta(delta, now + cacheTtlMillis));
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * Moves the pending deltas of the given stories into
+     * {@code stories.like_count}. Must run inside a transaction: the slots are
+     * locked while they are read, and each is reduced by exactly the amount
+     * folded, so likes arriving concurrently are never lost.
+     *
+     * @return number of stories whose like_count changed
+     */
+    public int fold(Collection<Long> storyIds) {
+        if (storyIds.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Long> totals = new HashMap<>();
+        List<Object[]> slots = new ArrayList<>();
+        namedJdbcTemplate.query(
+            "SELECT id, story_id, delta FROM like_counter_shards WHERE story_id IN (:ids) AND delta <> 0 FOR UPDATE",
+            new MapSqlParameterSource("ids", storyIds),
+            rs -> {
+                long delta = rs.getLong("delta");
+                slots.add(new Object[] { rs.getLong("id"), delta });
+                totals.merge(rs.getLong("story_id"), delta, Long::sum);
+            });
+        if (slots.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> storyUpdates = new ArrayList<>();
+        totals.forEach((storyId, delta) -> {
+            if (delta != 0) {
+                storyUpdates.add(new Object[] { delta, storyId });
+            }
+        });
+        // Exact, never clamped: the slots below are reduced by the full delta, so a clamp here
+        // would lose the difference for good. Readers clamp the sum for display instead.
+        jdbcTemplate.batchUpdate("UPDATE stories SET like_count = like_count + ? WHERE id = ?", storyUpdates);
+
+        List<Object[]> slotUpdates = new ArrayList<>();
+        for (Object[] slot : slots) {
+            slotUpdates.add(new Object[] { slot[1], slot[0] });
+        }
+        jdbcTemplate.batchUpdate("UPDATE like_counter_shards SET delta = delta - ? WHERE id = ?", slotUpdates);
+
+        storyIds.forEach(cache::remove);
+        return storyUpdates.size();
+    }
+
+    /**
+     * Drops a deleted story's slots.
+     */
+    public void deleteShards(Long storyId) {
+        jdbcTemplate.update("DELETE FROM like_counter_shards WHERE story_id = ?", storyId);
+        cache.remove(storyId);
+    }
+
+    private static final class CachedDelta {
+        private final long delta;
+        private final long expiresAt;
+
+        CachedDelta(long delta, long expiresAt) {
+            this.delta = delta;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -9,13 +9,18 @@ import com.storyapp.story.repository.SceneMediaRepository;
 import com.storyapp.story.repository.SceneRepository;
 import com.storyapp.story.repository.StoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,6 +41,9 @@ public class SceneService {
     @Autowired
     private MediaStorageService mediaStorageService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @SuppressWarnings("null")
     @Transactional
     public SceneResponse createScene(SceneRequest request) {
@@ -54,6 +62,7 @@ public class SceneService {
         scene.setCharacterNames(request.getCharacters());
 
         Scene savedScene = sceneRepository.save(scene);
+        markStoryUpdated(story);
         return mapToResponse(savedScene);
     }
 
@@ -72,11 +81,29 @@ public class SceneService {
         scene.setCharacterNames(request.getCharacters());
 
         Scene savedScene = sceneRepository.save(scene);
+        markStoryUpdated(savedScene.getStory());
         return mapToResponse(savedScene);
     }
 
+    /**
+     * The story's version, which every scene change bumps; empty when the
+     * story does not exist.
+     */
+    public Optional<Long> getScenesVersion(Long storyId) {
+        return storyRepository.findVersionById(storyId);
+    }
+
+    /**
+     * Media and character names are fetched for all scenes up front (the
+     * second query fills in the scenes loaded by the first).
+     */
+    @Transactional(readOnly = true)
     public List<SceneResponse> getScenesByStoryId(Long storyId) {
-        return sceneRepository.findByStoryIdOrderByOrderAsc(storyId).stream()
+        List<Scene> scenes = new ArrayList<>(sceneRepository.findWithMediaByStoryId(storyId));
+        sceneRepository.findWithCharacterNamesByStoryId(storyId);
+        scenes.sort(Comparator.comparing(Scene::getOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Scene::getId));
+        return scenes.stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
@@ -86,7 +113,16 @@ public class SceneService {
         if (id == null) {
             throw new IllegalArgumentException("Scene ID cannot be null");
         }
+        Story story = sceneRepository.findById(id).map(Scene::getStory).orElse(null);
         sceneRepository.deleteById(id);
+        markStoryUpdated(story);
+    }
+
+    private void markStoryUpdated(Story story) {
+        if (story != null) {
+            storyRepository.touch(story.getId(), LocalDateTime.now());
+            eventPublisher.publishEvent(new StoryChangedEvent(story.getId(), StoryChangedEvent.Type.UPDATED));
+        }
     }
 
     @Transactional
@@ -109,11 +145,19 @@ public class SceneService {
             mediaType = SceneMedia.MediaType.valueOf(type.toUpperCase());
         }
 
+        int position = scene.getMedia().stream()
+                .map(SceneMedia::getPosition)
+                .filter(Objects::nonNull)
+                .max(Integer::compare)
+                .map(max -> max + 1)
+                .orElse(scene.getMedia().size());
         for (String url : urls) {
             SceneMedia media = new SceneMedia(url, mediaType, scene);
+            media.setPosition(position++);
             sceneMediaRepository.save(media);
             scene.getMedia().add(media);
         }
+        markStoryUpdated(scene.getStory());
 
         return mapToResponse(scene);
     }
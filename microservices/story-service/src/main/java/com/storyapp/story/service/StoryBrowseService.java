@@ -0,0 +1,86 @@
+package com.storyapp.story.service;
+
+import com.storyapp.story.dto.GenreFacetCount;
+import com.storyapp.story.dto.StoryBrowseResponse;
+import com.storyapp.story.dto.StoryFieldSet;
+import com.storyapp.story.dto.StoryResponse;
+import com.storyapp.story.exception.ServiceUnavailableException;
+import com.storyapp.story.repository.StoryRepository;
+import com.storyapp.story.search.GenreFacetIndex;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Browse page: published stories filtered by genre, newest first, with the
+ * number of matching stories in each genre. Filtering and counting happen in
+ * GenreFacetIndex; the database is only asked for the page being returned.
+ * Until the index has loaded, browsing answers 503 with a Retry-After.
+ */
+@Service
+public class StoryBrowseService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final long RETRY_AFTER_SECONDS = 5;
+
+    private final GenreFacetIndex genreFacetIndex;
+    private final StoryRepository storyRepository;
+    private final StoryResponseAssembler storyResponseAssembler;
+
+    public StoryBrowseService(GenreFacetIndex genreFacetIndex, StoryRepository storyRepository,
+                              StoryResponseAssembler storyResponseAssembler) {
+        this.genreFacetIndex = genreFacetIndex;
+        this.storyRepository = storyRepository;
+        this.storyResponseAssembler = storyResponseAssembler;
+    }
+
+    /**
+     * @param cursor id of the last story on the previous page, from {@code nextCursor}
+     */
+    public StoryBrowseResponse browse(Collection<Long> allGenres, Collection<Long> anyGenres,
+                                      Collection<Long> excludedGenres, String cursor, Integer limit,
+                                      String username, StoryFieldSet fields) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Long before = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                before = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        if (!genreFacetIndex.isReady()) {
+            throw new ServiceUnavailableException("Browsing is starting up; try again shortly", RETRY_AFTER_SECONDS);
+        }
+        GenreFacetIndex.Result result = genreFacetIndex.browse(allGenres, anyGenres, excludedGenres, before, pageSize + 1);
+        List<Long> storyIds = result.getStoryIds();
+        String nextCursor = null;
+        if (storyIds.size() > pageSize) {
+            storyIds = storyIds.subList(0, pageSize);
+            nextCursor = String.valueOf(storyIds.get(pageSize - 1));
+        }
+
+        List<StoryResponse> items = new ArrayList<>();
+        if (!storyIds.isEmpty()) {
+            Map<Long, Integer> position = new HashMap<>();
+            for (int i = 0; i < storyIds.size(); i++) {
+                position.put(storyIds.get(i), i);
+            }
+            items = new ArrayList<>(storyRepository.findSummariesByIds(storyIds));
+            items.sort(Comparator.comparing(item -> position.get(item.getId())));
+            items = storyResponseAssembler.toSummaryResponses(items, username, fields);
+        }
+
+        List<GenreFacetCount> facets = new ArrayList<>();
+        result.getFacetCounts().forEach((genreId, count) -> facets.add(new GenreFacetCount(genreId, count)));
+        facets.sort(Comparator.comparing(GenreFacetCount::getGenreId));
+        return new StoryBrowseResponse(items, nextCursor, result.getTotal(), facets);
+    }
+}
@@ -0,0 +1,23 @@
+package com.storyapp.story.service;
+
+/**
+ * Published by StoryService when a story is created, edited, published or
+ * unpublished, or deleted, and as UPDATED when one of its scenes or characters
+ * changes. In-memory indexes listen for it (after commit) to refresh or drop
+ * their copy of the story.
+ */
+public class StoryChangedEvent {
+
+    public enum Type { CREATED, UPDATED, PUBLISH_TOGGLED, DELETED }
+
+    private final Long storyId;
+    private final Type type;
+
+    public StoryChangedEvent(Long storyId, Type type) {
+        this.storyId = storyId;
+        this.type = type;
+    }
+
+    public Long getStoryId() { return storyId; }
+    public Type getType() { return type; }
+}
@@ -0,0 +1,69 @@
+package com.storyapp.story.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * The parts of a single-story response that change without a story edit,
+ * together with the story's version. Loading them costs one primary-key read
+ * plus, for a signed-in viewer, two membership lookups, so a conditional GET
+ * can be answered from them without building the response.
+ */
+public class StoryLiveFields {
+
+    private final Long version;
+    private final int likeCount;
+    private final int viewCount;
+    private final long totalWatchTime;
+    private final int commentCount;
+    private final String authorEmail;
+    private final boolean liked;
+    private final boolean favorited;
+
+    public StoryLiveFields(Long version, int likeCount, int viewCount, long totalWatchTime, int commentCount,
+                           String authorEmail, boolean liked, boolean favorited) {
+        this.version = version;
+        this.likeCount = likeCount;
+        this.viewCount = viewCount;
+        this.totalWatchTime = totalWatchTime;
+        this.commentCount = commentCount;
+        this.authorEmail = authorEmail;
+        this.liked = liked;
+        this.favorited = favorited;
+    }
+
+    /**
+     * Strong ETag of the response as this viewer sees it: the version stands
+     * for everything a story edit can change, followed by the live counters
+     * and viewer flags themselves (a hash of them would let offsetting
+     * changes collide) and a digest of the author's email. Starts with the
+     * version so that an If-Match can be checked against it.
+     */
+    public String getETag() {
+        return "\"" + version + "-" + likeCount + "." + viewCount + "." + totalWatchTime + "." + commentCount
+            + "-" + (liked ? "l" : "") + (favorited ? "f" : "") + "-" + emailDigest() + "\"";
+    }
+
+    private String emailDigest() {
+        if (authorEmail == null) {
+            return "0";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(authorEmail.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public Long getVersion() { return version; }
+    public int getLikeCount() { return likeCount; }
+    public int getViewCount() { return viewCount; }
+    public long getTotalWatchTime() { return totalWatchTime; }
+    public int getCommentCount() { return commentCount; }
+    public String getAuthorEmail() { return authorEmail; }
+    public boolean isLiked() { return liked; }
+    public boolean isFavorited() { return favorited; }
+}
@@ -0,0 +1,130 @@
+package com.storyapp.story.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out story numbers starting with 5 digits (10000-99999), then moving to
+ * 6 digits (100000-999999) when all 5-digit numbers are used, and so on.
+ *
+ * Numbers are reserved in blocks from the {@code story_number} row of
+ * {@code number_sequences} with one atomic {@code UPDATE}, then handed out
+ * from memory (hi/lo). Each instance owns the blocks it reserved, so
+ * concurrent creators on any number of instances never collide. Unused
+ * numbers of a block are skipped after a restart.
+ *
+ * Callers are usually inside a transaction that already holds a pooled
+ * connection, so blocks are reserved over a small pool of their own (at most
+ * {@value #POOL_SIZE} connections), and no lock is held while doing so:
+ * threads that find the blocks used up each reserve one, and every block
+ * reserved is used.
+ */
+@Component
+public class StoryNumberGenerator {
+
+    private static final String SEQUENCE_NAME = "story_number";
+    private static final long FIRST_STORY_NUMBER = 10000L;
+    private static final int POOL_SIZE = 2;
+    private static final long CONNECTION_TIMEOUT_MILLIS = 5000;
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+    private final ConcurrentLinkedQueue<Block> blocks = new ConcurrentLinkedQueue<>();
+
+    public StoryNumberGenerator(DataSourceProperties dataSourceProperties,
+                                @Value("${story.number.block-size:20}") int blockSize) {
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+        dataSource.setPoolName("story-numbers");
+        dataSource.setMaximumPoolSize(POOL_SIZE);
+        dataSource.setMinimumIdle(0);
+        dataSource.setConnectionTimeout(CONNECTION_TIMEOUT_MILLIS);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        // independent of whatever transaction the caller is in
+        transactionManager.setTransactionSynchronization(AbstractPlatformTransactionManager.SYNCHRONIZATION_NEVER);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.blockSize = blockSize;
+    }
+
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+    }
+
+    public String nextStoryNumber() {
+        while (true) {
+            Block block = blocks.peek();
+            if (block == null) {
+                blocks.add(reserveBlock());
+                continue;
+            }
+            long number = block.next.getAndIncrement();
+            if (number < block.limit) {
+                return String.valueOf(number);
+            }
+            blocks.remove(block);
+        }
+    }
+
+    private Block reserveBlock() {
+        Long end = transactionTemplate.execute(status -> {
+            if (advance() == 0) {
+                seed();
+                advance();
+            }
+            return jdbcTemplate.queryForObject(
+                "SELECT next_value FROM number_sequences WHERE name = ?", Long.class, SEQUENCE_NAME);
+        });
+        return new Block(end - blockSize, end);
+    }
+
+    private int advance() {
+        return jdbcTemplate.update(
+            "UPDATE number_sequences SET next_value = next_value + ? WHERE name = ?", blockSize, SEQUENCE_NAME);
+    }
+
+    /**
+     * Creates the counter row, continuing after the highest number already in use.
+     */
+    private void seed() {
+        long start = FIRST_STORY_NUMBER;
+        List<String> highest = jdbcTemplate.queryForList(
+            "SELECT story_number FROM stories WHERE story_number IS NOT NULL "
+                + "ORDER BY LENGTH(story_number) DESC, story_number DESC LIMIT 1",
+            String.class);
+        if (!highest.isEmpty()) {
+            start = Math.max(start, Long.parseLong(highest.get(0)) + 1);
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO number_sequences (name, next_value) VALUES (?, ?)", SEQUENCE_NAME, start);
+        } catch (DuplicateKeyException e) {
+            // another instance seeded it first
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long limit;
+
+        Block(long first, long limit) {
+            this.next = new AtomicLong(first);
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.storyapp.story.service;
+
+import com.storyapp.story.client.UserLookupCache;
+import com.storyapp.story.dto.CharacterResponse;
+import com.storyapp.story.dto.GenreResponse;
+import com.storyapp.story.dto.StoryFieldSet;
+import com.storyapp.story.dto.StoryResponse;
+import com.storyapp.story.exception.ResourceNotFoundException;
+import com.storyapp.story.model.Character;
+import com.storyapp.story.model.Story;
+import com.storyapp.story.model.StoryImage;
+import com.storyapp.story.repository.CharacterRepository;
+import com.storyapp.story.repository.FavoriteRepository;
+import com.storyapp.story.repository.LikeRepository;
+import com.storyapp.story.repository.StoryGenreRepository;
+import com.storyapp.story.repository.StoryImageRepository;
+import com.storyapp.story.repository.StoryRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@link StoryResponse}s for a whole page of stories at once.
+ *
+ * Every enrichment dimension (like/favorite membership, images, characters,
+ * genres, author emails) is resolved with one {@code IN (...)} query for the
+ * page, so the number of queries per list request is constant instead of
+ * growing with the page size. Genre names come from the {@link GenreCatalog};
+ * only the story-to-genre ids are queried. Timelines are built from the scene
+ * rows by {@link TimelineMaterializer}. Comment counts are read from the story
+ * row; like counts are the story row plus the pending {@link LikeCounter} deltas.
+ */
+@Component
+public class StoryResponseAssembler {
+
+    private final LikeRepository likeRepository;
+    private final FavoriteRepository favoriteRepository;
+    private final StoryImageRepository storyImageRepository;
+    private final StoryRepository storyRepository;
+    private final CharacterRepository characterRepository;
+    private final StoryGenreRepository storyGenreRepository;
+    private final UserLookupCache userLookupCache;
+    private final LikeCounter likeCounter;
+    private final GenreCatalog genreCatalog;
+    private final TimelineMaterializer timelineMaterializer;
+
+    public StoryResponseAssembler(LikeRepository likeRepository,
+                                  FavoriteRepository favoriteRepository, StoryImageRepository storyImageRepository,
+                                  StoryRepository storyRepository,
+                                  CharacterRepository characterRepository, StoryGenreRepository storyGenreRepository,
+                                  UserLookupCache userLookupCache, LikeCounter likeCounter, GenreCatalog genreCatalog,
+                                  TimelineMaterializer timelineMaterializer) {
+        this.likeRepository = likeRepository;
+        this.favoriteRepository = favoriteRepository;
+        this.storyImageRepository = storyImageRepository;
+        this.storyRepository = storyRepository;
+        this.characterRepository = characterRepository;
+        this.storyGenreRepository = storyGenreRepository;
+        this.userLookupCache = userLookupCache;
+        this.likeCounter = likeCounter;
+        this.genreCatalog = genreCatalog;
+        this.timelineMaterializer = timelineMaterializer;
+    }
+
+    public StoryResponse toResponse(Story story, String currentUsername) {
+        return toResponses(List.of(story), currentUsername).get(0);
+    }
+
+    /**
+     * Converts the given stories, preserving their order.
+     */
+    public List<StoryResponse> toResponses(List<Story> stories, String currentUsername) {
+        List<StoryResponse> responses = stories.stream()
+            .map(this::toBaseResponse)
+            .collect(Collectors.toList());
+        Map<Long, Long> versions = new HashMap<>();
+        stories.forEach(story -> versions.put(story.getId(), story.getVersion()));
+        Map<Long, String> timelines = timelineMaterializer.getTimelines(versions);
+        for (int i = 0; i < stories.size(); i++) {
+            // stories without scenes may still carry a timeline stored before scenes became authoritative
+            String timeline = timelines.get(stories.get(i).getId());
+            responses.get(i).setTimelineJson(timeline != null ? timeline : stories.get(i).getTimelineJson());
+        }
+        enrich(responses, currentUsername, true);
+        return responses;
+    }
+
+    /**
+     * Completes summary rows produced by a constructor-expression query. Only
+     * the heavy fields requested by {@code fields} are loaded, each with one
+     * query for the whole page.
+     */
+    public List<StoryResponse> toSummaryResponses(List<StoryResponse> summaries, String currentUsername,
+                                                  StoryFieldSet fields) {
+        enrich(summaries, currentUsername, fields.includesCharacters());
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+        Set<Long> storyIds = idsOf(summaries);
+        if (fields.includesContent()) {
+            Map<Long, String> content = toTextMap(storyRepository.findContentByIds(storyIds));
+            summaries.forEach(resp -> resp.setContent(content.get(resp.getId())));
+        }
+        if (fields.includesTimeline()) {
+            Map<Long, Long> versions = new HashMap<>();
+            for (Object[] row : storyRepository.findVersionsByIds(storyIds)) {
+                versions.put((Long) row[0], (Long) row[1]);
+            }
+            Map<Long, String> timelines = new HashMap<>(timelineMaterializer.getTimelines(versions));
+            Set<Long> withoutScenes = new HashSet<>(storyIds);
+            withoutScenes.removeAll(timelines.keySet());
+            if (!withoutScenes.isEmpty()) {
+                toTextMap(storyRepository.findTimelineJsonByIds(withoutScenes)).forEach(timelines::putIfAbsent);
+            }
+            summaries.forEach(resp -> resp.setTimelineJson(timelines.get(resp.getId())));
+        }
+        return summaries;
+    }
+
+    /**
+     * Reads the fields of a single story that change without a story edit:
+     * engagement counters and the version (one primary-key read), the
+     * author's email and the current user's like/favorite flags.
+     */
+    public StoryLiveFields loadLiveFields(Long id, String currentUsername) {
+        List<Object[]> rows = storyRepository.findLiveStateById(id);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Story not found");
+        }
+        Object[] row = rows.get(0);
+        String authorUsername = (String) row[1];
+        long pendingLikes = likeCounter.pendingDeltas(Set.of(id)).getOrDefault(id, 0L);
+        int likeCount = (int) Math.max(0, (Integer) row[2] + pendingLikes);
+        String authorEmail = authorUsername != null
+            ? userLookupCache.getEmails(Set.of(authorUsername)).get(authorUsername)
+            : null;
+        boolean liked = false;
+        boolean favorited = false;
+        if (currentUsername != null) {
+            liked = !likeRepository.findLikedStoryIds(currentUsername, Set.of(id)).isEmpty();
+            favorited = !favoriteRepository.findFavoritedStoryIds(currentUsername, Set.of(id)).isEmpty();
+        }
+        return new StoryLiveFields((Long) row[0], likeCount, (Integer) row[3], (Long) row[4], (Integer) row[5],
+            authorEmail, liked, favorited);
+    }
+
+    /**
+     * Copies a cached response and overlays the live fields on it.
+     */
+    public StoryResponse withLiveFields(StoryResponse cached, StoryLiveFields live) {
+        StoryResponse resp = copyOf(cached);
+        resp.setLikeCount(live.getLikeCount());
+        resp.setViewCount(live.getViewCount());
+        resp.setTotalWatchTime(live.getTotalWatchTime());
+        resp.setCommentCount(live.getCommentCount());
+        resp.setAuthorEmail(live.getAuthorEmail());
+        resp.setIsLikedByCurrentUser(live.isLiked());
+        resp.setIsFavoritedByCurrentUser(live.isFavorited());
+        return resp;
+    }
+
+    private void enrich(List<StoryResponse> responses, String currentUsername, boolean includeCharacters) {
+        if (responses.isEmpty()) {
+            return;
+        }
+        Set<Long> storyIds = idsOf(responses);
+
+        Set<Long> liked = Collections.emptySet();
+        Set<Long> favorited = Collections.emptySet();
+        if (currentUsername != null) {
+            liked = new HashSet<>(likeRepository.findLikedStoryIds(currentUsername, storyIds));
+            favorited = new HashSet<>(favoriteRepository.findFavoritedStoryIds(currentUsername, storyIds));
+        }
+
+        Map<Long, List<String>> imageUrls = new HashMap<>();
+        for (StoryImage image : storyImageRepository.findByStoryIds(storyIds)) {
+            imageUrls.computeIfAbsent(image.getStory().getId(), k -> new ArrayList<>()).add(image.getUrl());
+        }
+
+        Map<Long, List<CharacterResponse>> characters = new HashMap<>();
+        if (includeCharacters) {
+            for (Character character : characterRepository.findWithImagesByStoryIds(storyIds)) {
+                characters.computeIfAbsent(character.getStory().getId(), k -> new ArrayList<>())
+                    .add(toCharacterResponse(character));
+            }
+        }
+
+        Map<Long, List<GenreResponse>> genres = new HashMap<>();
+        for (Object[] row : storyGenreRepository.findGenreIdsByStoryIds(storyIds)) {
+            GenreResponse genre = genreCatalog.get((Long) row[1]);
+            if (genre != null) {
+                genres.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add(genre);
+            }
+        }
+
+        Map<String, String> authorEmails = resolveAuthorEmails(responses);
+        Map<Long, Long> pendingLikes = likeCounter.pendingDeltas(storyIds);
+
+        for (StoryResponse resp : responses) {
+            Long id = resp.getId();
+            resp.setAuthorEmail(authorEmails.get(resp.getAuthorUsername()));
+            resp.setLikeCount((int) Math.max(0, resp.getLikeCount() + pendingLikes.getOrDefault(id, 0L)));
+            resp.setIsLikedByCurrentUser(liked.contains(id));
+            resp.setIsFavoritedByCurrentUser(favorited.contains(id));
+            resp.setImageUrls(imageUrls.getOrDefault(id, new ArrayList<>()));
+            if (includeCharacters) {
+                resp.setCharacters(characters.getOrDefault(id, new ArrayList<>()));
+            }
+            resp.setGenres(genres.getOrDefault(id, new ArrayList<>()));
+        }
+    }
+
+    private Set<Long> idsOf(List<StoryResponse> responses) {
+        return responses.stream().map(StoryResponse::getId).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private Map<Long, String> toTextMap(List<Object[]> rows) {
+        Map<Long, String> values = new HashMap<>();
+        for (Object[] row : rows) {
+            values.put((Long) row[0], (String) row[1]);
+        }
+        return values;
+    }
+
+    private StoryResponse toBaseResponse(Story story) {
+        StoryResponse resp = new StoryResponse();
+        resp.setId(story.getId());
+        resp.setTitle(story.getTitle());
+        resp.setContent(story.getContent());
+        resp.setDescription(story.getDescription());
+        resp.setWriters(story.getWriters());
+        resp.setAuthorUsername(story.getAuthorUsername());
+        resp.setCreatedAt(story.getCreatedAt());
+        resp.setIsPublished(story.getIsPublished());
+        resp.setLikeCount(story.getLikeCount());
+        resp.setViewCount(story.getViewCount());
+        resp.setStoryNumber(story.getStoryNumber());
+        resp.setTotalWatchTime(story.getTotalWatchTime());
+        resp.setShowSceneTimeline(story.getShowSceneTimeline());
+        resp.setCommentCount(story.getCommentCount());
+        resp.setVersion(story.getVersion());
+        resp.setUpdatedAt(story.getUpdatedAt());
+        return resp;
+    }
+
+    /**
+     * Shallow copy; the lists are shared and treated as read-only.
+     */
+    private StoryResponse copyOf(StoryResponse source) {
+        StoryResponse resp = new StoryResponse();
+        resp.setId(source.getId());
+        resp.setTitle(source.getTitle());
+        resp.setContent(source.getContent());
+        resp.setDescription(source.getDescription());
+        resp.setWriters(source.getWriters());
+        resp.setTimelineJson(source.getTimelineJson());
+        resp.setTimeline(source.getTimeline());
+        resp.setImageUrls(source.getImageUrls());
+        resp.setAuthorUsername(source.getAuthorUsername());
+        resp.setCreatedAt(source.getCreatedAt());
+        resp.setCharacters(source.getCharacters());
+        resp.setIsPublished(source.getIsPublished());
+        resp.setLikeCount(source.getLikeCount());
+        resp.setViewCount(source.getViewCount());
+        resp.setCommentCount(source.getCommentCount());
+        resp.setGenres(source.getGenres());
+        resp.setStoryNumber(source.getStoryNumber());
+        resp.setTotalWatchTime(source.getTotalWatchTime());
+        resp.setShowSceneTimeline(source.getShowSceneTimeline());
+        resp.setAuthorEmail(source.getAuthorEmail());
+        resp.setVersion(source.getVersion());
+        resp.setUpdatedAt(source.getUpdatedAt());
+        return resp;
+    }
+
+    private CharacterResponse toCharacterResponse(Character character) {
+        CharacterResponse cr = new CharacterResponse();
+        cr.setId(character.getId());
+        cr.setName(character.getName());
+        cr.setDescription(character.getDescription());
+        cr.setRole(character.getRole());
+        cr.setActorName(character.getActorName());
+        cr.setImageUrls(character.getImageUrls());
+        return cr;
+    }
+
+    /**
+     * Resolves each distinct author of the page through the near-cache, which
+     * makes at most one batch call to user-service for the misses.
+     */
+    private Map<String, String> resolveAuthorEmails(List<StoryResponse> responses) {
+        Set<String> authors = responses.stream()
+            .map(StoryResponse::getAuthorUsername)
+            .filter(a -> a != null)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        return userLookupCache.getEmails(authors);
+    }
+}
@@ -0,0 +1,251 @@
+package com.storyapp.story.service;
+
+import com.storyapp.story.dto.CharacterResponse;
+import com.storyapp.story.dto.GenreResponse;
+import com.storyapp.story.dto.StoryResponse;
+import com.storyapp.story.exception.ResourceNotFoundException;
+import com.storyapp.story.model.Story;
+import com.storyapp.story.repository.StoryRepository;
+import com.storyapp.story.search.StoriesReindexedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the user-independent part of single-story responses: text,
+ * timeline, images, characters and genres, which otherwise take one query per
+ * table on every story page view.
+ *
+ * Fields that change without a story edit (counters, the author's email, the
+ * viewer's like and favorite flags) are not trusted from the cache; they are
+ * read with the story's version as {@link StoryLiveFields} on every request
+ * and overlaid on a copy. An entry older than that version is reloaded, so an
+ * edit on another instance is seen immediately.
+ *
+ * Entries are also dropped when a story changes, locally (StoryChangedEvent
+ * after commit) or on another instance (StoriesReindexedEvent from the change
+ * log), and expire after {@code story-cache.ttl-seconds} as a backstop. The
+ * cache is bounded by the estimated size of its entries and evicts least
+ * recently used first.
+ *
+ * Concurrent misses for one story share a single load. A load that is
+ * running when its story is invalidated still answers the requests waiting
+ * on it, but its result is not cached, and a load never replaces a newer
+ * cached entry.
+ */
+@Component
+public class StoryResponseCache {
+
+    private final StoryRepository storyRepository;
+    private final StoryResponseAssembler storyResponseAssembler;
+    private final TimelineJsonParser timelineJsonParser;
+    private final long maxBytes;
+    private final long ttlMillis;
+
+    // access-ordered; guarded by synchronizing on it, together with totalBytes
+    private final LinkedHashMap<Long, CachedStory> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    private final Map<Long, Load> loads = new ConcurrentHashMap<>();
+
+    public StoryResponseCache(StoryRepository storyRepository, StoryResponseAssembler storyResponseAssembler,
+                              TimelineJsonParser timelineJsonParser,
+                              @Value("${story-cache.max-bytes:67108864}") long maxBytes,
+                              @Value("${story-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.storyRepository = storyRepository;
+        this.storyResponseAssembler = storyResponseAssembler;
+        this.timelineJsonParser = timelineJsonParser;
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    public StoryLiveFields getLiveFields(Long storyId, String currentUsername) {
+        return storyResponseAssembler.loadLiveFields(storyId, currentUsername);
+    }
+
+    public StoryResponse get(Long storyId, String currentUsername) {
+        return get(storyId, getLiveFields(storyId, currentUsername));
+    }
+
+    public StoryResponse get(Long storyId, StoryLiveFields live) {
+        return storyResponseAssembler.withLiveFields(getBase(storyId, live.getVersion()), live);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStoryChanged(StoryChangedEvent event) {
+        invalidate(event.getStoryId());
+    }
+
+    @EventListener
+    public void onStoriesReindexed(StoriesReindexedEvent event) {
+        event.getStoryIds().forEach(this::invalidate);
+    }
+
+    public void invalidate(Long storyId) {
+        synchronized (entries) {
+            Load load = loads.get(storyId);
+            if (load != null) {
+                load.stale = true;
+            }
+            CachedStory removed = entries.remove(storyId);
+            if (removed != null) {
+                totalBytes -= removed.bytes;
+            }
+        }
+    }
+
+    private StoryResponse getBase(Long storyId, Long minVersion) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            CachedStory cached = entries.get(storyId);
+            if (cached != null) {
+                if (cached.expiresAt > now && !isOlder(cached.response.getVersion(), minVersion)) {
+                    return cached.response;
+                }
+                entries.remove(storyId);
+                totalBytes -= cached.bytes;
+            }
+        }
+
+        Load load = new Load();
+        Load running;
+        while ((running = loads.putIfAbsent(storyId, load)) != null) {
+            StoryResponse shared = running.await();
+            if (!isOlder(shared.getVersion(), minVersion)) {
+                return shared;
+            }
+            // it started before the edit this request has seen: register a reload (or join one
+            // started since), so that invalidations reach it
+            loads.remove(storyId, running);
+        }
+        try {
+            Story story = storyRepository.findById(storyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Story not found"));
+            StoryResponse response = storyResponseAssembler.toResponse(story, null);
+            // checked once per load, so ?timeline=raw can embed it verbatim
+            if (timelineJsonParser.isValid(response.getTimelineJson())) {
+                response.setTimeline(response.getTimelineJson());
+            }
+            load.future.complete(response);
+            store(storyId, response, load, now);
+            return response;
+        } catch (RuntimeException e) {
+            load.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(storyId, load);
+        }
+    }
+
+    long getTotalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    private static boolean isOlder(Long version, Long minVersion) {
+        return version != null && minVersion != null && version < minVersion;
+    }
+
+    private void store(Long storyId, StoryResponse response, Load load, long now) {
+        long bytes = estimateBytes(response);
+        if (bytes > maxBytes / 4) {
+            return;
+        }
+        synchronized (entries) {
+            CachedStory current = entries.get(storyId);
+            if (load.stale || current != null && isOlder(response.getVersion(), current.response.getVersion())) {
+                return;
+            }
+            CachedStory previous = entries.put(storyId, new CachedStory(response, bytes, now + ttlMillis));
+            if (previous != null) {
+                totalBytes -= previous.bytes;
+            }
+            totalBytes += bytes;
+            Iterator<CachedStory> eldest = entries.values().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                totalBytes -= eldest.next().bytes;
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Rough heap footprint: two bytes per character of every string plus a
+     * fixed allowance for the objects themselves.
+     */
+    private static long estimateBytes(StoryResponse response) {
+        long chars = length(response.getTitle()) + length(response.getContent())
+            + length(response.getDescription()) + length(response.getWriters())
+            + length(response.getTimelineJson()) + length(response.getAuthorUsername())
+            + length(response.getStoryNumber());
+        long objects = 1;
+        if (response.getImageUrls() != null) {
+            for (String url : response.getImageUrls()) {
+                chars += length(url);
+                objects++;
+            }
+        }
+        if (response.getCharacters() != null) {
+            for (CharacterResponse character : response.getCharacters()) {
+                chars += length(character.getName()) + length(character.getDescription())
+                    + length(character.getRole()) + length(character.getActorName());
+                List<String> imageUrls = character.getImageUrls();
+                if (imageUrls != null) {
+                    for (String url : imageUrls) {
+                        chars += length(url);
+                    }
+                }
+                objects++;
+            }
+        }
+        if (response.getGenres() != null) {
+            for (GenreResponse genre : response.getGenres()) {
+                chars += length(genre.getName()) + length(genre.getDescription());
+                objects++;
+            }
+        }
+        return 2 * chars + 128 * objects + 256;
+    }
+
+    private static long length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static final class CachedStory {
+        private final StoryResponse response;
+        private final long bytes;
+        private final long expiresAt;
+
+        CachedStory(StoryResponse response, long bytes, long expiresAt) {
+            this.response = response;
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Load {
+        private final CompletableFuture<StoryResponse> future = new CompletableFuture<>();
+        // written under the entries lock
+        private boolean stale;
+
+        StoryResponse await() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -1,14 +1,15 @@
 package com.storyapp.story.service;
 
+import com.storyapp.story.analytics.EngagementBuffer;
+import com.storyapp.story.analytics.EngagementEvent;
+import com.storyapp.story.analytics.ViewerSketchStore;
 import com.storyapp.story.dto.*;
 import com.storyapp.story.model.Character;
 import com.storyapp.story.model.StoryImage;
 import com.storyapp.story.model.Like;
 import com.storyapp.story.model.Favorite;
 import com.storyapp.story.model.Comment;
-import com.storyapp.story.model.Genre;
 import com.storyapp.story.model.StoryGenre;
-import com.storyapp.story.model.StoryView;
 import com.storyapp.story.exception.ResourceNotFoundException;
 import com.storyapp.story.exception.UnauthorizedException;
 import com.storyapp.story.model.Story;
@@ -17,58 +18,88 @@ import com.storyapp.story.model.SceneMedia;
 import com.storyapp.story.repository.CharacterRepository;
 import com.storyapp.story.repository.StoryRepository;
 import com.storyapp.story.repository.SceneRepository;
-import com.storyapp.story.repository.SceneMediaRepository;
 import com.storyapp.story.repository.LikeRepository;
 import com.storyapp.story.repository.FavoriteRepository;
 import com.storyapp.story.repository.CommentRepository;
 import com.storyapp.story.repository.GenreRepository;
 import com.storyapp.story.repository.StoryGenreRepository;
 import com.storyapp.story.repository.StoryViewRepository;
-import com.storyapp.story.client.UserServiceClient;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @SuppressWarnings("null")
 public class StoryService {
+    private static final int DEFAULT_FEED_PAGE_SIZE = 20;
+    private static final int MAX_FEED_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int MAX_VIEWER_RANGE_DAYS = 366;
+
     private final StoryRepository storyRepository;
     private final CharacterRepository characterRepository;
     private final SceneRepository sceneRepository;
-    private final SceneMediaRepository sceneMediaRepository;
     private final LikeRepository likeRepository;
     private final FavoriteRepository favoriteRepository;
     private final CommentRepository commentRepository;
     private final GenreRepository genreRepository;
+    private final GenreCatalog genreCatalog;
     private final StoryGenreRepository storyGenreRepository;
     private final StoryViewRepository storyViewRepository;
-    private final UserServiceClient userServiceClient;
-    private final ObjectMapper objectMapper;
+    private final StoryResponseAssembler storyResponseAssembler;
+    private final StoryResponseCache storyResponseCache;
+    private final StoryNumberGenerator storyNumberGenerator;
+    private final LikeCounter likeCounter;
+    private final EngagementBuffer engagementBuffer;
+    private final ViewerSketchStore viewerSketchStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TimelineJsonParser timelineJsonParser;
 
     public StoryService(StoryRepository storyRepository, CharacterRepository characterRepository, 
-                        SceneRepository sceneRepository, SceneMediaRepository sceneMediaRepository,
+                        SceneRepository sceneRepository,
                         LikeRepository likeRepository, FavoriteRepository favoriteRepository,
-                        CommentRepository commentRepository, GenreRepository genreRepository,
+                        CommentRepository commentRepository, GenreRepository genreRepository, GenreCatalog genreCatalog,
                         StoryGenreRepository storyGenreRepository, StoryViewRepository storyViewRepository,
-                        UserServiceClient userServiceClient, ObjectMapper objectMapper) {
+                        StoryResponseAssembler storyResponseAssembler, StoryResponseCache storyResponseCache,
+                        StoryNumberGenerator storyNumberGenerator,
+                        LikeCounter likeCounter, EngagementBuffer engagementBuffer,
+                        ViewerSketchStore viewerSketchStore, ApplicationEventPublisher eventPublisher,
+                        TimelineJsonParser timelineJsonParser) {
         this.storyRepository = storyRepository;
         this.characterRepository = characterRepository;
         this.sceneRepository = sceneRepository;
-        this.sceneMediaRepository = sceneMediaRepository;
         this.likeRepository = likeRepository;
         this.favoriteRepository = favoriteRepository;
         this.commentRepository = commentRepository;
         this.genreRepository = genreRepository;
+        this.genreCatalog = genreCatalog;
         this.storyGenreRepository = storyGenreRepository;
         this.storyViewRepository = storyViewRepository;
-        this.userServiceClient = userServiceClient;
-        this.objectMapper = objectMapper;
+        this.storyResponseAssembler = storyResponseAssembler;
+        this.storyResponseCache = storyResponseCache;
+        this.storyNumberGenerator = storyNumberGenerator;
+        this.likeCounter = likeCounter;
+        this.engagementBuffer = engagementBuffer;
+        this.viewerSketchStore = viewerSketchStore;
+        this.eventPublisher = eventPublisher;
+        this.timelineJsonParser = timelineJsonParser;
     }
 
     @Transactional
@@ -82,25 +113,27 @@ public class StoryService {
         if (storyRepository.findByTitleAndAuthorUsername(request.getTitle(), authorUsername).isPresent()) {
             throw new IllegalArgumentException("A story with this title already exists");
         }
+        List<TimelineEntryDto> timeline = timelineJsonParser.parse(request.getTimelineJson());
         
         Story story = new Story(request.getTitle(), request.getContent(), authorUsername);
         story.setDescription(request.getDescription());
         story.setWriters(request.getWriters());
-        story.setTimelineJson(request.getTimelineJson());
         story.setIsPublished(request.getIsPublished() != null ? request.getIsPublished() : false);
         story.setShowSceneTimeline(request.getShowSceneTimeline() != null ? request.getShowSceneTimeline() : true);
+        story.setExactViewerTracking(Boolean.TRUE.equals(request.getExactViewerTracking()));
         
         // Generate unique story number
-        story.setStoryNumber(generateUniqueStoryNumber());
+        story.setStoryNumber(storyNumberGenerator.nextStoryNumber());
         
         Story saved = storyRepository.save(story);
 
         // Sync scenes from JSON to entities
-        syncScenes(saved, request.getTimelineJson());
+        syncScenes(saved, timeline);
 
         if (request.getImageUrls() != null) {
             for (String url : request.getImageUrls()) {
                 StoryImage img = new StoryImage(url, saved);
+                img.setPosition(saved.getImages().size());
                 saved.getImages().add(img);
             }
         }
@@ -119,59 +152,142 @@ public class StoryService {
         // Handle genres
         if (request.getGenreIds() != null && !request.getGenreIds().isEmpty()) {
             for (Long genreId : request.getGenreIds()) {
-                Genre genre = genreRepository.findById(genreId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Genre not found: " + genreId));
-                StoryGenre storyGenre = new StoryGenre(saved, genre);
+                genreCatalog.requireExists(genreId);
+                StoryGenre storyGenre = new StoryGenre(saved, genreRepository.getReferenceById(genreId));
                 storyGenreRepository.save(storyGenre);
                 saved.getStoryGenres().add(storyGenre);
             }
         }
 
+        // the timeline in the response is read back from the scene rows
+        storyRepository.flush();
+
+        eventPublisher.publishEvent(new StoryChangedEvent(saved.getId(), StoryChangedEvent.Type.CREATED));
         return convertToResponse(saved, authorUsername);
     }
 
     public List<StoryResponse> getAllStories() {
-        ensureAllStoriesHaveNumbers();
-        return storyRepository.findAll().stream()
-            .filter(Story::getIsPublished)
-            .map(s -> convertToResponse(s, null))
-            .collect(Collectors.toList());
+        return storyResponseAssembler.toResponses(storyRepository.findAllByIsPublishedTrue(), null);
     }
 
-    public List<StoryResponse> getAllStoriesForUser(String username) {
-        ensureAllStoriesHaveNumbers();
-        return storyRepository.findAll().stream()
-            .filter(Story::getIsPublished)
-            .map(s -> convertToResponse(s, username))
-            .collect(Collectors.toList());
+    public List<StoryResponse> getAllStoriesForUser(String username, StoryFieldSet fields) {
+        if (fields.isFull()) {
+            return storyResponseAssembler.toResponses(storyRepository.findAllByIsPublishedTrue(), username);
+        }
+        return storyResponseAssembler.toSummaryResponses(storyRepository.findPublishedSummaries(), username, fields);
     }
 
-    public List<StoryResponse> getUserStories(String username) {
-        ensureAllStoriesHaveNumbers();
-        return storyRepository.findAllByAuthorUsername(username).stream()
-            .map(s -> convertToResponse(s, username))
-            .collect(Collectors.toList());
+    /**
+     * Returns one page of the published story feed. The page is fetched with a
+     * keyset query (one row more than requested to detect whether another page
+     * exists), so it costs the same at any depth. Summary views read the page
+     * through a projection that skips the TEXT columns.
+     */
+    public StoryFeedResponse getFeed(String sortParam, Long genreId, String cursorParam, Integer limit, String username,
+                                     StoryFieldSet fields) {
+        StoryFeedSort sort = StoryFeedSort.fromParam(sortParam);
+        StoryFeedCursor cursor = cursorParam != null && !cursorParam.isBlank()
+            ? StoryFeedCursor.decode(cursorParam, sort)
+            : null;
+        int pageSize = limit == null ? DEFAULT_FEED_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+
+        if (!fields.isFull()) {
+            List<StoryResponse> summaries = storyRepository.findPublishedFeedSummaries(sort, genreId, cursor, pageSize + 1);
+            String nextCursor = null;
+            if (summaries.size() > pageSize) {
+                summaries = new ArrayList<>(summaries.subList(0, pageSize));
+                nextCursor = StoryFeedCursor.after(sort, summaries.get(pageSize - 1)).encode();
+            }
+            return new StoryFeedResponse(storyResponseAssembler.toSummaryResponses(summaries, username, fields), nextCursor);
+        }
+
+        List<Story> stories = storyRepository.findPublishedFeed(sort, genreId, cursor, pageSize + 1);
+        String nextCursor = null;
+        if (stories.size() > pageSize) {
+            stories = stories.subList(0, pageSize);
+            nextCursor = StoryFeedCursor.after(sort, stories.get(pageSize - 1)).encode();
+        }
+        return new StoryFeedResponse(storyResponseAssembler.toResponses(stories, username), nextCursor);
+    }
+
+    public List<StoryResponse> getUserStories(String username, StoryFieldSet fields) {
+        if (fields.isFull()) {
+            return storyResponseAssembler.toResponses(storyRepository.findAllByAuthorUsername(username), username);
+        }
+        return storyResponseAssembler.toSummaryResponses(storyRepository.findSummariesByAuthor(username), username, fields);
     }
 
     public StoryResponse getStoryById(Long id) {
-        Story story = storyRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Story not found"));
-        return convertToResponse(story, null);
+        return getStoryById(id, getStoryLiveFields(id, null), false);
     }
 
     public StoryResponse getStoryByIdForUser(Long id, String username) {
-        Story story = storyRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Story not found"));
-        
-        // Increment view count
-        story.setViewCount(story.getViewCount() + 1);
-        storyRepository.save(story);
-        
-        return convertToResponse(story, username);
+        return getStoryById(id, getStoryLiveFields(id, username), false);
+    }
+
+    /**
+     * Version and live fields of a story, enough to compute its ETag without
+     * building the response.
+     */
+    public StoryLiveFields getStoryLiveFields(Long id, String username) {
+        return storyResponseCache.getLiveFields(id, username);
+    }
+
+    /**
+     * With {@code rawTimeline} the timeline is embedded as JSON in
+     * {@code timeline} instead of as an escaped string in
+     * {@code timelineJson}. Stories whose stored timeline is not valid JSON
+     * keep the string.
+     */
+    public StoryResponse getStoryById(Long id, StoryLiveFields live, boolean rawTimeline) {
+        StoryResponse resp = storyResponseCache.get(id, live);
+        if (rawTimeline && resp.getTimeline() != null) {
+            resp.setTimelineJson(null);
+        } else {
+            resp.setTimeline(null);
+        }
+        return resp;
+    }
+
+    /**
+     * Several stories by id, in request order, with an item marking each id
+     * that has no story. All stories are read with one {@code IN} query and
+     * enriched together; repeated ids are read once but still count towards
+     * the batch limit, since each one gets its own item.
+     */
+    public StoryBatchResponse getStoriesByIds(List<Long> ids, String username, StoryFieldSet fields) {
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one story id is required");
+        }
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " stories can be fetched at once");
+        }
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+
+        List<StoryResponse> responses;
+        if (fields.isFull()) {
+            responses = storyResponseAssembler.toResponses(storyRepository.findAllById(uniqueIds), username);
+        } else {
+            responses = storyResponseAssembler.toSummaryResponses(
+                storyRepository.findSummariesByIds(uniqueIds), username, fields);
+        }
+        Map<Long, StoryResponse> byId = new HashMap<>();
+        responses.forEach(resp -> byId.put(resp.getId(), resp));
+
+        List<StoryBatchResponse.Item> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            items.add(new StoryBatchResponse.Item(id, byId.get(id)));
+        }
+        return new StoryBatchResponse(items);
     }
 
     @Transactional
     public StoryResponse updateStory(Long id, StoryRequest request, String username) {
         Story story = storyRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Story not found"));
         if (!story.getAuthorUsername().equals(username)) throw new UnauthorizedException("Unauthorized");
+        if (request.getVersion() != null && !request.getVersion().equals(story.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Story.class, id);
+        }
 
         // Validate title is not empty
         if (request.getTitle() == null || request.getTitle().trim().isEmpty()) {
@@ -182,39 +298,134 @@ public class StoryService {
         if (storyRepository.findByTitleAndAuthorUsernameAndIdNot(request.getTitle(), username, id).isPresent()) {
             throw new IllegalArgumentException("A story with this title already exists");
         }
+        List<TimelineEntryDto> timeline = timelineJsonParser.parse(request.getTimelineJson());
 
         story.setTitle(request.getTitle());
         story.setContent(request.getContent());
         story.setDescription(request.getDescription());
         story.setWriters(request.getWriters());
-        story.setTimelineJson(request.getTimelineJson());
+        if (timeline != null) {
+            // now held by the scene rows
+            story.setTimelineJson(null);
+        }
         if (request.getIsPublished() != null) {
             story.setIsPublished(request.getIsPublished());
         }
-        System.out.println("Received showSceneTimeline: " + request.getShowSceneTimeline());
         if (request.getShowSceneTimeline() != null) {
             story.setShowSceneTimeline(request.getShowSceneTimeline());
-            System.out.println("Set showSceneTimeline to: " + request.getShowSceneTimeline());
-        } else {
-            System.out.println("showSceneTimeline is NULL - not updating");
         }
+        if (request.getExactViewerTracking() != null) {
+            story.setExactViewerTracking(request.getExactViewerTracking());
+        }
+        // Always dirty the row, so the version is bumped even when only images, characters or genres changed
+        story.setUpdatedAt(LocalDateTime.now());
 
-        // Delete old characters and images
-        for (Character old : story.getCharacters()) {
-            characterRepository.delete(old);
+        replaceImages(story, request.getImageUrls());
+        replaceCharacters(story, request.getCharacters());
+        replaceGenres(story, request.getGenreIds());
+
+        Story updated = storyRepository.save(story);
+        
+        // Sync scenes from JSON to entities
+        syncScenes(updated, timeline);
+        // The version is incremented on flush; flush now so the response carries the new one
+        storyRepository.flush();
+
+        eventPublisher.publishEvent(new StoryChangedEvent(updated.getId(), StoryChangedEvent.Type.UPDATED));
+        return convertToResponse(updated, username);
+    }
+
+    /**
+     * Applies a JSON Merge Patch: only the members present in the patch are
+     * written, so a title or text edit is a single-row update and the
+     * images, characters, genres and scenes are not even loaded.
+     */
+    @Transactional
+    public StoryResponse patchStory(Long id, StoryMergePatch patch, Long expectedVersion, String username) {
+        Story story = storyRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Story not found"));
+        if (!story.getAuthorUsername().equals(username)) throw new UnauthorizedException("Unauthorized");
+        Long version = patch.version() != null ? patch.version() : expectedVersion;
+        if (version != null && !version.equals(story.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Story.class, id);
         }
-        story.getCharacters().clear();
-        story.getImages().clear();
 
-        if (request.getImageUrls() != null) {
-            for (String url : request.getImageUrls()) {
-                StoryImage img = new StoryImage(url, story);
-                story.getImages().add(img);
+        if (patch.has("title")) {
+            String title = patch.text("title");
+            if (!title.equals(story.getTitle())
+                    && storyRepository.findByTitleAndAuthorUsernameAndIdNot(title, username, id).isPresent()) {
+                throw new IllegalArgumentException("A story with this title already exists");
             }
+            story.setTitle(title);
+        }
+        if (patch.has("content")) {
+            story.setContent(patch.text("content"));
         }
+        if (patch.has("description")) {
+            story.setDescription(patch.text("description"));
+        }
+        if (patch.has("writers")) {
+            story.setWriters(patch.text("writers"));
+        }
+        if (patch.has("isPublished")) {
+            story.setIsPublished(patch.flag("isPublished"));
+        }
+        if (patch.has("showSceneTimeline")) {
+            story.setShowSceneTimeline(patch.flag("showSceneTimeline"));
+        }
+        if (patch.has("exactViewerTracking")) {
+            story.setExactViewerTracking(patch.flag("exactViewerTracking"));
+        }
+        if (patch.has("imageUrls")) {
+            replaceImages(story, patch.imageUrls());
+        }
+        if (patch.has("characters")) {
+            replaceCharacters(story, patch.characters());
+        }
+        if (patch.has("genreIds")) {
+            replaceGenres(story, patch.genreIds());
+        }
+        if (patch.has("timelineJson")) {
+            // unlike a full update, an explicit null in a merge patch clears the timeline
+            List<TimelineEntryDto> timeline = timelineJsonParser.parse(patch.text("timelineJson"));
+            story.setTimelineJson(null);
+            syncScenes(story, timeline != null ? timeline : List.of());
+        }
+        story.setUpdatedAt(LocalDateTime.now());
+        storyRepository.flush();
 
-        if (request.getCharacters() != null) {
-            for (CharacterRequest cr : request.getCharacters()) {
+        eventPublisher.publishEvent(new StoryChangedEvent(id, StoryChangedEvent.Type.UPDATED));
+        return convertToResponse(story, username);
+    }
+
+    /**
+     * Keeps the images up to the first differing URL and replaces the rest.
+     */
+    private void replaceImages(Story story, List<String> imageUrls) {
+        List<String> desired = imageUrls != null ? imageUrls : List.of();
+        List<StoryImage> images = story.getImages();
+        int common = 0;
+        while (common < images.size() && common < desired.size()
+                && Objects.equals(images.get(common).getUrl(), desired.get(common))) {
+            common++;
+        }
+        while (images.size() > common) {
+            images.remove(images.size() - 1);
+        }
+        for (String url : desired.subList(common, desired.size())) {
+            StoryImage image = new StoryImage(url, story);
+            image.setPosition(images.size());
+            images.add(image);
+        }
+    }
+
+    private void replaceCharacters(Story story, List<CharacterRequest> characters) {
+        for (Character old : story.getCharacters()) {
+            characterRepository.delete(old);
+        }
+        story.getCharacters().clear();
+
+        if (characters != null) {
+            for (CharacterRequest cr : characters) {
                 Character c = new Character(cr.getName(), cr.getDescription(), story);
                 c.setRole(cr.getRole());
                 c.setActorName(cr.getActorName());
@@ -223,25 +434,27 @@ public class StoryService {
                 story.getCharacters().add(c);
             }
         }
+    }
 
-        // Update genres
-        story.getStoryGenres().clear();
-        if (request.getGenreIds() != null && !request.getGenreIds().isEmpty()) {
-            for (Long genreId : request.getGenreIds()) {
-                Genre genre = genreRepository.findById(genreId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Genre not found: " + genreId));
-                StoryGenre storyGenre = new StoryGenre(story, genre);
-                storyGenreRepository.save(storyGenre);
-                story.getStoryGenres().add(storyGenre);
+    /**
+     * Removes the genres not in {@code genreIds} and adds the missing ones;
+     * genres the story keeps are not rewritten.
+     */
+    private void replaceGenres(Story story, List<Long> genreIds) {
+        Set<Long> missing = new LinkedHashSet<>(genreIds != null ? genreIds : List.of());
+        Iterator<StoryGenre> existing = story.getStoryGenres().iterator();
+        while (existing.hasNext()) {
+            if (!missing.remove(existing.next().getGenre().getId())) {
+                existing.remove();
             }
         }
-
-        Story updated = storyRepository.save(story);
-        
-        // Sync scenes from JSON to entities
-        syncScenes(updated, request.getTimelineJson());
-
-        return convertToResponse(updated, username);
+        for (Long genreId : missing) {
+            genreCatalog.requireExists(genreId);
+            // a reference, not a load: the catalog has already vouched for the id
+            StoryGenre storyGenre = new StoryGenre(story, genreRepository.getReferenceById(genreId));
+            storyGenreRepository.save(storyGenre);
+            story.getStoryGenres().add(storyGenre);
+        }
     }
 
     @Transactional
@@ -250,6 +463,7 @@ public class StoryService {
         if (!story.getAuthorUsername().equals(username)) throw new UnauthorizedException("Unauthorized");
         story.setIsPublished(!story.getIsPublished());
         storyRepository.save(story);
+        eventPublisher.publishEvent(new StoryChangedEvent(id, StoryChangedEvent.Type.PUBLISH_TOGGLED));
     }
 
     @Transactional
@@ -258,8 +472,8 @@ public class StoryService {
         if (!likeRepository.existsByStoryAndUsername(story, username)) {
             Like like = new Like(story, username);
             likeRepository.save(like);
-            story.setLikeCount(story.getLikeCount() + 1);
-            storyRepository.save(story);
+            likeCounter.increment(id);
+            eventPublisher.publishEvent(EngagementEvent.like(id));
         }
         return convertToResponse(story, username);
     }
@@ -270,8 +484,8 @@ public class StoryService {
         Like like = likeRepository.findByStoryAndUsername(story, username).orElse(null);
         if (like != null) {
             likeRepository.delete(like);
-            story.setLikeCount(Math.max(0, story.getLikeCount() - 1));
-            storyRepository.save(story);
+            likeCounter.decrement(id);
+            eventPublisher.publishEvent(EngagementEvent.unlike(id));
         }
         return convertToResponse(story, username);
     }
@@ -296,11 +510,14 @@ public class StoryService {
         return convertToResponse(story, username);
     }
 
-    public List<StoryResponse> getFavoriteStories(String username) {
-        List<Favorite> favorites = favoriteRepository.findByUsername(username);
-        return favorites.stream()
-            .map(fav -> convertToResponse(fav.getStory(), username))
+    public List<StoryResponse> getFavoriteStories(String username, StoryFieldSet fields) {
+        if (!fields.isFull()) {
+            return storyResponseAssembler.toSummaryResponses(storyRepository.findFavoriteSummaries(username), username, fields);
+        }
+        List<Story> stories = favoriteRepository.findByUsername(username).stream()
+            .map(Favorite::getStory)
             .collect(Collectors.toList());
+        return storyResponseAssembler.toResponses(stories, username);
     }
 
     @Transactional
@@ -308,139 +525,113 @@ public class StoryService {
         Story story = storyRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Story not found"));
         if (!story.getAuthorUsername().equals(username)) throw new UnauthorizedException("Unauthorized");
         storyRepository.delete(story);
+        likeCounter.deleteShards(id);
+        viewerSketchStore.deleteSketches(id);
+        eventPublisher.publishEvent(new StoryChangedEvent(id, StoryChangedEvent.Type.DELETED));
     }
 
-    private void syncScenes(Story story, String timelineJson) {
-        if (timelineJson == null || timelineJson.isEmpty()) return;
+    /**
+     * Brings the story's scenes in line with its timeline JSON as a keyed
+     * diff: entries are matched to scenes by their client-side id, matched
+     * scenes are updated in place (Hibernate writes only changed columns),
+     * new entries are inserted and scenes without an entry are deleted.
+     * Character names and media are rewritten only when they differ, and
+     * media only from the first differing item on.
+     *
+     * Scenes saved before entries were keyed are matched by position. The
+     * entries come from {@link TimelineJsonParser}, which has already
+     * validated the JSON. The scenes are the only copy of the timeline, so a
+     * failure here propagates and rolls back the whole update.
+     */
+    private void syncScenes(Story story, List<TimelineEntryDto> entries) {
+        if (entries == null) return;
 
-        try {
-            TimelineEntryDto[] entries = objectMapper.readValue(timelineJson, TimelineEntryDto[].class);
-            
-            // Clear existing scenes for this story to avoid duplicates/orphans
-            List<Scene> existingScenes = sceneRepository.findByStoryId(story.getId());
-            sceneRepository.deleteAll(existingScenes);
+        List<Scene> existing = new ArrayList<>(sceneRepository.findWithMediaByStoryId(story.getId()));
+        if (!existing.isEmpty()) {
+            sceneRepository.findWithCharacterNamesByStoryId(story.getId());
+        }
+        // same order as the materialized timeline: unordered scenes last, ties by id
+        existing.sort(Comparator.comparing(Scene::getOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Scene::getId));
+        Map<String, Scene> byEntryId = new HashMap<>();
+        Deque<Scene> unkeyed = new ArrayDeque<>();
+        for (Scene scene : existing) {
+            String entryId = scene.getTimelineEntryId();
+            if (entryId == null || byEntryId.putIfAbsent(entryId, scene) != null) {
+                unkeyed.add(scene);
+            }
+        }
 
-            for (TimelineEntryDto entry : entries) {
-                Scene scene = new Scene();
+        List<Scene> created = new ArrayList<>();
+        for (TimelineEntryDto entry : entries) {
+            String entryId = timelineEntryId(entry);
+            Scene scene = entryId != null ? byEntryId.remove(entryId) : null;
+            if (scene == null) {
+                scene = unkeyed.poll();
+            }
+            if (scene == null) {
+                scene = new Scene();
                 scene.setStory(story);
-                scene.setTitle(entry.getEvent());
-                scene.setDescription(entry.getDescription());
-                scene.setOrder(entry.getOrder());
-                
-                if (entry.getCharacters() != null) {
-                    scene.setCharacterNames(new ArrayList<>(entry.getCharacters()));
-                }
-
-                Scene savedScene = sceneRepository.save(scene);
-
-                // Handle Media
-                List<SceneMedia> mediaList = new ArrayList<>();
-                
-                if (entry.getImageUrls() != null) {
-                    for (String url : entry.getImageUrls()) {
-                        SceneMedia media = new SceneMedia();
-                        media.setScene(savedScene);
-                        media.setUrl(url);
-                        media.setType(SceneMedia.MediaType.IMAGE);
-                        mediaList.add(media);
-                    }
-                }
-                
-                if (entry.getVideoUrls() != null) {
-                    for (String url : entry.getVideoUrls()) {
-                        SceneMedia media = new SceneMedia();
-                        media.setScene(savedScene);
-                        media.setUrl(url);
-                        media.setType(SceneMedia.MediaType.VIDEO);
-                        mediaList.add(media);
-                    }
-                }
-                
-                if (entry.getAudioUrls() != null) {
-                    for (String url : entry.getAudioUrls()) {
-                        SceneMedia media = new SceneMedia();
-                        media.setScene(savedScene);
-                        media.setUrl(url);
-                        media.setType(SceneMedia.MediaType.AUDIO);
-                        mediaList.add(media);
-                    }
-                }
-                
-                if (!mediaList.isEmpty()) {
-                    sceneMediaRepository.saveAll(mediaList);
-                }
+                created.add(scene);
             }
-        } catch (Exception e) {
-            System.err.println("Error syncing scenes: " + e.getMessage());
-            e.printStackTrace();
+            applyTimelineEntry(scene, entry, entryId);
         }
+
+        List<Scene> removed = new ArrayList<>(byEntryId.values());
+        removed.addAll(unkeyed);
+        sceneRepository.deleteAll(removed);
+        sceneRepository.saveAll(created);
     }
 
-    private StoryResponse convertToResponse(Story story, String currentUsername) {
-        StoryResponse resp = new StoryResponse();
-        resp.setId(story.getId());
-        resp.setTitle(story.getTitle());
-        resp.setContent(story.getContent());
-        resp.setDescription(story.getDescription());
-        resp.setWriters(story.getWriters());
-        resp.setTimelineJson(story.getTimelineJson());
-        resp.setAuthorUsername(story.getAuthorUsername());
-        resp.setCreatedAt(story.getCreatedAt());
-        resp.setIsPublished(story.getIsPublished());
-        resp.setLikeCount(story.getLikeCount());
-        resp.setViewCount(story.getViewCount());
-        resp.setCommentCount((int) commentRepository.countByStory(story));
-        resp.setStoryNumber(story.getStoryNumber());
-        resp.setTotalWatchTime(story.getTotalWatchTime());
-        resp.setShowSceneTimeline(story.getShowSceneTimeline());
-        
-        // Fetch author email from User Service
-        try {
-            Map<String, Object> userData = userServiceClient.getUserByUsername(story.getAuthorUsername());
-            if (userData != null && userData.containsKey("email")) {
-                resp.setAuthorEmail((String) userData.get("email"));
-            }
-        } catch (Exception e) {
-            // Gracefully handle if user-service unavailable or user not found
-            resp.setAuthorEmail(null);
+    private static String timelineEntryId(TimelineEntryDto entry) {
+        String id = entry.getId();
+        return id == null || id.isBlank() || id.length() > 64 ? null : id;
+    }
+
+    private void applyTimelineEntry(Scene scene, TimelineEntryDto entry, String entryId) {
+        scene.setTimelineEntryId(entryId);
+        // scenes.title is NOT NULL
+        scene.setTitle(entry.getEvent() != null ? entry.getEvent() : "");
+        scene.setDescription(entry.getDescription());
+        scene.setOrder(entry.getOrder());
+
+        List<String> characterNames = entry.getCharacters() != null ? entry.getCharacters() : List.of();
+        // copied first: Hibernate's bags compare by identity
+        if (!new ArrayList<>(scene.getCharacterNames()).equals(characterNames)) {
+            scene.setCharacterNames(new ArrayList<>(characterNames));
         }
-        
-        if (currentUsername != null) {
-            resp.setIsLikedByCurrentUser(likeRepository.existsByStoryAndUsername(story, currentUsername));
-            resp.setIsFavoritedByCurrentUser(favoriteRepository.existsByStoryAndUsername(story, currentUsername));
-        } else {
-            resp.setIsLikedByCurrentUser(false);
-            resp.setIsFavoritedByCurrentUser(false);
+
+        List<SceneMedia> desired = new ArrayList<>();
+        addSceneMedia(desired, entry.getImageUrls(), SceneMedia.MediaType.IMAGE, scene);
+        addSceneMedia(desired, entry.getVideoUrls(), SceneMedia.MediaType.VIDEO, scene);
+        addSceneMedia(desired, entry.getAudioUrls(), SceneMedia.MediaType.AUDIO, scene);
+
+        // Keep the common prefix, so appending media costs only the inserts
+        List<SceneMedia> current = scene.getMedia();
+        int common = 0;
+        while (common < current.size() && common < desired.size()
+                && current.get(common).getType() == desired.get(common).getType()
+                && Objects.equals(current.get(common).getUrl(), desired.get(common).getUrl())) {
+            common++;
         }
-        
-        List<String> imageUrls = story.getImages().stream()
-            .map(StoryImage::getUrl)
-            .collect(Collectors.toList());
-        resp.setImageUrls(imageUrls);
-        
-        List<CharacterResponse> chars = story.getCharacters().stream().map(c -> {
-            CharacterResponse cr = new CharacterResponse();
-            cr.setId(c.getId());
-            cr.setName(c.getName());
-            cr.setDescription(c.getDescription());
-            cr.setRole(c.getRole());
-            cr.setActorName(c.getActorName());
-            cr.setImageUrls(c.getImageUrls());
-            return cr;
-        }).collect(Collectors.toList());
-        resp.setCharacters(chars);
-
-        // Add genres
-        List<GenreResponse> genres = story.getStoryGenres().stream().map(sg -> {
-            GenreResponse gr = new GenreResponse();
-            gr.setId(sg.getGenre().getId());
-            gr.setName(sg.getGenre().getName());
-            gr.setDescription(sg.getGenre().getDescription());
-            return gr;
-        }).collect(Collectors.toList());
-        resp.setGenres(genres);
+        while (current.size() > common) {
+            current.remove(current.size() - 1);
+        }
+        current.addAll(desired.subList(common, desired.size()));
+    }
 
-        return resp;
+    private static void addSceneMedia(List<SceneMedia> media, List<String> urls, SceneMedia.MediaType type, Scene scene) {
+        if (urls != null) {
+            for (String url : urls) {
+                SceneMedia item = new SceneMedia(url, type, scene);
+                item.setPosition(media.size());
+                media.add(item);
+            }
+        }
+    }
+
+    private StoryResponse convertToResponse(Story story, String currentUsername) {
+        return storyResponseAssembler.toResponse(story, currentUsername);
     }
 
     // Comment methods
@@ -449,6 +640,8 @@ public class StoryService {
         Story story = storyRepository.findById(storyId).orElseThrow(() -> new ResourceNotFoundException("Story not found"));
         Comment comment = new Comment(story, username, request.getContent());
         Comment saved = commentRepository.save(comment);
+        storyRepository.incrementCommentCount(storyId);
+        eventPublisher.publishEvent(EngagementEvent.comment(storyId));
         return convertToCommentResponse(saved);
     }
 
@@ -463,7 +656,10 @@ public class StoryService {
     public void deleteComment(Long commentId, String username) {
         Comment comment = commentRepository.findById(commentId).orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
         if (!comment.getUsername().equals(username)) throw new UnauthorizedException("Unauthorized");
+        Long storyId = comment.getStory().getId();
         commentRepository.delete(comment);
+        storyRepository.decrementCommentCount(storyId);
+        eventPublisher.publishEvent(EngagementEvent.uncomment(storyId));
     }
 
     private CommentResponse convertToCommentResponse(Comment comment) {
@@ -503,14 +699,16 @@ public class StoryService {
         character.setImageUrls(request.getImageUrls());
         
         Character updated = characterRepository.save(character);
+        if (updated.getStory() != null) {
+            storyRepository.touch(updated.getStory().getId(), LocalDateTime.now());
+            eventPublisher.publishEvent(new StoryChangedEvent(updated.getStory().getId(), StoryChangedEvent.Type.UPDATED));
+        }
         return convertToCharacterResponse(updated);
     }
 
     public List<CharacterResponse> getAllCharactersForUser(String username) {
         // Get all characters from stories owned by the user
-        List<Story> userStories = storyRepository.findAllByAuthorUsername(username);
-        return userStories.stream()
-            .flatMap(story -> story.getCharacters().stream())
+        return characterRepository.findWithImagesByAuthor(username).stream()
             .map(this::convertToCharacterResponse)
             .collect(Collectors.toList());
     }
@@ -527,6 +725,10 @@ public class StoryService {
         }
         
         characterRepository.delete(character);
+        if (character.getStory() != null) {
+            storyRepository.touch(character.getStory().getId(), LocalDateTime.now());
+            eventPublisher.publishEvent(new StoryChangedEvent(character.getStory().getId(), StoryChangedEvent.Type.UPDATED));
+        }
     }
 
     private CharacterResponse convertToCharacterResponse(Character character) {
@@ -542,103 +744,58 @@ public class StoryService {
 
     // Genre methods
     public List<GenreResponse> getAllGenres() {
-        return genreRepository.findAll().stream()
-            .map(this::convertToGenreResponse)
-            .collect(Collectors.toList());
-    }
-
-    private GenreResponse convertToGenreResponse(Genre genre) {
-        GenreResponse resp = new GenreResponse();
-        resp.setId(genre.getId());
-        resp.setName(genre.getName());
-        resp.setDescription(genre.getDescription());
-        return resp;
+        return genreCatalog.getAll();
     }
     
     // View tracking methods
-    @Transactional
+    /**
+     * Views are counted by the write-behind {@link EngagementBuffer}. The
+     * primary-key probe keeps unknown ids out of the buffer and the analytics
+     * listeners.
+     */
     public void incrementViewCount(Long storyId, String username) {
-        Story story = storyRepository.findById(storyId)
-            .orElseThrow(() -> new ResourceNotFoundException("Story not found with id: " + storyId));
-        
-        // Check if this user has already viewed this story
-        var existingView = storyViewRepository.findByStoryIdAndUsername(storyId, username);
-        
-        if (existingView.isEmpty()) {
-            // First time viewing - create new StoryView and increment story view count
-            StoryView storyView = new StoryView(story, username);
-            storyViewRepository.save(storyView);
-            
-            story.setViewCount((story.getViewCount() != null ? story.getViewCount() : 0) + 1);
-            storyRepository.save(story);
-        } else {
-            // User has viewed before - just update last viewed time but don't increment count
-            StoryView storyView = existingView.get();
-            storyView.setLastViewedAt(LocalDateTime.now());
-            storyView.setViewCount(storyView.getViewCount() + 1);
-            storyViewRepository.save(storyView);
-        }
+        requireStoryExists(storyId);
+        engagementBuffer.recordView(storyId, username);
+        eventPublisher.publishEvent(EngagementEvent.view(storyId));
     }
-    
-    @Transactional
+
     public void trackWatchTime(Long storyId, String username, Integer watchTime) {
-        Story story = storyRepository.findById(storyId)
-            .orElseThrow(() -> new ResourceNotFoundException("Story not found with id: " + storyId));
-        
-        // Add to total watch time
-        Long currentWatchTime = story.getTotalWatchTime() != null ? story.getTotalWatchTime() : 0L;
-        story.setTotalWatchTime(currentWatchTime + watchTime);
-        storyRepository.save(story);
-        
-        System.out.println("User " + (username != null ? username : "anonymous") + 
-                         " watched story " + storyId + " for " + watchTime + " seconds. Total: " + story.getTotalWatchTime());
+        requireStoryExists(storyId);
+        engagementBuffer.recordWatchTime(storyId, watchTime);
+        eventPublisher.publishEvent(EngagementEvent.watchTime(storyId, watchTime));
     }
-    
-    /**
-     * Ensures all existing stories have story numbers.
-     * This is a migration helper that runs on-demand.
-     */
-    @Transactional
-    private void ensureAllStoriesHaveNumbers() {
-        List<Story> storiesWithoutNumbers = storyRepository.findAll().stream()
-            .filter(story -> story.getStoryNumber() == null || story.getStoryNumber().isEmpty())
-            .collect(Collectors.toList());
-        
-        if (!storiesWithoutNumbers.isEmpty()) {
-            System.out.println("Found " + storiesWithoutNumbers.size() + " stories without story numbers. Generating...");
-            for (Story story : storiesWithoutNumbers) {
-                story.setStoryNumber(generateUniqueStoryNumber());
-                storyRepository.save(story);
-            }
-            System.out.println("Story numbers generated successfully.");
+
+    private void requireStoryExists(Long storyId) {
+        if (!storyRepository.existsById(storyId)) {
+            throw new ResourceNotFoundException("Story not found with id: " + storyId);
         }
     }
-    
+
     /**
-     * Generates a unique story number starting with 5 digits (10000-99999),
-     * then moving to 6 digits (100000-999999) when all 5-digit numbers are used, and so on.
+     * Unique signed-in viewers of a story. Without a range this reads the
+     * all-time sketch (or counts story_views for exact-tracking stories); with
+     * a range the daily sketches are merged. Only the author can see them.
      */
-    private String generateUniqueStoryNumber() {
-        List<String> existingNumbers = storyRepository.findAllStoryNumbersOrderedDesc();
-        
-        if (existingNumbers.isEmpty()) {
-            return "10000"; // Start with first 5-digit number
+    public UniqueViewersResponse getUniqueViewers(Long storyId, String username, LocalDate from, LocalDate to) {
+        Story story = storyRepository.findById(storyId)
+            .orElseThrow(() -> new ResourceNotFoundException("Story not found with id: " + storyId));
+        if (username == null || !story.getAuthorUsername().equals(username)) {
+            throw new UnauthorizedException("Only the author can view unique viewers");
         }
-        
-        // Get the highest number
-        String highestNumber = existingNumbers.get(0);
-        int currentLength = highestNumber.length();
-        long currentValue = Long.parseLong(highestNumber);
-        
-        // Calculate max value for current length (e.g., 99999 for 5 digits)
-        long maxForCurrentLength = (long) Math.pow(10, currentLength) - 1;
-        
-        if (currentValue < maxForCurrentLength) {
-            // Still have room in current digit length
-            return String.valueOf(currentValue + 1);
-        } else {
-            // Move to next digit length (e.g., from 99999 to 100000)
-            return String.valueOf((long) Math.pow(10, currentLength));
+        if (from == null && to == null) {
+            if (Boolean.TRUE.equals(story.getExactViewerTracking())) {
+                return new UniqueViewersResponse(storyId, storyViewRepository.countUniqueViewersByStoryId(storyId), true, null, null);
+            }
+            return new UniqueViewersResponse(storyId, viewerSketchStore.estimateAllTime(storyId), false, null, null);
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(MAX_VIEWER_RANGE_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_VIEWER_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_VIEWER_RANGE_DAYS + " days");
         }
+        return new UniqueViewersResponse(storyId, viewerSketchStore.estimateRange(storyId, start, end), false, start, end);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package com.storyapp.story.service;
+
+import com.storyapp.story.dto.StoryStatsBucket;
+import com.storyapp.story.dto.StoryStatsResponse;
+import com.storyapp.story.exception.ResourceNotFoundException;
+import com.storyapp.story.exception.UnauthorizedException;
+import com.storyapp.story.model.Story;
+import com.storyapp.story.model.StoryStatsDaily;
+import com.storyapp.story.model.StoryStatsHourly;
+import com.storyapp.story.repository.StoryRepository;
+import com.storyapp.story.repository.StoryStatsDailyRepository;
+import com.storyapp.story.repository.StoryStatsHourlyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers engagement questions ("views in the last 24h") from the hourly and
+ * daily rollup tables. A request reads at most one rollup row per bucket, so
+ * its cost is bounded by the bucket limits below, not by how much history
+ * exists.
+ */
+@Service
+public class StoryStatsService {
+
+    private static final int MAX_HOURLY_BUCKETS = 24 * 31;
+    private static final int MAX_DAILY_BUCKETS = 366;
+
+    private final StoryRepository storyRepository;
+    private final StoryStatsHourlyRepository hourlyRepository;
+    private final StoryStatsDailyRepository dailyRepository;
+    private final int hourlyRetentionDays;
+    private final ZoneId zone;
+
+    public StoryStatsService(StoryRepository storyRepository, StoryStatsHourlyRepository hourlyRepository,
+                             StoryStatsDailyRepository dailyRepository,
+                             @Value("${stats.hourly-retention-days:14}") int hourlyRetentionDays,
+                             @Value("${stats.time-zone:}") String timeZone) {
+        this.storyRepository = storyRepository;
+        this.hourlyRepository = hourlyRepository;
+        this.dailyRepository = dailyRepository;
+        this.hourlyRetentionDays = hourlyRetentionDays;
+        this.zone = timeZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(timeZone);
+    }
+
+    /**
+     * @param granularity {@code hour} (default) or {@code day}
+     * @param from        inclusive; defaults to 24 hours (hour) or 30 days (day) before {@code to}
+     * @param to          exclusive; defaults to now
+     */
+    public StoryStatsResponse getStats(Long storyId, String username, LocalDateTime from, LocalDateTime to,
+                                       String granularity) {
+        Story story = storyRepository.findById(storyId)
+            .orElseThrow(() -> new ResourceNotFoundException("Story not found with id: " + storyId));
+        if (username == null || !story.getAuthorUsername().equals(username)) {
+            throw new UnauthorizedException("Only the author can view story stats");
+        }
+
+        boolean daily;
+        if (granularity == null || granularity.isBlank() || "hour".equalsIgnoreCase(granularity)) {
+            daily = false;
+        } else if ("day".equalsIgnoreCase(granularity)) {
+            daily = true;
+        } else {
+            throw new IllegalArgumentException("Unknown granularity: " + granularity + " (use hour or day)");
+        }
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now(zone);
+        LocalDateTime start = from != null ? from : (daily ? end.minusDays(30) : end.minusHours(24));
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+
+        StoryStatsResponse response = daily
+            ? dailyStats(storyId, start.toLocalDate(), end.minusNanos(1).toLocalDate())
+            : hourlyStats(storyId, start.truncatedTo(ChronoUnit.HOURS), end);
+        response.setStoryId(storyId);
+        return withTotals(response);
+    }
+
+    private StoryStatsResponse hourlyStats(Long storyId, LocalDateTime start, LocalDateTime end) {
+        if (ChronoUnit.HOURS.between(start, end) > MAX_HOURLY_BUCKETS) {
+            throw new IllegalArgumentException("Hourly stats are limited to " + MAX_HOURLY_BUCKETS + " buckets");
+        }
+        if (start.isBefore(LocalDate.now(zone).minusDays(hourlyRetentionDays).atStartOfDay())) {
+            throw new IllegalArgumentException(
+                "Hourly stats are kept for " + hourlyRetentionDays + " days; use granularity=day");
+        }
+        Map<LocalDateTime, StoryStatsBucket> buckets = new LinkedHashMap<>();
+        for (LocalDateTime hour = start; hour.isBefore(end); hour = hour.plusHours(1)) {
+            buckets.put(hour, new StoryStatsBucket(hour, 0L, 0L, 0L));
+        }
+        for (StoryStatsHourly row : hourlyRepository.findRange(storyId, start, end)) {
+            add(buckets.get(row.getBucketStart()), row.getViews(), row.getLikes(), row.getWatchSeconds());
+        }
+        return response("hour", start, end, buckets);
+    }
+
+    /**
+     * Past days come from the daily table; today has no daily row yet and is
+     * summed from its hourly rows.
+     */
+    private StoryStatsResponse dailyStats(Long storyId, LocalDate firstDay, LocalDate lastDay) {
+        if (ChronoUnit.DAYS.between(firstDay, lastDay) >= MAX_DAILY_BUCKETS) {
+            throw new IllegalArgumentException("Daily stats are limited to " + MAX_DAILY_BUCKETS + " buckets");
+        }
+        LocalDate today = LocalDate.now(zone);
+        Map<LocalDateTime, StoryStatsBucket> buckets = new LinkedHashMap<>();
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            buckets.put(day.atStartOfDay(), new StoryStatsBucket(day.atStartOfDay(), 0L, 0L, 0L));
+        }
+        LocalDate lastPastDay = lastDay.isBefore(today) ? lastDay : today.minusDays(1);
+        if (!firstDay.isAfter(lastPastDay)) {
+            for (StoryStatsDaily row : dailyRepository.findRange(storyId, firstDay, lastPastDay)) {
+                add(buckets.get(row.getDay().atStartOfDay()), row.getViews(), row.getLikes(), row.getWatchSeconds());
+            }
+        }
+        if (!today.isBefore(firstDay) && !today.isAfter(lastDay)) {
+            StoryStatsBucket todayBucket = buckets.get(today.atStartOfDay());
+            for (StoryStatsHourly row : hourlyRepository.findRange(storyId, today.atStartOfDay(), today.plusDays(1).atStartOfDay())) {
+                add(todayBucket, row.getViews(), row.getLikes(), row.getWatchSeconds());
+            }
+        }
+        return response("day", firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay(), buckets);
+    }
+
+    private void add(StoryStatsBucket bucket, Long views, Long likes, Long watchSeconds) {
+        if (bucket == null) return;
+        bucket.setViews(bucket.getViews() + views);
+        bucket.setLikes(bucket.getLikes() + likes);
+        bucket.setWatchTime(bucket.getWatchTime() + watchSeconds);
+    }
+
+    private StoryStatsResponse response(String granularity, LocalDateTime from, LocalDateTime to,
+                                        Map<LocalDateTime, StoryStatsBucket> buckets) {
+        StoryStatsResponse response = new StoryStatsResponse();
+        response.setGranularity(granularity);
+        response.setFrom(from);
+        response.setTo(to);
+        response.setBuckets(new ArrayList<>(buckets.values()));
+        return response;
+    }
+
+    private StoryStatsResponse withTotals(StoryStatsResponse response) {
+        long views = 0, likes = 0, watchTime = 0;
+        List<StoryStatsBucket> buckets = response.getBuckets();
+        for (StoryStatsBucket bucket : buckets) {
+            views += bucket.getViews();
+            likes += bucket.getLikes();
+            watchTime += bucket.getWatchTime();
+        }
+        response.setTotalViews(views);
+        response.setTotalLikes(likes);
+        response.setTotalWatchTime(watchTime);
+        return response;
+    }
+}
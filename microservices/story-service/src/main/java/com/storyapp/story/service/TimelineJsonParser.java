@@ -0,0 +1,157 @@
+package com.storyapp.story.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.storyapp.story.dto.TimelineEntryDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a story's timeline JSON (an array of timeline entries) with the
+ * streaming parser, straight into {@link TimelineEntryDto}s and without an
+ * intermediate tree. Also used to check that a timeline is well-formed, so it
+ * can be embedded in responses as raw JSON.
+ *
+ * Limits: {@code timeline.max-chars} for the whole document,
+ * {@code timeline.max-entries} entries, and a nesting depth of
+ * {@value #MAX_DEPTH} (members the parser does not know are skipped, but
+ * still count).
+ */
+@Component
+public class TimelineJsonParser {
+
+    private static final int MAX_DEPTH = 8;
+
+    private final JsonFactory jsonFactory;
+    private final int maxChars;
+    private final int maxEntries;
+
+    public TimelineJsonParser(@Value("${timeline.max-chars:2000000}") int maxChars,
+                              @Value("${timeline.max-entries:2000}") int maxEntries) {
+        this.jsonFactory = JsonFactory.builder()
+            .streamReadConstraints(StreamReadConstraints.builder()
+                .maxNestingDepth(MAX_DEPTH)
+                .maxStringLength(maxChars)
+                .build())
+            .build();
+        this.maxChars = maxChars;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * The entries of {@code timelineJson}; null when it is null or empty,
+     * which leaves a story's scenes alone.
+     *
+     * @throws IllegalArgumentException when the timeline is malformed or over a limit
+     */
+    public List<TimelineEntryDto> parse(String timelineJson) {
+        if (timelineJson == null || timelineJson.isEmpty()) {
+            return null;
+        }
+        if (timelineJson.length() > maxChars) {
+            throw new IllegalArgumentException("Timeline is too large");
+        }
+        try (JsonParser parser = jsonFactory.createParser(timelineJson)) {
+            List<TimelineEntryDto> entries = readEntries(parser);
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException("Unexpected content after the timeline");
+            }
+            return entries;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid timeline JSON: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid timeline JSON");
+        }
+    }
+
+    /**
+     * Whether {@link #parse} would accept the timeline.
+     */
+    public boolean isValid(String timelineJson) {
+        try {
+            return parse(timelineJson) != null;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private List<TimelineEntryDto> readEntries(JsonParser parser) throws IOException {
+        expect(parser.nextToken() == JsonToken.START_ARRAY, "The timeline must be a JSON array");
+        List<TimelineEntryDto> entries = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            expect(token == JsonToken.START_OBJECT, "Timeline entries must be objects");
+            expect(entries.size() < maxEntries, "A timeline may have at most " + maxEntries + " entries");
+            entries.add(readEntry(parser));
+        }
+        return entries;
+    }
+
+    private TimelineEntryDto readEntry(JsonParser parser) throws IOException {
+        TimelineEntryDto entry = new TimelineEntryDto();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "id" -> entry.setId(readScalarText(parser, value, name));
+                case "event" -> entry.setEvent(readText(parser, value, name));
+                case "description" -> entry.setDescription(readText(parser, value, name));
+                case "order" -> {
+                    expect(value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NULL,
+                        "Timeline field 'order' must be an integer");
+                    entry.setOrder(value == JsonToken.VALUE_NULL ? null : parser.getIntValue());
+                }
+                case "characters" -> entry.setCharacters(readTextArray(parser, value, name));
+                case "imageUrls" -> entry.setImageUrls(readTextArray(parser, value, name));
+                case "videoUrls" -> entry.setVideoUrls(readTextArray(parser, value, name));
+                case "audioUrls" -> entry.setAudioUrls(readTextArray(parser, value, name));
+                default -> parser.skipChildren();
+            }
+        }
+        return entry;
+    }
+
+    private static String readText(JsonParser parser, JsonToken value, String name) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(value == JsonToken.VALUE_STRING, "Timeline field '" + name + "' must be a string");
+        return parser.getText();
+    }
+
+    /**
+     * Client ids are usually strings but may be numbers.
+     */
+    private static String readScalarText(JsonParser parser, JsonToken value, String name) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getText();
+        }
+        return readText(parser, value, name);
+    }
+
+    private static List<String> readTextArray(JsonParser parser, JsonToken value, String name) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(value == JsonToken.START_ARRAY, "Timeline field '" + name + "' must be an array");
+        List<String> values = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            values.add(readText(parser, token, name));
+        }
+        return values;
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.storyapp.story.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a story's timeline JSON from its scene rows, which are the only
+ * stored copy of the timeline. The JSON has the shape the editor sends
+ * (id, event, description, characters, imageUrls, videoUrls, audioUrls,
+ * order), scenes sorted by order.
+ *
+ * All scenes, media and character names of a batch of stories are read with
+ * one query. Results are cached by story id and version; every scene change
+ * bumps the version, so a cached timeline is never stale, only unused. Reads
+ * inside a transaction are not cached, since their version may never commit.
+ */
+@Component
+public class TimelineMaterializer {
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+
+    // access-ordered; guarded by synchronizing on it
+    private final LinkedHashMap<Long, CachedTimeline> cache = new LinkedHashMap<>(256, 0.75f, true);
+
+    public TimelineMaterializer(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                @Value("${timeline.cache-max-entries:2000}") int maxEntries) {
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Timeline JSON for each given story (id to current version). Stories
+     * without scenes are left out of the result.
+     */
+    public Map<Long, String> getTimelines(Map<Long, Long> versions) {
+        Map<Long, String> timelines = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        synchronized (cache) {
+            versions.forEach((storyId, version) -> {
+                CachedTimeline cached = cache.get(storyId);
+                if (cached != null && cached.version.equals(version)) {
+                    if (cached.json != null) {
+                        timelines.put(storyId, cached.json);
+                    }
+                } else {
+                    missing.add(storyId);
+                }
+            });
+        }
+        if (missing.isEmpty()) {
+            return timelines;
+        }
+
+        Map<Long, String> loaded = load(missing);
+        timelines.putAll(loaded);
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            synchronized (cache) {
+                for (Long storyId : missing) {
+                    Long version = versions.get(storyId);
+                    if (version != null) {
+                        cache.put(storyId, new CachedTimeline(version, loaded.get(storyId)));
+                    }
+                }
+                while (cache.size() > maxEntries) {
+                    cache.remove(cache.keySet().iterator().next());
+                }
+            }
+        }
+        return timelines;
+    }
+
+    /**
+     * Media rows and character rows are stacked with UNION ALL rather than
+     * joined side by side, which would multiply them. A scene's characters
+     * come out in position order, as the editor gave them; media are sorted by
+     * position when written.
+     */
+    private Map<Long, String> load(List<Long> storyIds) {
+        Map<Long, Map<Long, SceneRow>> scenesByStory = new HashMap<>();
+        namedJdbcTemplate.query(
+            "SELECT s.story_id, s.id, s.timeline_entry_id, s.title, s.description, s.scene_order, "
+                + "m.id AS item_id, m.media_position AS item_position, m.type AS item_type, m.url AS item_value "
+                + "FROM scenes s LEFT JOIN scene_media m ON m.scene_id = s.id WHERE s.story_id IN (:ids) "
+                + "UNION ALL "
+                + "SELECT s.story_id, s.id, NULL, NULL, NULL, NULL, NULL, c.character_position, 'CHARACTER', "
+                + "c.character_name "
+                + "FROM scenes s JOIN scene_characters c ON c.scene_id = s.id WHERE s.story_id IN (:ids) "
+                + "ORDER BY id, item_type, item_position, item_value",
+            new MapSqlParameterSource("ids", storyIds),
+            rs -> {
+                long sceneId = rs.getLong("id");
+                SceneRow scene = scenesByStory.computeIfAbsent(rs.getLong("story_id"), id -> new LinkedHashMap<>())
+                    .computeIfAbsent(sceneId, id -> new SceneRow(id));
+                String itemType = rs.getString("item_type");
+                if (!"CHARACTER".equals(itemType)) {
+                    scene.entryId = rs.getString("timeline_entry_id");
+                    scene.title = rs.getString("title");
+                    scene.description = rs.getString("description");
+                    int order = rs.getInt("scene_order");
+                    scene.order = rs.wasNull() ? null : order;
+                }
+                if (itemType == null) {
+                    return;
+                }
+                String value = rs.getString("item_value");
+                switch (itemType) {
+                    case "CHARACTER" -> scene.characters.add(value);
+                    case "IMAGE" -> scene.images.add(mediaItem(rs, value));
+                    case "VIDEO" -> scene.videos.add(mediaItem(rs, value));
+                    case "AUDIO" -> scene.audios.add(mediaItem(rs, value));
+                    default -> { }
+                }
+            });
+
+        Map<Long, String> timelines = new HashMap<>();
+        scenesByStory.forEach((storyId, scenes) -> timelines.put(storyId, toJson(new ArrayList<>(scenes.values()))));
+        return timelines;
+    }
+
+    private static MediaItem mediaItem(ResultSet rs, String url) throws SQLException {
+        int position = rs.getInt("item_position");
+        return new MediaItem(rs.getLong("item_id"), rs.wasNull() ? null : position, url);
+    }
+
+    private String toJson(List<SceneRow> scenes) {
+        scenes.sort(Comparator.comparing((SceneRow s) -> s.order, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(s -> s.id));
+        StringWriter out = new StringWriter();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartArray();
+            for (SceneRow scene : scenes) {
+                json.writeStartObject();
+                json.writeStringField("id", scene.entryId != null ? scene.entryId : String.valueOf(scene.id));
+                json.writeStringField("event", scene.title);
+                json.writeStringField("description", scene.description);
+                writeStrings(json, "characters", scene.characters);
+                writeMedia(json, "imageUrls", scene.images);
+                writeMedia(json, "videoUrls", scene.videos);
+                writeMedia(json, "audioUrls", scene.audios);
+                if (scene.order != null) {
+                    json.writeNumberField("order", scene.order);
+                } else {
+                    json.writeNullField("order");
+                }
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private static void writeStrings(JsonGenerator json, String field, List<String> values) throws IOException {
+        json.writeArrayFieldStart(field);
+        for (String value : values) {
+            json.writeString(value);
+        }
+        json.writeEndArray();
+    }
+
+    private static void writeMedia(JsonGenerator json, String field, List<MediaItem> media) throws IOException {
+        media.sort(Comparator.comparing((MediaItem item) -> item.position, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingLong(item -> item.id));
+        json.writeArrayFieldStart(field);
+        for (MediaItem item : media) {
+            json.writeString(item.url);
+        }
+        json.writeEndArray();
+    }
+
+    private static final class SceneRow {
+        private final long id;
+        private String entryId;
+        private String title;
+        private String description;
+        private Integer order;
+        private final List<String> characters = new ArrayList<>();
+        private final List<MediaItem> images = new ArrayList<>();
+        private final List<MediaItem> videos = new ArrayList<>();
+        private final List<MediaItem> audios = new ArrayList<>();
+
+        SceneRow(long id) {
+            this.id = id;
+        }
+    }
+
+    private static final class MediaItem {
+        private final long id;
+        private final Integer position;
+        private final String url;
+
+        MediaItem(long id, Integer position, String url) {
+            this.id = id;
+            this.position = position;
+            this.url = url;
+        }
+    }
+
+    private static final class CachedTimeline {
+        private final Long version;
+        // null when the story has no scenes
+        private final String json;
+
+        CachedTimeline(Long version, String json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+}
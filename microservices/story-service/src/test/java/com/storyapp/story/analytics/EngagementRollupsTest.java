@@ -0,0 +1,223 @@
+package com.storyapp.story.analytics;
+
+import com.storyapp.story.batch.StatsCompactionJob;
+import org.h2.Driver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Hour mapping, and flushes against H2 in MySQL mode with the tables of
+ * add-story-stats.sql and a clock the test moves by hand. Events are recorded
+ * yesterday (UTC), so StatsCompactionJob, which rebuilds the last few days,
+ * picks them up.
+ */
+class EngagementRollupsTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+    private static final LocalDate YESTERDAY = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+
+    private final SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new Driver(),
+        "jdbc:h2:mem:rollups;MODE=MySQL;NON_KEYWORDS=DAY;DB_CLOSE_DELAY=-1");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final MovableClock clock = new MovableClock();
+    private EngagementRollups rollups;
+
+    EngagementRollupsTest() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stories (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS story_stats_hourly (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "story_id BIGINT NOT NULL, bucket_start TIMESTAMP(0) NOT NULL, views BIGINT NOT NULL DEFAULT 0, "
+            + "likes BIGINT NOT NULL DEFAULT 0, watch_seconds BIGINT NOT NULL DEFAULT 0, "
+            + "CONSTRAINT uk_story_stats_hourly_story_bucket UNIQUE (story_id, bucket_start))");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS story_stats_daily (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "story_id BIGINT NOT NULL, day DATE NOT NULL, views BIGINT NOT NULL DEFAULT 0, "
+            + "likes BIGINT NOT NULL DEFAULT 0, watch_seconds BIGINT NOT NULL DEFAULT 0, "
+            + "CONSTRAINT uk_story_stats_daily_story_day UNIQUE (story_id, day))");
+        jdbcTemplate.update("INSERT INTO stories (id) VALUES (1), (2)");
+    }
+
+    @AfterEach
+    void dropTables() throws InterruptedException {
+        if (rollups != null) {
+            rollups.shutdown();
+        }
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void hoursFollowTheConfiguredZone() {
+        long minute = minuteOf("2024-06-01T14:59:30Z");
+
+        assertThat(EngagementRollups.hourOf(minute, ZoneOffset.UTC)).isEqualTo(LocalDateTime.parse("2024-06-01T14:00"));
+        assertThat(EngagementRollups.hourOf(minute, NEW_YORK)).isEqualTo(LocalDateTime.parse("2024-06-01T10:00"));
+        assertThat(EngagementRollups.hourOf(minute, ZoneId.of("Asia/Kolkata")))
+            .isEqualTo(LocalDateTime.parse("2024-06-01T20:00"));
+    }
+
+    @Test
+    void consecutiveRealHoursStayConsecutiveAcrossSpringForward() {
+        // 01:59 EST is followed by 03:00 EDT
+        assertThat(EngagementRollups.hourOf(minuteOf("2024-03-10T06:59:00Z"), NEW_YORK))
+            .isEqualTo(LocalDateTime.parse("2024-03-10T01:00"));
+        assertThat(EngagementRollups.hourOf(minuteOf("2024-03-10T07:00:00Z"), NEW_YORK))
+            .isEqualTo(LocalDateTime.parse("2024-03-10T03:00"));
+    }
+
+    @Test
+    void theRepeatedHourFallsIntoOneRowWhenClocksGoBack() {
+        assertThat(EngagementRollups.hourOf(minuteOf("2024-11-03T05:30:00Z"), NEW_YORK))
+            .isEqualTo(EngagementRollups.hourOf(minuteOf("2024-11-03T06:30:00Z"), NEW_YORK));
+        assertThat(EngagementRollups.hourOf(minuteOf("2024-11-03T07:30:00Z"), NEW_YORK))
+            .isEqualTo(LocalDateTime.parse("2024-11-03T02:00"));
+    }
+
+    @Test
+    void flushesCompletedMinutesIntoHourlyRowsAndRebuildsDailyRows() {
+        rollups = rollups(1000, 1000);
+
+        clock.set(at(10, 15));
+        rollups.onEngagement(EngagementEvent.view(1L));
+        rollups.onEngagement(EngagementEvent.view(1L));
+        rollups.onEngagement(EngagementEvent.like(1L));
+        rollups.onEngagement(EngagementEvent.watchTime(1L, 90));
+        rollups.onEngagement(EngagementEvent.view(99L)); // not a story
+        clock.set(at(10, 59));
+        rollups.onEngagement(EngagementEvent.view(1L));
+        rollups.onEngagement(EngagementEvent.like(2L));
+        clock.set(at(11, 0));
+        rollups.onEngagement(EngagementEvent.view(1L));
+
+        // 11:00 is the current minute and stays in memory
+        rollups.flush(rollups.currentMinute());
+        assertThat(hourly(1L, 10)).containsExactly(3L, 1L, 90L);
+        assertThat(hourly(2L, 10)).containsExactly(0L, 1L, 0L);
+        assertThat(hourly(1L, 11)).isNull();
+        assertThat(rowCount("story_stats_hourly")).isEqualTo(2);
+
+        clock.set(at(11, 30));
+        rollups.onEngagement(EngagementEvent.view(1L));
+        rollups.onEngagement(EngagementEvent.unlike(2L));
+        rollups.flush(rollups.currentMinute() + 1);
+        assertThat(hourly(1L, 11)).containsExactly(2L, 0L, 0L);
+        clock.set(at(11, 45));
+        rollups.onEngagement(EngagementEvent.view(1L));
+        rollups.flush(rollups.currentMinute() + 1);
+        // added to the existing row, not replacing it
+        assertThat(hourly(1L, 11)).containsExactly(3L, 0L, 0L);
+        assertThat(hourly(2L, 11)).containsExactly(0L, -1L, 0L);
+
+        StatsCompactionJob compaction = new StatsCompactionJob(jdbcTemplate, 14, 60, "UTC");
+        compaction.processChunk(0, 500);
+        compaction.processChunk(0, 500); // rebuilt, never added twice
+        assertThat(daily(1L)).containsExactly(6L, 1L, 90L);
+        assertThat(daily(2L)).containsExactly(0L, 0L, 0L);
+        assertThat(rowCount("story_stats_daily")).isEqualTo(2);
+    }
+
+    @Test
+    void keepsABoundedBacklogWhileTheDatabaseIsDownAndWritesItOnce() {
+        rollups = rollups(1000, 2);
+        jdbcTemplate.execute("ALTER TABLE story_stats_hourly RENAME TO story_stats_hourly_away");
+
+        for (int hour = 10; hour <= 12; hour++) {
+            clock.set(at(hour, 20));
+            rollups.onEngagement(EngagementEvent.view(1L));
+            rollups.onEngagement(EngagementEvent.view(1L));
+            clock.set(at(hour, 40));
+            assertThatThrownBy(() -> rollups.flush(rollups.currentMinute())).isInstanceOf(RuntimeException.class);
+        }
+
+        // three hours pending, the oldest dropped to stay within two rows
+        jdbcTemplate.execute("ALTER TABLE story_stats_hourly_away RENAME TO story_stats_hourly");
+        rollups.flush(rollups.currentMinute());
+        assertThat(hourly(1L, 10)).isNull();
+        assertThat(hourly(1L, 11)).containsExactly(2L, 0L, 0L);
+        assertThat(hourly(1L, 12)).containsExactly(2L, 0L, 0L);
+
+        rollups.flush(rollups.currentMinute());
+        assertThat(hourly(1L, 12)).containsExactly(2L, 0L, 0L);
+        assertThat(rowCount("story_stats_hourly")).isEqualTo(2);
+    }
+
+    @Test
+    void stopsTrackingNewStoriesWhenFull() {
+        rollups = rollups(1, 1000);
+        clock.set(at(10, 0));
+        rollups.onEngagement(EngagementEvent.view(1L));
+        rollups.onEngagement(EngagementEvent.view(2L));
+        rollups.onEngagement(EngagementEvent.view(1L));
+        clock.set(at(10, 1));
+
+        rollups.flush(rollups.currentMinute());
+        assertThat(hourly(1L, 10)).containsExactly(2L, 0L, 0L);
+        assertThat(hourly(2L, 10)).isNull();
+    }
+
+    private EngagementRollups rollups(int maxTrackedStories, int maxUnflushedRows) {
+        return new EngagementRollups(jdbcTemplate, new DataSourceTransactionManager(dataSource), maxTrackedStories,
+            maxUnflushedRows, clock);
+    }
+
+    private static long minuteOf(String instant) {
+        return Instant.parse(instant).getEpochSecond() / 60;
+    }
+
+    private static Instant at(int hour, int minute) {
+        return YESTERDAY.atTime(hour, minute).toInstant(ZoneOffset.UTC);
+    }
+
+    private Long[] hourly(long storyId, int hour) {
+        return counts("SELECT views, likes, watch_seconds FROM story_stats_hourly "
+            + "WHERE story_id = ? AND bucket_start = ?", storyId, YESTERDAY.atTime(hour, 0));
+    }
+
+    private Long[] daily(long storyId) {
+        return counts("SELECT views, likes, watch_seconds FROM story_stats_daily WHERE story_id = ? AND day = ?",
+            storyId, YESTERDAY);
+    }
+
+    private Long[] counts(String sql, Object... args) {
+        return jdbcTemplate.query(sql, rs -> rs.next()
+            ? new Long[] { rs.getLong(1), rs.getLong(2), rs.getLong(3) }
+            : null, args);
+    }
+
+    private int rowCount(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static final class MovableClock extends Clock {
+        private volatile Instant now = Instant.now();
+
+        void set(Instant instant) {
+            now = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.storyapp.story.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    // three standard errors of a 2^12-register sketch
+    private static final double TOLERANCE = 3 * 0.016;
+
+    @Test
+    void estimatesWithinThreeStandardErrors() {
+        for (int distinct : new int[] { 10, 1_000, 100_000 }) {
+            HyperLogLog sketch = sketchOf(0, distinct);
+            // every value twice: duplicates must not count
+            for (int i = 0; i < distinct; i++) {
+                sketch.offer("user:" + i);
+            }
+            assertThat((double) sketch.estimate()).as("%d distinct values", distinct)
+                .isCloseTo(distinct, within(distinct * TOLERANCE));
+        }
+        assertThat(new HyperLogLog().estimate()).isZero();
+        assertThat(new HyperLogLog().isEmpty()).isTrue();
+    }
+
+    @Test
+    void mergeEqualsTheSketchOfTheUnion() {
+        HyperLogLog disjoint = sketchOf(0, 5_000);
+        disjoint.merge(sketchOf(5_000, 10_000));
+        assertThat(disjoint.toBytes()).isEqualTo(sketchOf(0, 10_000).toBytes());
+        assertThat((double) disjoint.estimate()).isCloseTo(10_000, within(10_000 * TOLERANCE));
+
+        HyperLogLog overlapping = sketchOf(0, 6_000);
+        overlapping.merge(sketchOf(4_000, 10_000));
+        assertThat(overlapping.toBytes()).isEqualTo(sketchOf(0, 10_000).toBytes());
+
+        HyperLogLog self = sketchOf(0, 1_000);
+        long before = self.estimate();
+        self.merge(sketchOf(0, 1_000));
+        assertThat(self.estimate()).isEqualTo(before);
+    }
+
+    @Test
+    void roundTripsOnBothSidesOfTheSparseThreshold() {
+        // sparse while fewer than a third of the 4096 registers are set
+        HyperLogLog sparse = withRegistersSet(1_365);
+        byte[] sparseBytes = sparse.toBytes();
+        assertThat(sparseBytes).hasSize(4 + 1_365 * 3);
+        assertThat(HyperLogLog.fromBytes(sparseBytes).toBytes()).isEqualTo(sparseBytes);
+        assertThat(HyperLogLog.fromBytes(sparseBytes).estimate()).isEqualTo(sparse.estimate());
+
+        HyperLogLog dense = withRegistersSet(1_366);
+        byte[] denseBytes = dense.toBytes();
+        assertThat(denseBytes).hasSize(2 + 4_096);
+        assertThat(HyperLogLog.fromBytes(denseBytes).toBytes()).isEqualTo(denseBytes);
+        assertThat(HyperLogLog.fromBytes(denseBytes).estimate()).isEqualTo(dense.estimate());
+
+        HyperLogLog real = sketchOf(0, 50_000);
+        assertThat(HyperLogLog.fromBytes(real.toBytes()).estimate()).isEqualTo(real.estimate());
+        assertThat(HyperLogLog.fromBytes(new HyperLogLog().toBytes()).isEmpty()).isTrue();
+        assertThat(HyperLogLog.fromBytes(null).isEmpty()).isTrue();
+        assertThat(HyperLogLog.fromBytes(new byte[0]).isEmpty()).isTrue();
+    }
+
+    @Test
+    void rejectsUnknownFormatOrPrecision() {
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[] { 3, HyperLogLog.PRECISION, 0, 0 }))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("format");
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[] { 2, 14, 0, 0 }))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("precision");
+    }
+
+    @Test
+    void hashMatchesMurmurHash64AKnownAnswers() {
+        // reference MurmurHash64A with seed 0x9747b28c; "a".."abcdefg" cover every tail length
+        assertThat(hash("")).isEqualTo(0x8397626cd6895052L);
+        assertThat(hash("a")).isEqualTo(0xe96b6245652273aeL);
+        assertThat(hash("ab")).isEqualTo(0x9be5e012c4364087L);
+        assertThat(hash("abc")).isEqualTo(0xa9316c8740c81414L);
+        assertThat(hash("abcd")).isEqualTo(0xbb245b4802d79fa0L);
+        assertThat(hash("abcde")).isEqualTo(0x7642c616c328015aL);
+        assertThat(hash("abcdef")).isEqualTo(0x9b645e3f7775d796L);
+        assertThat(hash("abcdefg")).isEqualTo(0x5b4f5856bf1718a1L);
+        assertThat(hash("abcdefgh")).isEqualTo(0x617b517726694ebaL);
+        assertThat(hash("abcdefghi")).isEqualTo(0x63c2a246fd386297L);
+        assertThat(hash("user:42")).isEqualTo(0x80b18f9faaef90c3L);
+    }
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.offer("user:" + i);
+        }
+        return sketch;
+    }
+
+    private static HyperLogLog withRegistersSet(int count) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int index = 0; index < count; index++) {
+            // top 12 bits pick the register, the rest give it a rank of index % 20 + 1
+            long rest = 1L << (63 - HyperLogLog.PRECISION - index % 20);
+            sketch.offerHash(((long) index << (64 - HyperLogLog.PRECISION)) | rest);
+        }
+        return sketch;
+    }
+
+    private static long hash(String value) {
+        return HyperLogLog.hash64(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
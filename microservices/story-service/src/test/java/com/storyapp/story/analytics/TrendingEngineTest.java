@@ -0,0 +1,99 @@
+package com.storyapp.story.analytics;
+
+import com.storyapp.story.dto.TrendingStoryResponse;
+import org.h2.Driver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Snapshots against H2 in MySQL mode. {@code as_of} is declared with whole
+ * seconds like the MySQL DATETIME column, so sub-second timestamps are
+ * rounded the way MySQL rounds them.
+ */
+class TrendingEngineTest {
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new SimpleDriverDataSource(new Driver(),
+        "jdbc:h2:mem:trending;MODE=MySQL;DB_CLOSE_DELAY=-1"));
+
+    TrendingEngineTest() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS trending_scores ("
+            + "instance_id VARCHAR(100) NOT NULL, story_id BIGINT NOT NULL, score DOUBLE NOT NULL, "
+            + "as_of TIMESTAMP(0) NOT NULL, PRIMARY KEY (instance_id, story_id))");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stories (id BIGINT PRIMARY KEY, title VARCHAR(255), "
+            + "author_username VARCHAR(255), story_number VARCHAR(20), is_published BOOLEAN)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS story_genres (story_id BIGINT, genre_id BIGINT)");
+    }
+
+    @AfterEach
+    void dropTables() {
+        jdbcTemplate.execute("DROP TABLE trending_scores");
+        jdbcTemplate.execute("DROP TABLE stories");
+        jdbcTemplate.execute("DROP TABLE story_genres");
+    }
+
+    @Test
+    void repeatedSnapshotsKeepTheirOwnRows() {
+        TrendingEngine engine = engine("a");
+        engine.onEngagement(EngagementEvent.like(1L));
+        engine.onEngagement(EngagementEvent.view(2L));
+
+        // stored with whole seconds, .4 rounds down below the snapshot time and .6 up
+        LocalDateTime second = LocalDateTime.now().withNano(0);
+        for (int millis : new int[] { 400, 600, 1400, 1600, 2000 }) {
+            engine.snapshot(second.plusNanos(millis * 1_000_000L));
+            assertThat(ownRows("a")).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void instancesKeepSeparateRowsAndSeeEachOthersScores() {
+        jdbcTemplate.update("INSERT INTO stories VALUES (1, 'Tides', 'maya', '0001', TRUE)");
+        TrendingEngine first = engine("a");
+        TrendingEngine second = engine("b");
+        first.onEngagement(EngagementEvent.like(1L));
+        second.onEngagement(EngagementEvent.like(1L));
+        first.resolvePending();
+        second.resolvePending();
+
+        first.snapshot();
+        second.snapshot();
+        first.snapshot();
+
+        assertThat(ownRows("a")).isEqualTo(1);
+        assertThat(ownRows("b")).isEqualTo(1);
+        List<TrendingStoryResponse> top = first.top(null, 1);
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).getTitle()).isEqualTo("Tides");
+        assertThat(top.get(0).getScore()).isCloseTo(2 * TrendingEngine.LIKE_WEIGHT, within(0.01));
+        assertThat(second.top(null, 1).get(0).getScore()).isCloseTo(2 * TrendingEngine.LIKE_WEIGHT, within(0.01));
+    }
+
+    @Test
+    void defaultInstanceIdsDifferPerPortAndAreNeverConstant() {
+        assertThat(TrendingEngine.resolveInstanceId("", 8082, () -> "node-1")).isEqualTo("node-1:8082");
+        assertThat(TrendingEngine.resolveInstanceId(null, 8082, () -> "node-1"))
+            .isNotEqualTo(TrendingEngine.resolveInstanceId(null, 8083, () -> "node-1"));
+        assertThat(TrendingEngine.resolveInstanceId(null, 8082, () -> null))
+            .isNotEqualTo(TrendingEngine.resolveInstanceId(null, 8082, () -> null));
+        assertThat(TrendingEngine.resolveInstanceId(null, 0, () -> "node-1"))
+            .isNotEqualTo(TrendingEngine.resolveInstanceId(null, 0, () -> "node-1"));
+        assertThat(TrendingEngine.resolveInstanceId("pod-7", 8082, () -> "node-1")).isEqualTo("pod-7");
+    }
+
+    private TrendingEngine engine(String instanceId) {
+        return new TrendingEngine(jdbcTemplate, instanceId, 8082, 6, 1000, 5);
+    }
+
+    private int ownRows(String instanceId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trending_scores WHERE instance_id = ?",
+            Integer.class, instanceId);
+    }
+}
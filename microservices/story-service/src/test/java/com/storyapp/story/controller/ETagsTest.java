@@ -0,0 +1,38 @@
+package com.storyapp.story.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ETagsTest {
+
+    private static final String ETAG = "\"7-1.2.3.4--0\"";
+
+    @Test
+    void ifNoneMatchComparesWeaklyAgainstEveryListedTag() {
+        assertThat(ETags.noneMatchHits(ETAG, ETAG)).isTrue();
+        assertThat(ETags.noneMatchHits("W/" + ETAG, ETAG)).isTrue();
+        assertThat(ETags.noneMatchHits("\"other\", " + ETAG, ETAG)).isTrue();
+        assertThat(ETags.noneMatchHits(" * ", ETAG)).isTrue();
+        assertThat(ETags.noneMatchHits("\"7-1.2.3.5--0\"", ETAG)).isFalse();
+        assertThat(ETags.noneMatchHits(null, ETAG)).isFalse();
+        assertThat(ETags.noneMatchHits("", ETAG)).isFalse();
+    }
+
+    @Test
+    void ifMatchYieldsTheStoryVersion() {
+        assertThat(ETags.versionOf(ETAG)).isEqualTo(7L);
+        assertThat(ETags.versionOf("\"42\"")).isEqualTo(42L);
+        assertThat(ETags.versionOf(null)).isNull();
+        assertThat(ETags.versionOf("*")).isNull();
+    }
+
+    @Test
+    void ifMatchRejectsWeakListedAndForeignTags() {
+        assertThatThrownBy(() -> ETags.versionOf("W/" + ETAG)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ETags.versionOf(ETAG + ", \"8\"")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ETags.versionOf("7")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ETags.versionOf("\"abc\"")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,100 @@
+package com.storyapp.story.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StoryMergePatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void nullClearsTextAndListMembers() {
+        StoryMergePatch patch = parse("{\"description\": null, \"timelineJson\": null, \"imageUrls\": null}");
+
+        assertThat(patch.has("description")).isTrue();
+        assertThat(patch.text("description")).isNull();
+        assertThat(patch.has("timelineJson")).isTrue();
+        assertThat(patch.text("timelineJson")).isNull();
+        assertThat(patch.has("imageUrls")).isTrue();
+        assertThat(patch.imageUrls()).isEmpty();
+    }
+
+    @Test
+    void absentMembersAreLeftAlone() {
+        StoryMergePatch patch = parse("{\"content\": \"New text\"}");
+
+        assertThat(patch.has("content")).isTrue();
+        assertThat(patch.text("content")).isEqualTo("New text");
+        assertThat(patch.has("description")).isFalse();
+        assertThat(patch.has("timelineJson")).isFalse();
+        assertThat(patch.version()).isNull();
+    }
+
+    @Test
+    void readsFlagsListsAndVersion() {
+        StoryMergePatch patch = parse("{\"isPublished\": true, \"showSceneTimeline\": false, "
+            + "\"imageUrls\": [\"a.png\", \"b.png\"], \"genreIds\": [3, 1], "
+            + "\"characters\": [{\"name\": \"Ann\", \"role\": \"Lead\"}], \"version\": 7}");
+
+        assertThat(patch.flag("isPublished")).isTrue();
+        assertThat(patch.flag("showSceneTimeline")).isFalse();
+        assertThat(patch.imageUrls()).containsExactly("a.png", "b.png");
+        assertThat(patch.genreIds()).containsExactly(3L, 1L);
+        assertThat(patch.characters()).hasSize(1);
+        assertThat(patch.characters().get(0).getName()).isEqualTo("Ann");
+        assertThat(patch.version()).isEqualTo(7L);
+    }
+
+    @Test
+    void flagsMustBeBooleans() {
+        assertThatThrownBy(() -> parse("{\"isPublished\": null}"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("isPublished");
+        assertThatThrownBy(() -> parse("{\"showSceneTimeline\": \"true\"}"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("showSceneTimeline");
+        assertThatThrownBy(() -> parse("{\"exactViewerTracking\": 1}"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("exactViewerTracking");
+    }
+
+    @Test
+    void titleMustBeANonEmptyString() {
+        assertThatThrownBy(() -> parse("{\"title\": null}"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("title");
+        assertThatThrownBy(() -> parse("{\"title\": \"   \"}"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("title");
+        assertThat(parse("{\"title\": \"Renamed\"}").text("title")).isEqualTo("Renamed");
+    }
+
+    @Test
+    void rejectsMistypedAndUnknownMembers() {
+        assertThatThrownBy(() -> parse("{\"content\": 5}"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parse("{\"imageUrls\": [1]}"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parse("{\"genreIds\": [\"x\"]}"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parse("{\"characters\": [\"Ann\"]}"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parse("{\"authorUsername\": \"someone\"}"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("authorUsername");
+        assertThatThrownBy(() -> parse("[]"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private StoryMergePatch parse(String json) {
+        try {
+            return StoryMergePatch.parse(objectMapper.readTree(json), objectMapper);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
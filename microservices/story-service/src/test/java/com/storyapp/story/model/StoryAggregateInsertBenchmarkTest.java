@@ -0,0 +1,186 @@
+package com.storyapp.story.model;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.sequence.NoSequenceSupport;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.jdbc.dialect.spi.DialectResolutionInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the JDBC round trips needed to insert a story with 200 scenes and
+ * 1000 scene media, once with JDBC batching disabled for the session, which is
+ * what every IDENTITY-generated entity got, and once with the configured batch
+ * size. INSERTs and id allocations are counted separately.
+ *
+ * Runs on the embedded H2 database, where a batch is one executeBatch call;
+ * on MySQL, rewriteBatchedStatements makes it one multi-row INSERT. H2 has
+ * native sequences, so the test dialect hides them: ids then come from the
+ * single-row scenes_seq / scene_media_seq tables, read and bumped the same way
+ * as the MySQL tables from add-id-sequences.sql.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.dialect=com.storyapp.story.model.StoryAggregateInsertBenchmarkTest$TableSequenceH2Dialect",
+    "spring.jpa.show-sql=false"
+})
+class StoryAggregateInsertBenchmarkTest {
+
+    private static final int SCENES = 200;
+    private static final int MEDIA_PER_SCENE = 5;
+    private static final int BATCH_SIZE = 50;
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private RoundTripCounter roundTrips;
+
+    @Test
+    void batchedInsertsNeedAFractionOfTheRoundTrips() {
+        int media = SCENES * MEDIA_PER_SCENE;
+        // one SELECT ... FOR UPDATE and one UPDATE per block of ids, plus the
+        // block a generator may already hold from the previous story
+        long maxAllocations = 2L * (SCENES / ALLOCATION_SIZE + 1 + media / ALLOCATION_SIZE + 1);
+
+        insertStory(1);
+        assertThat(roundTrips.inserts()).isEqualTo(1 + SCENES + media);
+        assertThat(roundTrips.others()).isPositive().isLessThanOrEqualTo(maxAllocations);
+
+        insertStory(BATCH_SIZE);
+        assertThat(roundTrips.inserts()).isEqualTo(1 + SCENES / BATCH_SIZE + media / BATCH_SIZE);
+        assertThat(roundTrips.others()).isPositive().isLessThanOrEqualTo(maxAllocations);
+    }
+
+    private void insertStory(int batchSize) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        roundTrips.reset();
+
+        Story story = new Story("Benchmark " + batchSize, "", "benchmark");
+        entityManager.persist(story);
+        for (int i = 0; i < SCENES; i++) {
+            Scene scene = new Scene("Scene " + i, null, i, story);
+            for (int j = 0; j < MEDIA_PER_SCENE; j++) {
+                SceneMedia media = new SceneMedia("https://example.com/" + i + "/" + j, SceneMedia.MediaType.IMAGE, scene);
+                media.setPosition(j);
+                scene.getMedia().add(media);
+            }
+            entityManager.persist(scene);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @SpringBootConfiguration
+    @AutoConfigurationPackage
+    static class Config {
+
+        @Bean
+        static RoundTripCounter roundTripCounter() {
+            return new RoundTripCounter();
+        }
+    }
+
+    /**
+     * H2 without its native sequences, so that SEQUENCE ids fall back to
+     * table-backed generators as they do on MySQL.
+     */
+    public static class TableSequenceH2Dialect extends H2Dialect {
+
+        public TableSequenceH2Dialect() {
+        }
+
+        public TableSequenceH2Dialect(DialectResolutionInfo info) {
+            super(info);
+        }
+
+        @Override
+        public SequenceSupport getSequenceSupport() {
+            return NoSequenceSupport.INSTANCE;
+        }
+    }
+
+    /**
+     * Wraps the DataSource so that every execute* call on a statement it hands
+     * out is counted, INSERTs apart from everything else.
+     */
+    static class RoundTripCounter implements BeanPostProcessor {
+
+        private final AtomicLong inserts = new AtomicLong();
+        private final AtomicLong others = new AtomicLong();
+
+        void reset() {
+            inserts.set(0);
+            others.set(0);
+        }
+
+        long inserts() {
+            return inserts.get();
+        }
+
+        long others() {
+            return others.get();
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource) {
+                return wrap(bean, null, ClassUtils.getAllInterfaces(bean));
+            }
+            return bean;
+        }
+
+        private Object wrap(Object target, String sql, Class<?>... interfaces) {
+            return Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (target instanceof Statement && method.getName().startsWith("execute")) {
+                    String executed = sql != null ? sql : args != null && args.length > 0 ? String.valueOf(args[0]) : "";
+                    boolean insert = executed.trim().toLowerCase(Locale.ROOT).startsWith("insert");
+                    (insert ? inserts : others).incrementAndGet();
+                }
+                String prepared = target instanceof Connection && args != null && args.length > 0
+                    && args[0] instanceof String text ? text : null;
+                if (result instanceof Connection) {
+                    return wrap(result, null, Connection.class);
+                }
+                if (result instanceof CallableStatement) {
+                    return wrap(result, prepared, CallableStatement.class);
+                }
+                if (result instanceof PreparedStatement) {
+                    return wrap(result, prepared, PreparedStatement.class);
+                }
+                if (result instanceof Statement) {
+                    return wrap(result, null, Statement.class);
+                }
+                return result;
+            });
+        }
+    }
+}
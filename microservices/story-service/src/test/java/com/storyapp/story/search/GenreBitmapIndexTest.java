@@ -0,0 +1,85 @@
+package com.storyapp.story.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GenreBitmapIndexTest {
+
+    private static final long FANTASY = 1;
+    private static final long HORROR = 2;
+    private static final long COMEDY = 3;
+
+    @Test
+    void matchesAllAnyAndNoneFilters() {
+        GenreBitmapIndex index = sampleIndex();
+
+        assertThat(ids(index.match(List.of(), List.of(), List.of()))).containsExactly(1, 2, 3, 4);
+        assertThat(ids(index.match(List.of(FANTASY, HORROR), List.of(), List.of()))).containsExactly(2);
+        assertThat(ids(index.match(List.of(), List.of(HORROR, COMEDY), List.of()))).containsExactly(2, 3, 4);
+        assertThat(ids(index.match(List.of(), List.of(), List.of(FANTASY)))).containsExactly(3, 4);
+        assertThat(ids(index.match(List.of(FANTASY), List.of(), List.of(HORROR)))).containsExactly(1);
+        assertThat(ids(index.match(List.of(99L), List.of(), List.of()))).isEmpty();
+    }
+
+    @Test
+    void unpublishedStoriesAreLeftOut() {
+        GenreBitmapIndex index = sampleIndex();
+        index.put(5, false, List.of(FANTASY));
+        index.put(1, false, List.of(FANTASY));
+
+        assertThat(index.publishedCount()).isEqualTo(3);
+        assertThat(ids(index.match(List.of(FANTASY), List.of(), List.of()))).containsExactly(2);
+    }
+
+    @Test
+    void facetCountsAgreeOnEveryPath() {
+        GenreBitmapIndex index = sampleIndex();
+
+        Map<Long, Integer> all = index.facetCounts(index.match(List.of(), List.of(), List.of()));
+        assertThat(all).isEqualTo(Map.of(FANTASY, 2, HORROR, 2, COMEDY, 2));
+
+        Map<Long, Integer> fantasy = index.facetCounts(index.match(List.of(FANTASY), List.of(), List.of()));
+        assertThat(fantasy).isEqualTo(Map.of(FANTASY, 2, HORROR, 1, COMEDY, 0));
+    }
+
+    @Test
+    void genresBeyondTheMaskAreCountedByIntersection() {
+        GenreBitmapIndex index = new GenreBitmapIndex();
+        List<Long> genres = new ArrayList<>();
+        for (long genreId = 1; genreId <= 70; genreId++) {
+            genres.add(genreId);
+        }
+        index.put(1, true, genres);
+        index.put(2, true, List.of(70L));
+        for (int storyId = 3; storyId < 100; storyId++) {
+            index.put(storyId, true, List.of(1L, 2L, 3L, 4L));
+        }
+
+        // two matches against ~460 memberships: counted from the masks for the first 64 genres
+        Map<Long, Integer> counts = index.facetCounts(index.match(List.of(70L), List.of(), List.of()));
+
+        assertThat(counts.get(70L)).isEqualTo(2);
+        assertThat(counts.get(69L)).isEqualTo(1);
+        assertThat(counts.get(1L)).isEqualTo(1);
+    }
+
+    private static GenreBitmapIndex sampleIndex() {
+        GenreBitmapIndex index = new GenreBitmapIndex();
+        index.put(1, true, List.of(FANTASY));
+        index.put(2, true, List.of(FANTASY, HORROR));
+        index.put(3, true, List.of(HORROR, COMEDY));
+        index.put(4, true, List.of(COMEDY));
+        return index;
+    }
+
+    private static List<Integer> ids(RoaringBitmap bitmap) {
+        List<Integer> ids = new ArrayList<>();
+        bitmap.forEach(ids::add);
+        return ids;
+    }
+}
@@ -0,0 +1,169 @@
+package com.storyapp.story.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InvertedIndexTest {
+
+    @Test
+    void tokenizerLowerCasesSplitsAndDropsStopwords() {
+        assertThat(Tokenizer.tokenize("The Dragon's Keep, and the Sea-Witch!"))
+            .containsExactly("dragon", "s", "keep", "sea", "witch");
+        assertThat(Tokenizer.tokenize(null)).isEmpty();
+        assertThat(Tokenizer.tokenize("x".repeat(Tokenizer.MAX_TERM_LENGTH + 1))).isEmpty();
+    }
+
+    @Test
+    void titleMatchesRankAboveContentMatches() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(document(1, "A quiet harbour", "The dragon sleeps under the harbour"));
+        index.put(document(2, "Dragon", "Nothing much happens here"));
+        index.put(document(3, "Gardens", "Roses and tulips"));
+
+        List<InvertedIndex.Hit> hits = index.search(Tokenizer.tokenize("dragon"), 10);
+
+        assertThat(storyIds(hits)).containsExactly(2L, 1L);
+        assertThat(hits.get(0).getScore()).isGreaterThan(hits.get(1).getScore());
+        assertThat(hits.get(0).getTitle()).isEqualTo("Dragon");
+    }
+
+    @Test
+    void limitKeepsOnlyTheBestHits() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 1; id <= 20; id++) {
+            index.put(document(id, "Story " + id, "dragon ".repeat((int) id)));
+        }
+
+        List<InvertedIndex.Hit> hits = index.search(List.of("dragon"), 3);
+
+        assertThat(storyIds(hits)).containsExactly(20L, 19L, 18L);
+    }
+
+    @Test
+    void replacingAndRemovingDropsStalePostings() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(document(1, "Dragon", "fire"));
+        index.put(document(1, "Mermaid", "water"));
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search(List.of("dragon"), 10)).isEmpty();
+        assertThat(storyIds(index.search(List.of("water"), 10))).containsExactly(1L);
+
+        assertThat(index.remove(1)).isTrue();
+        assertThat(index.remove(1)).isFalse();
+        assertThat(index.size()).isEqualTo(0);
+        assertThat(index.termCount()).isEqualTo(0);
+    }
+
+    @Test
+    void snapshotRoundTripKeepsRanking() throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        index.put(document(7, "Dragon", "A dragon story"));
+        index.put(document(3, "Harbour", "A dragon visits"));
+        index.put(document(5, "Gardens", "Roses"));
+        index.put(document(3, "Harbour", "A dragon visits again"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        InvertedIndex restored = InvertedIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        List<InvertedIndex.Hit> expected = index.search(List.of("dragon", "roses"), 10);
+        List<InvertedIndex.Hit> actual = restored.search(List.of("dragon", "roses"), 10);
+        assertThat(storyIds(actual)).isEqualTo(storyIds(expected));
+        assertThat(actual.get(0).getScore()).isEqualTo(expected.get(0).getScore());
+        assertThat(restored.size()).isEqualTo(3);
+        assertThat(restored.termCount()).isEqualTo(index.termCount());
+
+        // the restored index must still support updates
+        restored.remove(7);
+        assertThat(storyIds(restored.search(List.of("dragon"), 10))).containsExactly(3L);
+    }
+
+    @Test
+    void updatesAppendAndLeaveDeletedPostingsUntilCompaction() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(document(1, "Dragon", "fire"));
+        index.put(document(2, "Dragon", "ice"));
+        for (int i = 0; i < 5; i++) {
+            index.put(document(1, "Dragon", "fire " + i));
+        }
+
+        assertThat(index.deletedCount()).isEqualTo(5);
+        List<InvertedIndex.Hit> hits = index.search(List.of("dragon"), 10);
+        assertThat(storyIds(hits)).containsExactly(2L, 1L);
+
+        InvertedIndex compacted = index.compact();
+        assertThat(compacted.deletedCount()).isEqualTo(0);
+        assertThat(compacted.size()).isEqualTo(2);
+        List<InvertedIndex.Hit> compactedHits = compacted.search(List.of("dragon"), 10);
+        assertThat(storyIds(compactedHits)).isEqualTo(storyIds(hits));
+        assertThat(compactedHits.get(0).getScore()).isEqualTo(hits.get(0).getScore());
+
+        // the compacted index keeps accepting updates
+        compacted.put(document(2, "Dragon", "ice ice ice"));
+        assertThat(compacted.search(List.of("ice"), 10)).hasSize(1);
+    }
+
+    @Test
+    void documentFrequencyIgnoresDeletedPostings() {
+        InvertedIndex churned = new InvertedIndex();
+        InvertedIndex fresh = new InvertedIndex();
+        for (long id = 1; id <= 4; id++) {
+            churned.put(document(id, "Story " + id, id == 1 ? "dragon" : "sea"));
+            fresh.put(document(id, "Story " + id, id == 1 ? "dragon" : "sea"));
+        }
+        for (long id = 2; id <= 4; id++) {
+            churned.put(document(id, "Story " + id, "dragon"));
+            churned.put(document(id, "Story " + id, "sea"));
+        }
+
+        assertThat(churned.search(List.of("dragon"), 10).get(0).getScore())
+            .isEqualTo(fresh.search(List.of("dragon"), 10).get(0).getScore());
+    }
+
+    @Test
+    void postingsOnlyAcceptAscendingDocuments() {
+        PostingsList list = new PostingsList();
+        list.append(0, 1);
+        list.append(300, 2);
+        list.append(70_000, 3);
+
+        List<Long> ids = new ArrayList<>();
+        List<Integer> frequencies = new ArrayList<>();
+        list.forEach((id, frequency) -> {
+            ids.add(id);
+            frequencies.add(frequency);
+        });
+
+        assertThat(ids).containsExactly(0L, 300L, 70_000L);
+        assertThat(frequencies).containsExactly(1, 2, 3);
+        assertThatThrownBy(() -> list.append(300, 1)).isInstanceOf(IllegalArgumentException.class);
+        list.markDeleted();
+        assertThat(list.liveSize()).isEqualTo(2);
+    }
+
+    private static SearchDocument document(long id, String title, String content) {
+        SearchDocument document = new SearchDocument(id, title, "author" + id, "S" + id);
+        document.addText(title, SearchDocument.TITLE_WEIGHT);
+        document.addText(content, SearchDocument.CONTENT_WEIGHT);
+        return document;
+    }
+
+    private static List<Long> storyIds(List<InvertedIndex.Hit> hits) {
+        List<Long> ids = new ArrayList<>();
+        for (InvertedIndex.Hit hit : hits) {
+            ids.add(hit.getStoryId());
+        }
+        return ids;
+    }
+}
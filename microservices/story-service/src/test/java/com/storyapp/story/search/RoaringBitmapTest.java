@@ -0,0 +1,113 @@
+package com.storyapp.story.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoaringBitmapTest {
+
+    @Test
+    void switchesContainerTypeWithoutLosingValues() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        // past 4096 values a chunk turns into a bitmap, and back when it shrinks
+        for (int value = 0; value < 10_000; value += 2) {
+            bitmap.add(value);
+        }
+        assertThat(bitmap.cardinality()).isEqualTo(5_000);
+        assertThat(bitmap.contains(9_998)).isTrue();
+        assertThat(bitmap.contains(9_999)).isFalse();
+
+        for (int value = 0; value < 10_000; value += 4) {
+            bitmap.remove(value);
+        }
+        assertThat(bitmap.cardinality()).isEqualTo(2_500);
+        assertThat(bitmap.contains(2)).isTrue();
+        assertThat(bitmap.contains(4)).isFalse();
+        assertThat(toList(bitmap)).isEqualTo(List.copyOf(reference(0, 10_000, 4, 2)));
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        assertThatThrownBy(() -> bitmap.add(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(bitmap.contains(-1)).isFalse();
+        bitmap.remove(-1);
+        assertThat(bitmap.isEmpty()).isTrue();
+    }
+
+    @Test
+    void setOperationsMatchAReferenceSet() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            // mix sparse and dense chunks across several high keys
+            TreeSet<Integer> left = randomValues(random, round % 2 == 0 ? 300 : 20_000);
+            TreeSet<Integer> right = randomValues(random, round % 3 == 0 ? 300 : 20_000);
+            RoaringBitmap a = bitmapOf(left);
+            RoaringBitmap b = bitmapOf(right);
+
+            TreeSet<Integer> and = new TreeSet<>(left);
+            and.retainAll(right);
+            TreeSet<Integer> or = new TreeSet<>(left);
+            or.addAll(right);
+            TreeSet<Integer> andNot = new TreeSet<>(left);
+            andNot.removeAll(right);
+
+            assertThat(toList(RoaringBitmap.and(a, b))).isEqualTo(List.copyOf(and));
+            assertThat(toList(RoaringBitmap.or(a, b))).isEqualTo(List.copyOf(or));
+            assertThat(toList(RoaringBitmap.andNot(a, b))).isEqualTo(List.copyOf(andNot));
+            assertThat(RoaringBitmap.andCardinality(a, b)).isEqualTo(and.size());
+            // operands are left untouched
+            assertThat(toList(a)).isEqualTo(List.copyOf(left));
+            assertThat(toList(b)).isEqualTo(List.copyOf(right));
+        }
+    }
+
+    @Test
+    void descendingPagesAcrossChunks() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        int[] values = {3, 70_000, 65_535, 65_536, 200_000, 10};
+        for (int value : values) {
+            bitmap.add(value);
+        }
+
+        assertThat(bitmap.descending(Long.MAX_VALUE, 3)).containsExactly(200_000, 70_000, 65_536);
+        assertThat(bitmap.descending(65_536, 10)).containsExactly(65_535, 10, 3);
+        assertThat(bitmap.descending(3, 10)).isEmpty();
+    }
+
+    private static TreeSet<Integer> randomValues(Random random, int count) {
+        TreeSet<Integer> values = new TreeSet<>();
+        for (int i = 0; i < count; i++) {
+            values.add(random.nextInt(4 * 65_536));
+        }
+        return values;
+    }
+
+    private static TreeSet<Integer> reference(int from, int to, int skipEvery, int step) {
+        TreeSet<Integer> values = new TreeSet<>();
+        for (int value = from; value < to; value += step) {
+            if (value % skipEvery != 0) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    private static RoaringBitmap bitmapOf(Iterable<Integer> values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        values.forEach(bitmap::add);
+        return bitmap;
+    }
+
+    private static List<Integer> toList(RoaringBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+}
@@ -0,0 +1,84 @@
+package com.storyapp.story.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTest {
+
+    @Test
+    void suggestsByPrefixHeaviestFirst() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add(SuggestionTrie.Type.TITLE, "The Dragon King", 1, 5);
+        trie.add(SuggestionTrie.Type.TITLE, "The Dragon", 2, 9);
+        trie.add(SuggestionTrie.Type.TITLE, "The Drowned Town", 3, 7);
+        trie.add(SuggestionTrie.Type.TITLE, "Other", 4, 100);
+
+        assertThat(texts(trie.suggest("the dr", 10))).containsExactly("The Dragon", "The Drowned Town", "The Dragon King");
+        assertThat(texts(trie.suggest("  THE   DRAGON ", 10))).containsExactly("The Dragon", "The Dragon King");
+        assertThat(texts(trie.suggest("the dr", 1))).containsExactly("The Dragon");
+        assertThat(trie.suggest("the dx", 10)).isEmpty();
+        assertThat(trie.suggest("the dragon kings", 10)).isEmpty();
+    }
+
+    @Test
+    void weightsAddUpAcrossStoriesAndFallWhenOneIsRemoved() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add(SuggestionTrie.Type.AUTHOR, "alice", 1, 3);
+        trie.add(SuggestionTrie.Type.AUTHOR, "alice", 2, 4);
+        trie.add(SuggestionTrie.Type.AUTHOR, "alan", 3, 6);
+
+        List<SuggestionTrie.Suggestion> before = trie.suggest("al", 10);
+        assertThat(texts(before)).containsExactly("alice", "alan");
+        assertThat(before.get(0).getWeight()).isEqualTo(7.0);
+        assertThat(before.get(0).getStoryId()).isEqualTo(2L);
+
+        trie.remove(SuggestionTrie.Type.AUTHOR, "alice", 2);
+        assertThat(texts(trie.suggest("al", 10))).containsExactly("alan", "alice");
+
+        trie.remove(SuggestionTrie.Type.AUTHOR, "alice", 1);
+        assertThat(texts(trie.suggest("al", 10))).containsExactly("alan");
+        assertThat(trie.size()).isEqualTo(1);
+    }
+
+    @Test
+    void sameTextOfDifferentTypesStaysSeparate() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add(SuggestionTrie.Type.TITLE, "Merlin", 1, 2);
+        trie.add(SuggestionTrie.Type.CHARACTER, "Merlin", 1, 1);
+
+        List<SuggestionTrie.Suggestion> suggestions = trie.suggest("mer", 10);
+        assertThat(suggestions).hasSize(2);
+        assertThat(suggestions.get(0).getType()).isEqualTo(SuggestionTrie.Type.TITLE);
+        assertThat(suggestions.get(1).getType()).isEqualTo(SuggestionTrie.Type.CHARACTER);
+    }
+
+    @Test
+    void bulkLoadRanksLikeIncrementalAdds() {
+        SuggestionTrie incremental = new SuggestionTrie();
+        SuggestionTrie bulk = new SuggestionTrie();
+        for (int i = 0; i < 200; i++) {
+            String title = "story " + Integer.toString(i, 7);
+            incremental.add(SuggestionTrie.Type.TITLE, title, i, i % 13);
+            bulk.bulkAdd(SuggestionTrie.Type.TITLE, title, i, i % 13);
+        }
+        bulk.finishBulkLoad();
+
+        for (String prefix : List.of("s", "story 1", "story 12", "story 6")) {
+            assertThat(texts(bulk.suggest(prefix, SuggestionTrie.TOP_K)))
+                .isEqualTo(texts(incremental.suggest(prefix, SuggestionTrie.TOP_K)));
+        }
+        assertThat(bulk.suggest("s", 100)).hasSize(SuggestionTrie.TOP_K);
+    }
+
+    private static List<String> texts(List<SuggestionTrie.Suggestion> suggestions) {
+        List<String> texts = new ArrayList<>();
+        for (SuggestionTrie.Suggestion suggestion : suggestions) {
+            texts.add(suggestion.getText());
+        }
+        return texts;
+    }
+}
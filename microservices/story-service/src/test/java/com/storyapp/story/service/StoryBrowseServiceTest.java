@@ -0,0 +1,32 @@
+package com.storyapp.story.service;
+
+import com.storyapp.story.exception.ServiceUnavailableException;
+import com.storyapp.story.repository.StoryRepository;
+import com.storyapp.story.search.GenreFacetIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StoryBrowseServiceTest {
+
+    @Test
+    void answersUnavailableWhileTheGenreIndexLoads() {
+        GenreFacetIndex genreFacetIndex = mock(GenreFacetIndex.class);
+        when(genreFacetIndex.isReady()).thenReturn(false);
+        StoryBrowseService service = new StoryBrowseService(genreFacetIndex, mock(StoryRepository.class),
+            mock(StoryResponseAssembler.class));
+
+        assertThatThrownBy(() -> service.browse(List.of(), List.of(), List.of(), null, null, null, null))
+            .isInstanceOf(ServiceUnavailableException.class);
+        verify(genreFacetIndex, never()).browse(anyCollection(), anyCollection(), anyCollection(), any(), anyInt());
+    }
+}
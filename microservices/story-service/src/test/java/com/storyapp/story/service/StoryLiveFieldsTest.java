@@ -0,0 +1,38 @@
+package com.storyapp.story.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoryLiveFieldsTest {
+
+    @Test
+    void etagStartsWithTheVersionAndCarriesTheCounters() {
+        String etag = new StoryLiveFields(12L, 3, 40, 500, 2, null, true, false).getETag();
+
+        assertThat(etag).isEqualTo("\"12-3.40.500.2-l-0\"");
+    }
+
+    @Test
+    void offsettingCounterChangesGiveDifferentTags() {
+        StoryLiveFields before = new StoryLiveFields(1L, 10, 20, 0, 0, null, false, false);
+        StoryLiveFields after = new StoryLiveFields(1L, 11, 19, 0, 0, null, false, false);
+
+        assertThat(after.getETag()).isNotEqualTo(before.getETag());
+    }
+
+    @Test
+    void viewerFlagsAndAuthorEmailChangeTheTag() {
+        String plain = new StoryLiveFields(1L, 0, 0, 0, 0, "a@example.com", false, false).getETag();
+        String liked = new StoryLiveFields(1L, 0, 0, 0, 0, "a@example.com", true, false).getETag();
+        String favorited = new StoryLiveFields(1L, 0, 0, 0, 0, "a@example.com", false, true).getETag();
+        String otherEmail = new StoryLiveFields(1L, 0, 0, 0, 0, "b@example.com", false, false).getETag();
+
+        assertThat(liked).isNotEqualTo(plain);
+        assertThat(favorited).isNotEqualTo(plain);
+        assertThat(favorited).isNotEqualTo(liked);
+        assertThat(otherEmail).isNotEqualTo(plain);
+        assertThat(plain).doesNotContain("example.com");
+        assertThat(new StoryLiveFields(1L, 0, 0, 0, 0, "a@example.com", false, false).getETag()).isEqualTo(plain);
+    }
+}
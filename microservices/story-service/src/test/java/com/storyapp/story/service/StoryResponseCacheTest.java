@@ -0,0 +1,240 @@
+package com.storyapp.story.service;
+
+import com.storyapp.story.dto.StoryResponse;
+import com.storyapp.story.model.Story;
+import com.storyapp.story.repository.StoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StoryResponseCacheTest {
+
+    private final StoryRepository storyRepository = mock(StoryRepository.class);
+    private final StoryResponseAssembler assembler = mock(StoryResponseAssembler.class);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    // the version each story is loaded with
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final CountDownLatch loadStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseLoad = new CountDownLatch(1);
+    private final AtomicInteger loadCount = new AtomicInteger();
+    // the findById calls (counting from 1) that wait for releaseLoad and releaseReload; 0 for none
+    private volatile int blockedLoad;
+    private volatile int blockedReload;
+    private final CountDownLatch reloadStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseReload = new CountDownLatch(1);
+    private volatile int contentChars = 10;
+
+    StoryResponseCacheTest() {
+        when(storyRepository.findById(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            Long version = versions.getOrDefault(id, 1L);
+            int call = loadCount.incrementAndGet();
+            if (call == blockedLoad) {
+                loadStarted.countDown();
+                releaseLoad.await(5, TimeUnit.SECONDS);
+            } else if (call == blockedReload) {
+                reloadStarted.countDown();
+                releaseReload.await(5, TimeUnit.SECONDS);
+            }
+            Story story = new Story("Story " + id, "x".repeat(contentChars), "author");
+            story.setId(id);
+            ReflectionTestUtils.setField(story, "version", version);
+            return Optional.of(story);
+        });
+        when(assembler.toResponse(any(Story.class), isNull())).thenAnswer(invocation -> {
+            Story story = invocation.getArgument(0);
+            StoryResponse response = new StoryResponse();
+            response.setId(story.getId());
+            response.setTitle(story.getTitle());
+            response.setContent(story.getContent());
+            response.setVersion(story.getVersion());
+            return response;
+        });
+        when(assembler.withLiveFields(any(StoryResponse.class), any(StoryLiveFields.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void shutdown() {
+        releaseLoad.countDown();
+        releaseReload.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        StoryResponseCache cache = cache(1_000_000, 600);
+        blockedLoad = 1;
+
+        Future<StoryResponse> first = executor.submit(() -> cache.get(1L, live(1)));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<StoryResponse> second = submitAndWaitUntilBlocked(() -> cache.get(1L, live(1)));
+        releaseLoad.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThat(second.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        verify(storyRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void invalidatingDuringALoadKeepsItsResultOutOfTheCache() throws Exception {
+        StoryResponseCache cache = cache(1_000_000, 600);
+        blockedLoad = 1;
+
+        Future<StoryResponse> first = executor.submit(() -> cache.get(1L, live(1)));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        cache.invalidate(1L);
+        releaseLoad.countDown();
+
+        // the waiting request still gets the result
+        assertThat(first.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThat(cache.getTotalBytes()).isZero();
+        cache.get(1L, live(1));
+        verify(storyRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void reloadsAnEntryOlderThanTheLiveVersion() {
+        StoryResponseCache cache = cache(1_000_000, 600);
+        assertThat(cache.get(1L, live(1)).getVersion()).isEqualTo(1L);
+        assertThat(cache.get(1L, live(1)).getVersion()).isEqualTo(1L);
+        verify(storyRepository, times(1)).findById(1L);
+
+        // edited on another instance: the live version is ahead of the cached one
+        versions.put(1L, 2L);
+        assertThat(cache.get(1L, live(2)).getVersion()).isEqualTo(2L);
+        assertThat(cache.get(1L, live(2)).getVersion()).isEqualTo(2L);
+        verify(storyRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void reloadsWhenASharedLoadReturnsAnOlderVersion() throws Exception {
+        StoryResponseCache cache = cache(1_000_000, 600);
+        blockedLoad = 1;
+
+        Future<StoryResponse> first = executor.submit(() -> cache.get(1L, live(1)));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        versions.put(1L, 2L); // committed after the running load read the story
+        Future<StoryResponse> second = submitAndWaitUntilBlocked(() -> cache.get(1L, live(2)));
+        releaseLoad.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getVersion()).isEqualTo(1L);
+        assertThat(second.get(5, TimeUnit.SECONDS).getVersion()).isEqualTo(2L);
+        verify(storyRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void invalidationReachesTheReloadAfterAnOlderSharedLoad() throws Exception {
+        StoryResponseCache cache = cache(1_000_000, 600);
+        blockedLoad = 1;
+        blockedReload = 2;
+
+        // a load that read version 1, joined by a request that has seen version 2
+        Future<StoryResponse> first = executor.submit(() -> cache.get(1L, live(1)));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        versions.put(1L, 2L);
+        Future<StoryResponse> second = submitAndWaitUntilBlocked(() -> cache.get(1L, live(2)));
+        releaseLoad.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getVersion()).isEqualTo(1L);
+
+        // edited again while the reload runs
+        assertThat(reloadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        cache.invalidate(1L);
+        releaseReload.countDown();
+        assertThat(second.get(5, TimeUnit.SECONDS).getVersion()).isEqualTo(2L);
+
+        assertThat(cache.getTotalBytes()).isZero();
+        cache.get(1L, live(2));
+        verify(storyRepository, times(3)).findById(1L);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedToStayWithinMaxBytes() {
+        StoryResponseCache cache = cache(20_000, 600);
+        contentChars = 2_000; // about 4.4 KB per entry, four fit
+        for (long id = 1; id <= 4; id++) {
+            cache.get(id, live(1));
+        }
+        cache.get(1L, live(1));
+        cache.get(5L, live(1));
+
+        // story 2 was the least recently used
+        cache.get(1L, live(1));
+        verify(storyRepository, times(1)).findById(1L);
+        cache.get(2L, live(1));
+        verify(storyRepository, times(2)).findById(2L);
+
+        for (long id = 6; id <= 30; id++) {
+            cache.get(id, live(1));
+            assertThat(cache.getTotalBytes()).isPositive().isLessThanOrEqualTo(20_000);
+        }
+    }
+
+    @Test
+    void skipsResponsesLargerThanAQuarterOfTheCache() {
+        StoryResponseCache cache = cache(20_000, 600);
+        contentChars = 3_000;
+        cache.get(1L, live(1));
+        assertThat(cache.getTotalBytes()).isZero();
+    }
+
+    @Test
+    void expiresEntriesAfterTheTtl() {
+        StoryResponseCache cache = cache(1_000_000, 0);
+        cache.get(1L, live(1));
+        cache.get(1L, live(1));
+        verify(storyRepository, times(2)).findById(1L);
+    }
+
+    private StoryResponseCache cache(long maxBytes, long ttlSeconds) {
+        return new StoryResponseCache(storyRepository, assembler, new TimelineJsonParser(2_000_000, 2_000),
+            maxBytes, ttlSeconds);
+    }
+
+    private static StoryLiveFields live(long version) {
+        return new StoryLiveFields(version, 0, 0, 0, 0, null, false, false);
+    }
+
+    /**
+     * Submits a request and returns once its thread is parked, i.e. waiting
+     * on the running load.
+     */
+    private Future<StoryResponse> submitAndWaitUntilBlocked(Callable<StoryResponse> request)
+        throws InterruptedException {
+        Thread[] thread = new Thread[1];
+        CountDownLatch started = new CountDownLatch(1);
+        Future<StoryResponse> future = executor.submit(() -> {
+            thread[0] = Thread.currentThread();
+            started.countDown();
+            return request.call();
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread[0].getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(thread[0].getState()).isEqualTo(Thread.State.WAITING);
+        return future;
+    }
+}
@@ -0,0 +1,168 @@
+package com.storyapp.story.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.storyapp.story.StoryServiceApplication;
+import com.storyapp.story.analytics.EngagementBuffer;
+import com.storyapp.story.analytics.ViewerSketchStore;
+import com.storyapp.story.dto.StoryMergePatch;
+import com.storyapp.story.exception.UnauthorizedException;
+import com.storyapp.story.model.Scene;
+import com.storyapp.story.model.Story;
+import com.storyapp.story.repository.CharacterRepository;
+import com.storyapp.story.repository.CommentRepository;
+import com.storyapp.story.repository.FavoriteRepository;
+import com.storyapp.story.repository.GenreRepository;
+import com.storyapp.story.repository.LikeRepository;
+import com.storyapp.story.repository.SceneRepository;
+import com.storyapp.story.repository.StoryGenreRepository;
+import com.storyapp.story.repository.StoryRepository;
+import com.storyapp.story.repository.StoryViewRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Applies merge patches through {@link StoryService} to stories on the
+ * embedded H2 database and reads the rows back.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false"
+})
+class StoryServicePatchTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private CharacterRepository characterRepository;
+
+    @Autowired
+    private SceneRepository sceneRepository;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private StoryGenreRepository storyGenreRepository;
+
+    @Autowired
+    private StoryViewRepository storyViewRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void nullClearsTextMembersAndTheTimeline() {
+        Story story = storyWithScenes("Cleared");
+
+        service().patchStory(story.getId(), patch("{\"description\": null, \"timelineJson\": null}"), null, "author");
+        entityManager.flush();
+        entityManager.clear();
+
+        Story patched = entityManager.find(Story.class, story.getId());
+        assertThat(patched.getDescription()).isNull();
+        assertThat(patched.getTimelineJson()).isNull();
+        assertThat(patched.getContent()).isEqualTo("Body");
+        assertThat(sceneRepository.findWithMediaByStoryId(story.getId())).isEmpty();
+    }
+
+    @Test
+    void leavesMembersMissingFromThePatchAlone() {
+        Story story = storyWithScenes("Original");
+        Long version = story.getVersion();
+
+        service().patchStory(story.getId(), patch("{\"title\": \"Renamed\", \"isPublished\": true}"), version, "author");
+        entityManager.flush();
+        entityManager.clear();
+
+        Story patched = entityManager.find(Story.class, story.getId());
+        assertThat(patched.getTitle()).isEqualTo("Renamed");
+        assertThat(patched.getIsPublished()).isTrue();
+        assertThat(patched.getDescription()).isEqualTo("Blurb");
+        assertThat(patched.getContent()).isEqualTo("Body");
+        assertThat(patched.getVersion()).isGreaterThan(version);
+        assertThat(sceneRepository.findWithMediaByStoryId(story.getId())).hasSize(2);
+    }
+
+    @Test
+    void rejectsATitleTheAuthorAlreadyUses() {
+        storyWithScenes("Taken");
+        Story story = storyWithScenes("Mine");
+
+        assertThatThrownBy(() -> service().patchStory(story.getId(), patch("{\"title\": \"Taken\"}"), null, "author"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsAStaleVersion() {
+        Story story = storyWithScenes("Stale");
+
+        assertThatThrownBy(() -> service().patchStory(story.getId(),
+                patch("{\"content\": \"New\", \"version\": " + (story.getVersion() + 1) + "}"), null, "author"))
+            .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void onlyTheAuthorCanPatch() {
+        Story story = storyWithScenes("Guarded");
+
+        assertThatThrownBy(() -> service().patchStory(story.getId(), patch("{\"content\": \"New\"}"), null, "someone"))
+            .isInstanceOf(UnauthorizedException.class);
+    }
+
+    private Story storyWithScenes(String title) {
+        Story story = new Story(title, "Body", "author");
+        story.setDescription("Blurb");
+        entityManager.persist(story);
+        entityManager.persist(new Scene("First", null, 1, story));
+        entityManager.persist(new Scene("Second", null, 2, story));
+        entityManager.flush();
+        return story;
+    }
+
+    private StoryMergePatch patch(String json) {
+        try {
+            return StoryMergePatch.parse(objectMapper.readTree(json), objectMapper);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private StoryService service() {
+        return new StoryService(storyRepository, characterRepository, sceneRepository, likeRepository,
+            favoriteRepository, commentRepository, genreRepository, mock(GenreCatalog.class), storyGenreRepository,
+            storyViewRepository, mock(StoryResponseAssembler.class), mock(StoryResponseCache.class),
+            mock(StoryNumberGenerator.class), mock(LikeCounter.class), mock(EngagementBuffer.class),
+            mock(ViewerSketchStore.class), mock(ApplicationEventPublisher.class),
+            new TimelineJsonParser(2_000_000, 2_000));
+    }
+
+    @SpringBootConfiguration
+    @AutoConfigurationPackage(basePackageClasses = StoryServiceApplication.class)
+    static class Config {
+    }
+}
@@ -0,0 +1,219 @@
+package com.storyapp.story.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.storyapp.story.StoryServiceApplication;
+import com.storyapp.story.analytics.EngagementBuffer;
+import com.storyapp.story.analytics.ViewerSketchStore;
+import com.storyapp.story.dto.StoryMergePatch;
+import com.storyapp.story.model.Scene;
+import com.storyapp.story.model.SceneMedia;
+import com.storyapp.story.model.Story;
+import com.storyapp.story.repository.CharacterRepository;
+import com.storyapp.story.repository.CommentRepository;
+import com.storyapp.story.repository.FavoriteRepository;
+import com.storyapp.story.repository.GenreRepository;
+import com.storyapp.story.repository.LikeRepository;
+import com.storyapp.story.repository.SceneRepository;
+import com.storyapp.story.repository.StoryGenreRepository;
+import com.storyapp.story.repository.StoryRepository;
+import com.storyapp.story.repository.StoryViewRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Syncs timelines into real scene rows on the embedded H2 database, through
+ * the merge patch path so that only the scenes are written, and reads the
+ * rows back.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false"
+})
+class StoryServiceSceneSyncTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private StoryRepository storyRepository;
+
+    @Autowired
+    private CharacterRepository characterRepository;
+
+    @Autowired
+    private SceneRepository sceneRepository;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private StoryGenreRepository storyGenreRepository;
+
+    @Autowired
+    private StoryViewRepository storyViewRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void updatesMatchedScenesInPlaceInsertsNewOnesAndDeletesTheRest() {
+        Story story = new Story("Keyed", "", "author");
+        entityManager.persist(story);
+        Scene a = keyedScene(story, "a", "Arrival", 1);
+        addMedia(a, "https://example.com/a.png", SceneMedia.MediaType.IMAGE, 0);
+        a.getCharacterNames().addAll(List.of("Ann", "Bo"));
+        entityManager.persist(a);
+        Scene b = keyedScene(story, "b", "Battle", 2);
+        entityManager.persist(b);
+        Scene d = keyedScene(story, "d", "Departure", 3);
+        entityManager.persist(d);
+        entityManager.flush();
+        Long mediaId = a.getMedia().get(0).getId();
+
+        syncTimeline(story, "["
+            + "{\"id\": \"b\", \"event\": \"Battle, renamed\", \"order\": 1},"
+            + "{\"id\": \"a\", \"event\": \"Arrival\", \"order\": 2, \"characters\": [\"Ann\", \"Bo\"],"
+            + " \"imageUrls\": [\"https://example.com/a.png\", \"https://example.com/a2.png\"]},"
+            + "{\"id\": \"c\", \"event\": \"Celebration\", \"order\": 3}"
+            + "]");
+
+        Map<String, Scene> scenes = scenesByEntryId(story);
+        assertThat(scenes).containsOnlyKeys("a", "b", "c");
+
+        Scene reordered = scenes.get("b");
+        assertThat(reordered.getId()).isEqualTo(b.getId());
+        assertThat(reordered.getTitle()).isEqualTo("Battle, renamed");
+        assertThat(reordered.getOrder()).isEqualTo(1);
+
+        Scene kept = scenes.get("a");
+        assertThat(kept.getId()).isEqualTo(a.getId());
+        assertThat(kept.getOrder()).isEqualTo(2);
+        assertThat(kept.getCharacterNames()).containsExactly("Ann", "Bo");
+        List<SceneMedia> media = kept.getMedia().stream()
+            .sorted(Comparator.comparing(SceneMedia::getPosition))
+            .collect(Collectors.toList());
+        assertThat(media).extracting(SceneMedia::getUrl)
+            .containsExactly("https://example.com/a.png", "https://example.com/a2.png");
+        assertThat(media.get(0).getId()).isEqualTo(mediaId);
+
+        Scene inserted = scenes.get("c");
+        assertThat(inserted.getId()).isNotIn(a.getId(), b.getId(), d.getId());
+        assertThat(inserted.getTitle()).isEqualTo("Celebration");
+        assertThat(entityManager.find(Scene.class, d.getId())).isNull();
+    }
+
+    @Test
+    void matchesUnkeyedScenesByPositionWithUnorderedScenesLast() {
+        Story story = new Story("Legacy", "", "author");
+        entityManager.persist(story);
+        Scene unordered = new Scene("Unordered", null, null, story);
+        entityManager.persist(unordered);
+        Scene second = new Scene("Second", null, 2, story);
+        entityManager.persist(second);
+        Scene first = new Scene("First", null, 1, story);
+        entityManager.persist(first);
+        entityManager.flush();
+
+        syncTimeline(story, "["
+            + "{\"id\": \"e1\", \"event\": \"One\", \"order\": 1},"
+            + "{\"id\": \"e2\", \"event\": \"Two\", \"order\": 2},"
+            + "{\"id\": \"e3\", \"event\": \"Three\"}"
+            + "]");
+
+        Map<String, Scene> scenes = scenesByEntryId(story);
+        assertThat(scenes).containsOnlyKeys("e1", "e2", "e3");
+        assertThat(scenes.get("e1").getId()).isEqualTo(first.getId());
+        assertThat(scenes.get("e2").getId()).isEqualTo(second.getId());
+        assertThat(scenes.get("e3").getId()).isEqualTo(unordered.getId());
+        assertThat(scenes.get("e3").getTitle()).isEqualTo("Three");
+        assertThat(scenes.get("e3").getOrder()).isNull();
+    }
+
+    @Test
+    void deletesUnkeyedScenesLeftOver() {
+        Story story = new Story("Shrinking", "", "author");
+        entityManager.persist(story);
+        Scene first = new Scene("First", null, 1, story);
+        addMedia(first, "https://example.com/theme.mp3", SceneMedia.MediaType.AUDIO, 0);
+        entityManager.persist(first);
+        Scene unordered = new Scene("Unordered", null, null, story);
+        entityManager.persist(unordered);
+        entityManager.flush();
+
+        syncTimeline(story, "[{\"id\": \"only\", \"event\": \"Only\", \"order\": 1}]");
+
+        Map<String, Scene> scenes = scenesByEntryId(story);
+        assertThat(scenes).containsOnlyKeys("only");
+        assertThat(scenes.get("only").getId()).isEqualTo(first.getId());
+        assertThat(scenes.get("only").getMedia()).isEmpty();
+        assertThat(entityManager.find(Scene.class, unordered.getId())).isNull();
+    }
+
+    private void syncTimeline(Story story, String timelineJson) {
+        try {
+            String patch = objectMapper.writeValueAsString(Map.of("timelineJson", timelineJson));
+            service().patchStory(story.getId(), StoryMergePatch.parse(objectMapper.readTree(patch), objectMapper),
+                null, "author");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Map<String, Scene> scenesByEntryId(Story story) {
+        return sceneRepository.findWithMediaByStoryId(story.getId()).stream()
+            .collect(Collectors.toMap(Scene::getTimelineEntryId, Function.identity()));
+    }
+
+    private static Scene keyedScene(Story story, String entryId, String title, Integer order) {
+        Scene scene = new Scene(title, null, order, story);
+        scene.setTimelineEntryId(entryId);
+        return scene;
+    }
+
+    private static void addMedia(Scene scene, String url, SceneMedia.MediaType type, int position) {
+        SceneMedia media = new SceneMedia(url, type, scene);
+        media.setPosition(position);
+        scene.getMedia().add(media);
+    }
+
+    private StoryService service() {
+        return new StoryService(storyRepository, characterRepository, sceneRepository, likeRepository,
+            favoriteRepository, commentRepository, genreRepository, mock(GenreCatalog.class), storyGenreRepository,
+            storyViewRepository, mock(StoryResponseAssembler.class), mock(StoryResponseCache.class),
+            mock(StoryNumberGenerator.class), mock(LikeCounter.class), mock(EngagementBuffer.class),
+            mock(ViewerSketchStore.class), mock(ApplicationEventPublisher.class),
+            new TimelineJsonParser(2_000_000, 2_000));
+    }
+
+    @SpringBootConfiguration
+    @AutoConfigurationPackage(basePackageClasses = StoryServiceApplication.class)
+    static class Config {
+    }
+}
@@ -0,0 +1,70 @@
+package com.storyapp.story.service;
+
+import com.storyapp.story.dto.TimelineEntryDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimelineJsonParserTest {
+
+    private final TimelineJsonParser parser = new TimelineJsonParser(10_000, 3);
+
+    @Test
+    void readsEveryKnownFieldAndSkipsUnknownOnes() {
+        List<TimelineEntryDto> entries = parser.parse("[{"
+            + "\"id\": 17, \"event\": \"Arrival\", \"description\": null, \"order\": 2,"
+            + "\"characters\": [\"Ann\", \"Bo\"], \"imageUrls\": [\"i1\"], \"videoUrls\": [], \"audioUrls\": null,"
+            + "\"extra\": {\"nested\": [1, 2, {\"deep\": true}]}"
+            + "}, {\"id\": \"b\", \"order\": null}]");
+
+        assertThat(entries).hasSize(2);
+        TimelineEntryDto first = entries.get(0);
+        assertThat(first.getId()).isEqualTo("17");
+        assertThat(first.getEvent()).isEqualTo("Arrival");
+        assertThat(first.getDescription()).isNull();
+        assertThat(first.getOrder()).isEqualTo(2);
+        assertThat(first.getCharacters()).containsExactly("Ann", "Bo");
+        assertThat(first.getImageUrls()).containsExactly("i1");
+        assertThat(first.getVideoUrls()).isEmpty();
+        assertThat(first.getAudioUrls()).isNull();
+        assertThat(entries.get(1).getId()).isEqualTo("b");
+        assertThat(entries.get(1).getOrder()).isNull();
+    }
+
+    @Test
+    void nullOrEmptyMeansNoTimeline() {
+        assertThat(parser.parse(null)).isNull();
+        assertThat(parser.parse("")).isNull();
+        assertThat(parser.parse("[]")).isEmpty();
+    }
+
+    @Test
+    void rejectsMalformedTimelines() {
+        assertInvalid("{\"id\": 1}", "must be a JSON array");
+        assertInvalid("[1]", "must be objects");
+        assertInvalid("[{\"order\": \"first\"}]", "'order' must be an integer");
+        assertInvalid("[{\"event\": 5}]", "'event' must be a string");
+        assertInvalid("[{\"characters\": \"Ann\"}]", "'characters' must be an array");
+        assertInvalid("[] []", "Unexpected content");
+        assertInvalid("[{\"id\": ", "Invalid timeline JSON");
+    }
+
+    @Test
+    void enforcesSizeEntryAndDepthLimits() {
+        assertInvalid("[{}, {}, {}, {}]", "at most 3 entries");
+        assertInvalid("[" + " ".repeat(10_000) + "]", "too large");
+        assertInvalid("[{\"extra\": [[[[[[[[[]]]]]]]]]}]", "Invalid timeline JSON");
+        assertThat(parser.isValid("[{}, {}, {}]")).isTrue();
+        assertThat(parser.isValid("[{}, {}, {}, {}]")).isFalse();
+        assertThat(parser.isValid(null)).isFalse();
+    }
+
+    private void assertInvalid(String json, String message) {
+        assertThatThrownBy(() -> parser.parse(json))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining(message);
+    }
+}
@@ -0,0 +1,109 @@
+package com.storyapp.story.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.storyapp.story.dto.TimelineEntryDto;
+import com.storyapp.story.model.Scene;
+import com.storyapp.story.model.SceneMedia;
+import com.storyapp.story.model.Story;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Materializes timelines from real scene rows on the embedded H2 database and
+ * reads them back with {@link TimelineJsonParser}, the parser the editor's
+ * JSON goes through.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false"
+})
+class TimelineMaterializerTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TimelineJsonParser parser = new TimelineJsonParser(2_000_000, 2_000);
+
+    @Test
+    void buildsTheTimelineFromSceneRowsInOrder() {
+        Story story = new Story("Timeline", "", "author");
+        entityManager.persist(story);
+
+        Scene second = new Scene("Second", "Later on", 2, story);
+        second.setTimelineEntryId("entry-2");
+        second.getCharacterNames().addAll(List.of("Bo", "Ann"));
+        addMedia(second, "https://example.com/b.png", SceneMedia.MediaType.IMAGE, 1);
+        addMedia(second, "https://example.com/a.png", SceneMedia.MediaType.IMAGE, 0);
+        addMedia(second, "https://example.com/clip.mp4", SceneMedia.MediaType.VIDEO, 0);
+        entityManager.persist(second);
+
+        Scene first = new Scene("First", null, 1, story);
+        entityManager.persist(first);
+
+        Scene unordered = new Scene("Unordered", null, null, story);
+        addMedia(unordered, "https://example.com/theme.mp3", SceneMedia.MediaType.AUDIO, 0);
+        entityManager.persist(unordered);
+        entityManager.flush();
+
+        Map<Long, String> timelines = materializer().getTimelines(Map.of(story.getId(), story.getVersion()));
+        List<TimelineEntryDto> entries = parser.parse(timelines.get(story.getId()));
+
+        assertThat(entries).hasSize(3);
+        assertThat(entries.get(0).getEvent()).isEqualTo("First");
+        assertThat(entries.get(0).getId()).isEqualTo(String.valueOf(first.getId()));
+        assertThat(entries.get(0).getCharacters()).isEmpty();
+
+        TimelineEntryDto entry = entries.get(1);
+        assertThat(entry.getId()).isEqualTo("entry-2");
+        assertThat(entry.getEvent()).isEqualTo("Second");
+        assertThat(entry.getDescription()).isEqualTo("Later on");
+        assertThat(entry.getOrder()).isEqualTo(2);
+        assertThat(entry.getCharacters()).containsExactly("Bo", "Ann");
+        assertThat(entry.getImageUrls()).containsExactly("https://example.com/a.png", "https://example.com/b.png");
+        assertThat(entry.getVideoUrls()).containsExactly("https://example.com/clip.mp4");
+        assertThat(entry.getAudioUrls()).isEmpty();
+
+        assertThat(entries.get(2).getEvent()).isEqualTo("Unordered");
+        assertThat(entries.get(2).getOrder()).isNull();
+        assertThat(entries.get(2).getAudioUrls()).containsExactly("https://example.com/theme.mp3");
+    }
+
+    @Test
+    void leavesOutStoriesWithoutScenes() {
+        Story story = new Story("Empty", "", "author");
+        entityManager.persist(story);
+        entityManager.flush();
+
+        assertThat(materializer().getTimelines(Map.of(story.getId(), story.getVersion()))).isEmpty();
+    }
+
+    private TimelineMaterializer materializer() {
+        return new TimelineMaterializer(jdbcTemplate, new ObjectMapper(), 100);
+    }
+
+    private static void addMedia(Scene scene, String url, SceneMedia.MediaType type, int position) {
+        SceneMedia media = new SceneMedia(url, type, scene);
+        media.setPosition(position);
+        scene.getMedia().add(media);
+    }
+
+    @SpringBootConfiguration
+    @AutoConfigurationPackage(basePackageClasses = Story.class)
+    static class Config {
+    }
+}
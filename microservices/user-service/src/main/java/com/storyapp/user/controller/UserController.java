@@ -4,13 +4,19 @@ import com.storyapp.user.repository.UserRepository;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final UserRepository userRepository;
 
     public UserController(UserRepository userRepository) {
@@ -28,4 +34,28 @@ public class UserController {
             })
             .orElse(ResponseEntity.notFound().build());
     }
+
+    /**
+     * Resolves many usernames with a single query. Unknown usernames are simply
+     * absent from the result, so callers can cache them as misses.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<Map<String, Object>>> getUsersByUsernames(@RequestBody List<String> usernames) {
+        Set<String> distinct = new LinkedHashSet<>(usernames);
+        distinct.remove(null);
+        if (distinct.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " usernames per request");
+        }
+        List<Map<String, Object>> response = new ArrayList<>();
+        if (distinct.isEmpty()) {
+            return ResponseEntity.ok(response);
+        }
+        userRepository.findByUsernameIn(distinct).forEach(user -> {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("username", user.getUsername());
+            entry.put("email", user.getEmail());
+            response.add(entry);
+        });
+        return ResponseEntity.ok(response);
+    }
 }